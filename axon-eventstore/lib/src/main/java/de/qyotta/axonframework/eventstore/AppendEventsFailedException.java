@@ -0,0 +1,38 @@
+package de.qyotta.axonframework.eventstore;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.axonframework.eventstore.EventStoreException;
+
+/**
+ * Thrown when appending the events of one or more aggregates failed while the events of several aggregates were appended concurrently. The events of all other streams have been appended.
+ */
+public class AppendEventsFailedException extends EventStoreException {
+   private static final long serialVersionUID = 1L;
+   private final Map<String, Throwable> failures;
+
+   @SuppressWarnings("nls")
+   public AppendEventsFailedException(final Map<String, Throwable> failures) {
+      super("Could not append events to streams " + failures.keySet(), failures.values()
+            .iterator()
+            .next());
+      this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+   }
+
+   /**
+    * @return the names of the streams the events could not be appended to
+    */
+   public Set<String> getFailedStreams() {
+      return failures.keySet();
+   }
+
+   /**
+    * @return the cause of the failure per stream name
+    */
+   public Map<String, Throwable> getFailures() {
+      return failures;
+   }
+}
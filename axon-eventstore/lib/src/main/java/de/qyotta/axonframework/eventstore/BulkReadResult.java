@@ -0,0 +1,56 @@
+package de.qyotta.axonframework.eventstore;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.axonframework.domain.DomainEventStream;
+
+/**
+ * The result of reading the events of several aggregates at once. Every requested identifier is either mapped to its event stream, reported as missing (no events were found) or mapped to the
+ * failure that prevented reading it.
+ */
+public class BulkReadResult {
+   private final Map<Object, DomainEventStream> streams = new LinkedHashMap<>();
+   private final Set<Object> missing = new LinkedHashSet<>();
+   private final Map<Object, Throwable> failures = new LinkedHashMap<>();
+
+   void found(final Object identifier, final DomainEventStream stream) {
+      streams.put(identifier, stream);
+   }
+
+   void missing(final Object identifier) {
+      missing.add(identifier);
+   }
+
+   void failed(final Object identifier, final Throwable failure) {
+      failures.put(identifier, failure);
+   }
+
+   /**
+    * @return the lazily decoded event streams per aggregate identifier in the order they were requested
+    */
+   public Map<Object, DomainEventStream> getStreams() {
+      return Collections.unmodifiableMap(streams);
+   }
+
+   /**
+    * @return the identifiers of the aggregates without any events
+    */
+   public Set<Object> getMissing() {
+      return Collections.unmodifiableSet(missing);
+   }
+
+   /**
+    * @return the cause of the failure per aggregate identifier that could not be read
+    */
+   public Map<Object, Throwable> getFailures() {
+      return Collections.unmodifiableMap(failures);
+   }
+
+   public boolean hasFailures() {
+      return !failures.isEmpty();
+   }
+}
@@ -1,23 +1,50 @@
 package de.qyotta.axonframework.eventstore;
 
+import de.qyotta.axonframework.eventstore.management.DecodingPipeline;
+import de.qyotta.axonframework.eventstore.management.EsCriteria;
+import de.qyotta.axonframework.eventstore.management.EsCriteriaBuilder;
+import de.qyotta.axonframework.eventstore.management.EsProperty;
 import de.qyotta.axonframework.eventstore.utils.Constants;
+import de.qyotta.axonframework.eventstore.utils.EsEventStoreUtils;
 import de.qyotta.eventstore.EventStoreClient;
 import de.qyotta.eventstore.EventStream;
 import de.qyotta.eventstore.model.Event;
+import de.qyotta.eventstore.model.EventResponse;
 
 import static de.qyotta.axonframework.eventstore.utils.EsEventStoreUtils.getStreamName;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 import org.axonframework.domain.DomainEventMessage;
 import org.axonframework.domain.DomainEventStream;
-import org.axonframework.eventstore.EventStore;
+import org.axonframework.eventstore.EventStoreException;
 import org.axonframework.eventstore.EventStreamNotFoundException;
-import org.axonframework.serializer.Revision;
+import org.axonframework.eventstore.EventVisitor;
+import org.axonframework.eventstore.PartialStreamSupport;
+import org.axonframework.eventstore.SnapshotEventStore;
+import org.axonframework.eventstore.management.Criteria;
+import org.axonframework.eventstore.management.CriteriaBuilder;
+import org.axonframework.eventstore.management.EventStoreManagement;
+import org.axonframework.serializer.SerializedObject;
+import org.axonframework.serializer.Serializer;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 
@@ -26,39 +53,110 @@ import com.google.gson.Gson;
  *
  */
 @SuppressWarnings({ "rawtypes" })
-public class EsEventStore implements EventStore {
+public class EsEventStore implements SnapshotEventStore, PartialStreamSupport, EventStoreManagement {
+   private static final Logger LOGGER = LoggerFactory.getLogger(EsEventStore.class.getName());
+   @SuppressWarnings("nls")
+   private static final String SNAPSHOT_STREAM_METADATA = "{\"$maxCount\":1}";
+   public static final int DEFAULT_MAX_CONCURRENT_APPENDS = 8;
+   public static final int DEFAULT_MAX_CONCURRENT_READS = 8;
    private final EventStoreClient client;
+   private final Serializer serializer;
+   // reads the payloads written with the content type of this store as well as JSON payloads
+   private final Serializer messageSerializer;
+   private final String contentType;
    private final Gson gson = new Gson();
+   private final Set<String> initializedSnapshotStreams = ConcurrentHashMap.newKeySet();
+   private ExecutorService executorService;
+   private int maxConcurrentAppends = DEFAULT_MAX_CONCURRENT_APPENDS;
+   private int maxConcurrentReads = DEFAULT_MAX_CONCURRENT_READS;
    @SuppressWarnings("nls")
    private String prefix = "domain";
+   @SuppressWarnings("nls")
+   private String snapshotPrefix = "snapshot";
 
    public EsEventStore(final EventStoreClient client) {
+      this(client, EsEventStoreUtils.defaultSerializer(), Constants.CONTENT_TYPE_JSON);
+   }
+
+   /**
+    * Creates an event store that writes payloads with the given serializer. The content type is stored with every event and tells readers which serializer to use, so it has to be unique per format.
+    * The HTTP API only accepts JSON events, so the serializer has to write JSON text.
+    */
+   @SuppressWarnings("nls")
+   public EsEventStore(final EventStoreClient client, final Serializer serializer, final String contentType) {
+      if (!serializer.canSerializeTo(String.class)) {
+         throw new IllegalArgumentException("The serializer has to be able to serialize to JSON text.");
+      }
       this.client = client;
+      this.serializer = serializer;
+      this.contentType = contentType;
+      this.messageSerializer = EsEventStoreUtils.newSerializer(contentType, serializer);
    }
 
    @Override
    public void appendEvents(final String type, final DomainEventStream events) {
-      final Map<Object, List<Event>> identifierToEventStoreEvents = new HashMap<>();
+      final Map<String, List<Event>> streamToEventStoreEvents = new LinkedHashMap<>();
       while (events.hasNext()) {
          final DomainEventMessage message = events.next();
-         final Object identifier = message.getAggregateIdentifier();
-         if (!identifierToEventStoreEvents.containsKey(identifier)) {
-            identifierToEventStoreEvents.put(identifier, new LinkedList<Event>());
+         final String streamName = getStreamName(type, message.getAggregateIdentifier(), prefix);
+         if (!streamToEventStoreEvents.containsKey(streamName)) {
+            streamToEventStoreEvents.put(streamName, new LinkedList<Event>());
          }
-         identifierToEventStoreEvents.get(identifier)
+         streamToEventStoreEvents.get(streamName)
                .add(toEvent(message));
       }
-      for (final Object identifier : identifierToEventStoreEvents.keySet()) {
-         client.appendEvents(getStreamName(type, identifier, prefix), identifierToEventStoreEvents.get(identifier));
+      if (executorService == null || maxConcurrentAppends < 2 || streamToEventStoreEvents.size() < 2) {
+         for (final Entry<String, List<Event>> entry : streamToEventStoreEvents.entrySet()) {
+            client.appendEvents(entry.getKey(), entry.getValue());
+         }
+         return;
       }
+      appendConcurrently(streamToEventStoreEvents);
    }
 
+   /**
+    * Stores the snapshot in the companion stream <code>{snapshotPrefix}-{type}-{id}</code>, which only keeps the latest snapshot (<code>$maxCount=1</code>).
+    */
+   @Override
+   public void appendSnapshotEvent(final String type, final DomainEventMessage snapshotEvent) {
+      final String streamName = getStreamName(type, snapshotEvent.getAggregateIdentifier(), snapshotPrefix);
+      if (!initializedSnapshotStreams.contains(streamName)) {
+         client.setStreamMetadata(streamName, SNAPSHOT_STREAM_METADATA);
+         initializedSnapshotStreams.add(streamName);
+      }
+      final HashMap<String, Object> metaData = new HashMap<>();
+      metaData.put(Constants.SEQUENCE_NUMBER_KEY, snapshotEvent.getSequenceNumber());
+      client.appendEvent(streamName, toEvent(snapshotEvent, metaData));
+   }
+
+   /**
+    * Reads the latest snapshot of the aggregate (if any) followed by the events that were appended after it.
+    */
    @Override
    public DomainEventStream readEvents(String type, Object identifier) {
+      final DomainEventMessage snapshot = readSnapshot(type, identifier);
+      if (snapshot == null) {
+         return readEvents(type, identifier, 0);
+      }
+      try {
+         final EventStream tail = client.readEvents(getStreamName(type, identifier, prefix), snapshot.getSequenceNumber() + 1, Long.MAX_VALUE);
+         return new SnapshotDomainEventStream(snapshot, new EsEventStreamBackedDomainEventStream(tail, messageSerializer));
+      } catch (final de.qyotta.eventstore.model.EventStreamNotFoundException e) {
+         throw new EventStreamNotFoundException(String.format("Aggregate of type [%s] with identifier [%s] cannot be found.", type, identifier), e); //$NON-NLS-1$
+      }
+   }
+
+   @Override
+   public DomainEventStream readEvents(String type, Object identifier, long firstSequenceNumber) {
+      return readEvents(type, identifier, firstSequenceNumber, Long.MAX_VALUE);
+   }
+
+   @Override
+   public DomainEventStream readEvents(String type, Object identifier, long firstSequenceNumber, long lastSequenceNumber) {
       DomainEventStream stream;
       try {
-         final EventStream eventStoreEventStream = client.readEvents(getStreamName(type, identifier, prefix));
-         stream = new EsEventStreamBackedDomainEventStream(eventStoreEventStream);
+         final EventStream eventStoreEventStream = client.readEvents(getStreamName(type, identifier, prefix), firstSequenceNumber, lastSequenceNumber);
+         stream = new EsEventStreamBackedDomainEventStream(eventStoreEventStream, messageSerializer);
          if (!stream.hasNext()) {
             throw new EventStreamNotFoundException(type, identifier);
          }
@@ -68,6 +166,111 @@ public class EsEventStore implements EventStore {
       return stream;
    }
 
+   /**
+    * Reads the events (starting at the latest snapshot) of several aggregates. If an executor is set (see {@link #setExecutorService(ExecutorService)}) at most
+    * {@link #setMaxConcurrentReads(int) maxConcurrentReads} aggregates are read concurrently, otherwise they are read one after the other. Only the first slice of every aggregate is read up front,
+    * further slices are read while the streams are consumed. Aggregates without events and aggregates that could not be read are reported in the result instead of throwing an exception.
+    */
+   @SuppressWarnings("nls")
+   public BulkReadResult readEvents(final String type, final Collection<?> identifiers) {
+      final BulkReadResult result = new BulkReadResult();
+      if (executorService == null || maxConcurrentReads < 2 || identifiers.size() < 2) {
+         for (final Object identifier : identifiers) {
+            readInto(result, identifier, () -> readEvents(type, identifier));
+         }
+         return result;
+      }
+      final Semaphore permits = new Semaphore(maxConcurrentReads);
+      final Map<Object, Future<DomainEventStream>> reads = new LinkedHashMap<>();
+      try {
+         for (final Object identifier : identifiers) {
+            permits.acquire();
+            try {
+               reads.put(identifier, executorService.submit(() -> {
+                  try {
+                     return readEvents(type, identifier);
+                  } finally {
+                     permits.release();
+                  }
+               }));
+            } catch (final RejectedExecutionException e) {
+               permits.release();
+               result.failed(identifier, e);
+            }
+         }
+         for (final Entry<Object, Future<DomainEventStream>> read : reads.entrySet()) {
+            readInto(result, read.getKey(), () -> {
+               try {
+                  return read.getValue()
+                        .get();
+               } catch (final ExecutionException e) {
+                  if (e.getCause() instanceof RuntimeException) {
+                     throw (RuntimeException) e.getCause();
+                  }
+                  throw new EventStoreException("Could not read aggregate of type [" + type + "] with identifier [" + read.getKey() + "]", e.getCause());
+               } catch (final InterruptedException e) {
+                  Thread.currentThread()
+                        .interrupt();
+                  throw new EventStoreException("Interrupted while reading aggregates of type " + type, e);
+               }
+            });
+         }
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+               .interrupt();
+         throw new EventStoreException("Interrupted while reading aggregates of type " + type, e);
+      }
+      return result;
+   }
+
+   private static void readInto(final BulkReadResult result, final Object identifier, final Supplier<DomainEventStream> read) {
+      try {
+         result.found(identifier, read.get());
+      } catch (final EventStreamNotFoundException e) {
+         result.missing(identifier);
+      } catch (final RuntimeException e) {
+         if (Thread.currentThread()
+               .isInterrupted()) {
+            throw e;
+         }
+         result.failed(identifier, e);
+      }
+   }
+
+   /**
+    * Visits all domain events in the order they were written (read from the <code>$ce-{prefix}</code> stream).
+    */
+   @Override
+   public void visitEvents(final EventVisitor visitor) {
+      visitEvents(null, visitor);
+   }
+
+   /**
+    * Visits the domain events matching the criteria in the order they were written. The criteria decide which streams are read: the streams of the aggregates if aggregate type and identifier are
+    * restricted, the <code>$et-</code> streams of the payload types if the payload type is restricted and the <code>$ce-{prefix}</code> stream otherwise. The remaining criteria are evaluated before
+    * the payloads are deserialized. If the timestamp has an upper bound the streams are read only up to the first event after it, assuming that the events were written in the order of their
+    * timestamps. If an executor is set the payloads are deserialized on it ahead of the visitor.
+    */
+   @Override
+   public void visitEvents(final Criteria criteria, final EventVisitor visitor) {
+      final EsCriteria esCriteria = criteria == null ? null : EsCriteria.toEsCriteria(criteria);
+      final DecodingPipeline pipeline = new DecodingPipeline(executorService, visitor);
+      final EsEventTypeReplayer replayer = new EsEventTypeReplayer(client, messageSerializer);
+      replayer.setPrefix(prefix);
+      final DateTime until = esCriteria == null ? null : (DateTime) esCriteria.upperBound(EsProperty.TIMESTAMP);
+      replayer.replayStreams(streamsFor(esCriteria), until, (streamName, event) -> {
+         if (esCriteria == null || esCriteria.matches(EsEventStoreUtils.aggregateTypeOf(streamName, prefix), event)) {
+            pipeline.accept(event);
+         }
+      });
+      pipeline.finish();
+   }
+
+   @Override
+   public CriteriaBuilder newCriteriaBuilder() {
+      return new EsCriteriaBuilder();
+   }
+
    /**
     * Set the prefix to use for domain-event-streams. This defaults to 'domain'.
     *
@@ -77,35 +280,150 @@ public class EsEventStore implements EventStore {
       this.prefix = prefix;
    }
 
+   /**
+    * Set the prefix to use for snapshot-streams. This defaults to 'snapshot'.
+    *
+    * @param snapshotPrefix
+    */
+   public void setSnapshotPrefix(final String snapshotPrefix) {
+      this.snapshotPrefix = snapshotPrefix;
+   }
+
+   /**
+    * Set the executor used to append and read the events of several aggregates concurrently and to deserialize visited events ahead of the visitor. Appends and reads are serial if no executor is
+    * set (the default).
+    *
+    * @param executorService
+    */
+   public void setExecutorService(final ExecutorService executorService) {
+      this.executorService = executorService;
+   }
+
+   /**
+    * Set the maximum number of streams that are appended to concurrently. This defaults to {@value #DEFAULT_MAX_CONCURRENT_APPENDS}.
+    *
+    * @param maxConcurrentAppends
+    */
+   public void setMaxConcurrentAppends(final int maxConcurrentAppends) {
+      this.maxConcurrentAppends = maxConcurrentAppends;
+   }
+
+   /**
+    * Set the maximum number of aggregates that are read concurrently by {@link #readEvents(String, Collection)}. This defaults to {@value #DEFAULT_MAX_CONCURRENT_READS}.
+    *
+    * @param maxConcurrentReads
+    */
+   public void setMaxConcurrentReads(final int maxConcurrentReads) {
+      this.maxConcurrentReads = maxConcurrentReads;
+   }
+
+   /**
+    * Appends the events of every stream as a separate task and waits for all of them. At most {@link #maxConcurrentAppends} appends are in flight at the same time.
+    */
+   @SuppressWarnings("nls")
+   private void appendConcurrently(final Map<String, List<Event>> streamToEventStoreEvents) {
+      final Semaphore permits = new Semaphore(maxConcurrentAppends);
+      final Map<String, Future<?>> results = new LinkedHashMap<>();
+      final Map<String, Throwable> failures = new LinkedHashMap<>();
+      try {
+         for (final Entry<String, List<Event>> entry : streamToEventStoreEvents.entrySet()) {
+            permits.acquire();
+            try {
+               results.put(entry.getKey(), executorService.submit(() -> {
+                  try {
+                     client.appendEvents(entry.getKey(), entry.getValue());
+                  } finally {
+                     permits.release();
+                  }
+               }));
+            } catch (final RejectedExecutionException e) {
+               permits.release();
+               failures.put(entry.getKey(), e);
+            }
+         }
+         for (final Entry<String, Future<?>> result : results.entrySet()) {
+            try {
+               result.getValue()
+                     .get();
+            } catch (final ExecutionException e) {
+               failures.put(result.getKey(), e.getCause());
+            }
+         }
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+               .interrupt();
+         throw new EventStoreException("Interrupted while appending events to streams " + streamToEventStoreEvents.keySet(), e);
+      }
+      if (!failures.isEmpty()) {
+         throw new AppendEventsFailedException(failures);
+      }
+   }
+
+   @SuppressWarnings("nls")
+   private List<String> streamsFor(final EsCriteria criteria) {
+      final List<String> streamNames = new ArrayList<>();
+      if (criteria != null) {
+         final Set<Object> aggregateTypes = criteria.requiredValues(EsProperty.AGGREGATE_TYPE);
+         final Set<Object> identifiers = criteria.requiredValues(EsProperty.AGGREGATE_IDENTIFIER);
+         if (aggregateTypes != null && identifiers != null) {
+            for (final Object aggregateType : aggregateTypes) {
+               for (final Object identifier : identifiers) {
+                  streamNames.add(getStreamName(aggregateType.toString(), identifier, prefix));
+               }
+            }
+            return streamNames;
+         }
+         final Set<Object> payloadTypes = criteria.requiredValues(EsProperty.PAYLOAD_TYPE);
+         if (payloadTypes != null) {
+            for (final Object payloadType : payloadTypes) {
+               streamNames.add(Constants.ES_EVENT_TYPE_STREAM_PREFIX + payloadType);
+            }
+            return streamNames;
+         }
+      }
+      streamNames.add(Constants.ES_CATEGORY_STREAM_PREFIX + prefix);
+      return streamNames;
+   }
+
+   private DomainEventMessage readSnapshot(final String type, final Object identifier) {
+      try {
+         final EventResponse snapshot = client.readLastEvent(getStreamName(type, identifier, snapshotPrefix));
+         return snapshot == null ? null : EsEventStoreUtils.snapshotMessageOf(snapshot, messageSerializer);
+      } catch (final de.qyotta.eventstore.model.EventStreamNotFoundException e) {
+         return null;
+      } catch (final RuntimeException e) {
+         LOGGER.warn("Could not read snapshot of aggregate of type [" + type + "] with identifier [" + identifier + "]. Reading all events instead.", e);
+         return null;
+      }
+   }
+
    private Event toEvent(final DomainEventMessage message) {
-      final HashMap<String, Object> metaData = new HashMap<>();
+      return toEvent(message, new HashMap<String, Object>());
+   }
+
+   private Event toEvent(final DomainEventMessage message, final HashMap<String, Object> metaData) {
       final HashMap<String, Object> eventMetaData = new HashMap<>();
       for (final Entry<String, Object> entry : message.getMetaData()
             .entrySet()) {
          eventMetaData.put(entry.getKey(), entry.getValue());
       }
 
+      final SerializedObject<String> payload = serializer.serialize(message.getPayload(), String.class);
       metaData.put(Constants.AGGREGATE_ID_KEY, message.getAggregateIdentifier());
-      metaData.put(Constants.PAYLOAD_REVISION_KEY, getPayloadRevision(message.getPayloadType()));
+      metaData.put(Constants.PAYLOAD_REVISION_KEY, payload.getType()
+            .getRevision());
+      metaData.put(Constants.CONTENT_TYPE_KEY, contentType);
       metaData.put(Constants.EVENT_METADATA_KEY, eventMetaData);
 
       return Event.builder()
             .eventId(message.getIdentifier())
             .eventType(message.getPayloadType()
                   .getName())
-            .data(serialize(message.getPayload()))
+            .data(payload.getData())
             .metadata(serialize(metaData))
             .build();
    }
 
-   private String getPayloadRevision(Class<?> payloadType) {
-      final Revision revision = payloadType.getDeclaredAnnotation(Revision.class);
-      if (revision != null) {
-         return revision.value();
-      }
-      return null;
-   }
-
    private String serialize(Object payload) {
       return gson.toJson(payload);
    }
@@ -2,6 +2,7 @@ package de.qyotta.axonframework.eventstore;
 
 import org.axonframework.domain.DomainEventMessage;
 import org.axonframework.domain.DomainEventStream;
+import org.axonframework.serializer.Serializer;
 
 import de.qyotta.axonframework.eventstore.utils.EsEventStoreUtils;
 import de.qyotta.eventstore.EventStream;
@@ -10,24 +11,39 @@ import de.qyotta.eventstore.EventStream;
 public class EsEventStreamBackedDomainEventStream implements DomainEventStream {
 
    private final EventStream eventStream;
+   private final Serializer serializer;
+   private DomainEventMessage peeked;
 
    public EsEventStreamBackedDomainEventStream(final EventStream eventStream) {
+      this(eventStream, EsEventStoreUtils.defaultSerializer());
+   }
+
+   public EsEventStreamBackedDomainEventStream(final EventStream eventStream, final Serializer serializer) {
       this.eventStream = eventStream;
+      this.serializer = serializer;
    }
 
    @Override
    public boolean hasNext() {
-      return eventStream.hasNext();
+      return peeked != null || eventStream.hasNext();
    }
 
    @Override
    public DomainEventMessage next() {
-      return EsEventStoreUtils.domainEventMessageOf(eventStream.next());
+      if (peeked != null) {
+         final DomainEventMessage next = peeked;
+         peeked = null;
+         return next;
+      }
+      return EsEventStoreUtils.domainEventMessageOf(eventStream.next(), serializer);
    }
 
    @Override
    public DomainEventMessage peek() {
-      return EsEventStoreUtils.domainEventMessageOf(eventStream.peek());
+      if (peeked == null) {
+         peeked = EsEventStoreUtils.domainEventMessageOf(eventStream.next(), serializer);
+      }
+      return peeked;
    }
 
 }
@@ -0,0 +1,178 @@
+package de.qyotta.axonframework.eventstore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.eventstore.EventVisitor;
+import org.axonframework.serializer.Serializer;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.qyotta.axonframework.eventstore.utils.Constants;
+import de.qyotta.axonframework.eventstore.utils.EsEventStoreUtils;
+import de.qyotta.axonframework.eventstore.utils.EventDeserializer;
+import de.qyotta.eventstore.EventStoreClient;
+import de.qyotta.eventstore.EventStream;
+import de.qyotta.eventstore.model.Event;
+import de.qyotta.eventstore.model.EventResponse;
+import de.qyotta.eventstore.model.EventStreamNotFoundException;
+
+/**
+ * Replays the domain events of selected event types by reading the <code>$et-{type}</code> streams of the <code>$by_event_type</code> system projection instead of all events of the store. The links
+ * of every type are resolved in slices (with embedded event bodies) and the per-type streams are merged by the commit position of the linked events, so the events are visited in the order they were
+ * written. Events without a commit position (e.g. of aggregate streams) follow in the order of their timestamps. Links that do not point to a domain event stream (see {@link #setPrefix(String)})
+ * or whose event was deleted are skipped.
+ */
+@SuppressWarnings({ "nls", "rawtypes" })
+public class EsEventTypeReplayer {
+   private static final Logger LOGGER = LoggerFactory.getLogger(EsEventTypeReplayer.class.getName());
+   // one total key per event: events with a commit position come first in commit order, events without one follow in the order of their timestamps, ties are broken by stream and event number
+   private static final Comparator<Cursor> ORDER = Comparator.comparingInt((final Cursor cursor) -> cursor.position >= 0 ? 0 : 1)
+         .thenComparingLong(cursor -> cursor.key)
+         .thenComparing(cursor -> cursor.streamId)
+         .thenComparingLong(cursor -> cursor.eventNumber);
+
+   private final EventStoreClient client;
+   private final Serializer serializer;
+   private String prefix = "domain";
+
+   public EsEventTypeReplayer(final EventStoreClient client) {
+      this(client, EsEventStoreUtils.defaultSerializer());
+   }
+
+   /**
+    * Creates a replayer that reads the payloads with the given serializer (see {@link EsEventStoreUtils#newSerializer(String, Serializer)}).
+    */
+   public EsEventTypeReplayer(final EventStoreClient client, final Serializer serializer) {
+      this.client = client;
+      this.serializer = serializer;
+   }
+
+   /**
+    * Visits all domain events with one of the given payload types in the order they were written.
+    *
+    * @return the number of visited events
+    */
+   public long replay(final Collection<? extends Class<?>> payloadTypes, final EventVisitor visitor) {
+      final List<String> eventTypes = new ArrayList<>(payloadTypes.size());
+      for (final Class<?> payloadType : payloadTypes) {
+         eventTypes.add(payloadType.getName());
+      }
+      return replayEventTypes(eventTypes, visitor);
+   }
+
+   /**
+    * Visits all domain events of the given event types (the names of their payload classes) in the order they were written.
+    *
+    * @return the number of visited events
+    */
+   public long replayEventTypes(final Collection<String> eventTypes, final EventVisitor visitor) {
+      final List<String> streamNames = new ArrayList<>(eventTypes.size());
+      for (final String eventType : eventTypes) {
+         streamNames.add(Constants.ES_EVENT_TYPE_STREAM_PREFIX + eventType);
+      }
+      final long count = replayStreams(streamNames, (streamName, event) -> visitor.doWithEvent(event));
+      LOGGER.info("Replayed " + count + " events of types " + eventTypes);
+      return count;
+   }
+
+   /**
+    * Visits the domain events of the given streams (link streams like <code>$et-</code> or <code>$ce-</code> streams as well as aggregate streams) merged in the order they were written.
+    *
+    * @param visitor
+    *           called with the name of the stream the event was written to and the event
+    * @return the number of visited events
+    */
+   public long replayStreams(final Collection<String> streamNames, final BiConsumer<String, DomainEventMessage> visitor) {
+      return replayStreams(streamNames, null, visitor);
+   }
+
+   /**
+    * Visits the domain events of the given streams merged in the order they were written up to the first event with a timestamp after the given one. This assumes that the events were written in the
+    * order of their timestamps; an event that was written later with an earlier timestamp (e.g. by a node whose clock is behind) is not visited.
+    *
+    * @param until
+    *           the timestamp after which the replay stops or <code>null</code> to visit all events
+    * @param visitor
+    *           called with the name of the stream the event was written to and the event
+    * @return the number of visited events
+    */
+   public long replayStreams(final Collection<String> streamNames, final DateTime until, final BiConsumer<String, DomainEventMessage> visitor) {
+      final PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(1, streamNames.size()), ORDER);
+      for (final String streamName : streamNames) {
+         try {
+            final Cursor cursor = new Cursor(client.readEvents(streamName, 0));
+            if (cursor.advance()) {
+               cursors.add(cursor);
+            }
+         } catch (final EventStreamNotFoundException e) {
+            LOGGER.debug("Stream " + streamName + " does not exist.");
+         }
+      }
+      long count = 0;
+      while (!cursors.isEmpty()) {
+         final Cursor cursor = cursors.poll();
+         final DomainEventMessage event = EsEventStoreUtils.domainEventMessageOf(cursor.head, serializer);
+         if (until != null && event.getTimestamp()
+               .isAfter(until)) {
+            LOGGER.debug("Stopped replaying " + streamNames + " at an event after " + until + ".");
+            break;
+         }
+         visitor.accept(cursor.head.getContent()
+               .getEventStreamId(), event);
+         count++;
+         if (cursor.advance()) {
+            cursors.add(cursor);
+         }
+      }
+      return count;
+   }
+
+   /**
+    * Set the prefix of the domain event streams whose events are replayed. This defaults to 'domain'.
+    *
+    * @param prefix
+    */
+   public void setPrefix(final String prefix) {
+      this.prefix = prefix;
+   }
+
+   private final class Cursor {
+      private final EventStream stream;
+      private EventResponse head;
+      private long position;
+      private long key;
+      private String streamId;
+      private long eventNumber;
+
+      private Cursor(final EventStream stream) {
+         this.stream = stream;
+      }
+
+      private boolean advance() {
+         final String streamPrefix = prefix + "-";
+         while (stream.hasNext()) {
+            final EventResponse next = stream.next();
+            final Event content = next.getContent();
+            if (content != null && content.getData() != null && content.getEventStreamId() != null && content.getEventStreamId()
+                  .startsWith(streamPrefix)) {
+               head = next;
+               position = EsEventStoreUtils.commitPosition(next);
+               key = position >= 0 ? position : EventDeserializer.timestamp(next.getUpdated())
+                     .getMillis();
+               streamId = content.getEventStreamId();
+               eventNumber = content.getEventNumber() == null ? -1 : content.getEventNumber();
+               return true;
+            }
+         }
+         head = null;
+         return false;
+      }
+   }
+}
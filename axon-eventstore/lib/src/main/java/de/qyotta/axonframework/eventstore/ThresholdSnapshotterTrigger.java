@@ -0,0 +1,169 @@
+package de.qyotta.axonframework.eventstore;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.eventsourcing.EventSourcedAggregateRoot;
+import org.axonframework.eventsourcing.Snapshotter;
+import org.axonframework.eventsourcing.SnapshotterTrigger;
+import org.axonframework.unitofwork.CurrentUnitOfWork;
+import org.axonframework.unitofwork.UnitOfWork;
+import org.axonframework.unitofwork.UnitOfWorkListenerAdapter;
+
+/**
+ * A {@link SnapshotterTrigger} that schedules a snapshot as soon as loading an aggregate needed more events than the configured event count threshold or took longer than the configured load time
+ * threshold. Events appended in the same unit of work are added to the count. A threshold that is zero or negative is disabled.
+ */
+@SuppressWarnings({ "rawtypes" })
+public class ThresholdSnapshotterTrigger implements SnapshotterTrigger {
+   public static final int DEFAULT_EVENT_COUNT_THRESHOLD = 50;
+
+   private final ConcurrentMap<Object, LoadStatistics> statistics = new ConcurrentHashMap<>();
+   private final Snapshotter snapshotter;
+   private int eventCountThreshold = DEFAULT_EVENT_COUNT_THRESHOLD;
+   private long loadTimeThresholdMillis;
+
+   public ThresholdSnapshotterTrigger(final Snapshotter snapshotter) {
+      this.snapshotter = snapshotter;
+   }
+
+   @Override
+   public DomainEventStream decorateForRead(final String aggregateType, final Object aggregateIdentifier, final DomainEventStream eventStream) {
+      final LoadStatistics loadStatistics = new LoadStatistics();
+      statistics.put(aggregateIdentifier, loadStatistics);
+      if (CurrentUnitOfWork.isStarted()) {
+         CurrentUnitOfWork.get()
+               .registerListener(new UnitOfWorkListenerAdapter() {
+                  @Override
+                  public void onCleanup(final UnitOfWork unitOfWork) {
+                     statistics.remove(aggregateIdentifier, loadStatistics);
+                  }
+               });
+      }
+      return new CountingDomainEventStream(eventStream, loadStatistics);
+   }
+
+   @Override
+   public DomainEventStream decorateForAppend(final String aggregateType, final EventSourcedAggregateRoot aggregate, final DomainEventStream eventStream) {
+      final LoadStatistics loadStatistics = statistics.get(aggregate.getIdentifier());
+      if (loadStatistics == null) {
+         return eventStream;
+      }
+      return new TriggeringDomainEventStream(aggregateType, aggregate.getIdentifier(), eventStream, loadStatistics);
+   }
+
+   /**
+    * Sets the number of events (loaded and appended) after which a snapshot is taken. Defaults to {@value #DEFAULT_EVENT_COUNT_THRESHOLD}.
+    */
+   public void setEventCountThreshold(final int eventCountThreshold) {
+      this.eventCountThreshold = eventCountThreshold;
+   }
+
+   /**
+    * Sets the time it may take to load an aggregate before a snapshot is taken. Disabled by default.
+    */
+   public void setLoadTimeThreshold(final long loadTimeThreshold, final TimeUnit unit) {
+      this.loadTimeThresholdMillis = unit.toMillis(loadTimeThreshold);
+   }
+
+   private boolean isExceeded(final LoadStatistics loadStatistics) {
+      return eventCountThreshold > 0 && loadStatistics.eventCount > eventCountThreshold
+            || loadTimeThresholdMillis > 0 && loadStatistics.loadTimeMillis() > loadTimeThresholdMillis;
+   }
+
+   private void scheduleSnapshot(final String aggregateType, final Object aggregateIdentifier) {
+      if (CurrentUnitOfWork.isStarted()) {
+         CurrentUnitOfWork.get()
+               .registerListener(new UnitOfWorkListenerAdapter() {
+                  @Override
+                  public void onCleanup(final UnitOfWork unitOfWork) {
+                     snapshotter.scheduleSnapshot(aggregateType, aggregateIdentifier);
+                  }
+               });
+      } else {
+         snapshotter.scheduleSnapshot(aggregateType, aggregateIdentifier);
+      }
+   }
+
+   private static final class LoadStatistics {
+      private final long startNanos = System.nanoTime();
+      private long endNanos;
+      private int eventCount;
+
+      private long loadTimeMillis() {
+         return TimeUnit.NANOSECONDS.toMillis((endNanos == 0 ? System.nanoTime() : endNanos) - startNanos);
+      }
+   }
+
+   private static final class CountingDomainEventStream implements DomainEventStream {
+      private final DomainEventStream delegate;
+      private final LoadStatistics loadStatistics;
+
+      private CountingDomainEventStream(final DomainEventStream delegate, final LoadStatistics loadStatistics) {
+         this.delegate = delegate;
+         this.loadStatistics = loadStatistics;
+      }
+
+      @Override
+      public boolean hasNext() {
+         final boolean hasNext = delegate.hasNext();
+         if (!hasNext && loadStatistics.endNanos == 0) {
+            loadStatistics.endNanos = System.nanoTime();
+         }
+         return hasNext;
+      }
+
+      @Override
+      public DomainEventMessage next() {
+         loadStatistics.eventCount++;
+         return delegate.next();
+      }
+
+      @Override
+      public DomainEventMessage peek() {
+         return delegate.peek();
+      }
+   }
+
+   private final class TriggeringDomainEventStream implements DomainEventStream {
+      private final String aggregateType;
+      private final Object aggregateIdentifier;
+      private final DomainEventStream delegate;
+      private final LoadStatistics loadStatistics;
+      private boolean triggered;
+
+      private TriggeringDomainEventStream(final String aggregateType, final Object aggregateIdentifier, final DomainEventStream delegate, final LoadStatistics loadStatistics) {
+         this.aggregateType = aggregateType;
+         this.aggregateIdentifier = aggregateIdentifier;
+         this.delegate = delegate;
+         this.loadStatistics = loadStatistics;
+      }
+
+      @Override
+      public boolean hasNext() {
+         final boolean hasNext = delegate.hasNext();
+         if (!hasNext && !triggered) {
+            triggered = true;
+            if (isExceeded(loadStatistics)) {
+               statistics.remove(aggregateIdentifier, loadStatistics);
+               scheduleSnapshot(aggregateType, aggregateIdentifier);
+            }
+         }
+         return hasNext;
+      }
+
+      @Override
+      public DomainEventMessage next() {
+         loadStatistics.eventCount++;
+         return delegate.next();
+      }
+
+      @Override
+      public DomainEventMessage peek() {
+         return delegate.peek();
+      }
+   }
+}
@@ -0,0 +1,249 @@
+package de.qyotta.axonframework.eventstore.management;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.eventstore.management.Criteria;
+import org.axonframework.eventstore.management.Property;
+import org.joda.time.DateTime;
+
+import de.qyotta.axonframework.eventstore.utils.EventDeserializer;
+
+/**
+ * A property of the events in the event store. Supported are {@value #AGGREGATE_TYPE} (the simple class name of the aggregate, compared case insensitive), {@value #AGGREGATE_IDENTIFIER},
+ * {@value #SEQUENCE_NUMBER}, {@value #TIMESTAMP} (compared with {@link DateTime}s, {@link Date}s, epoch millis or ISO-8601 strings) and {@value #PAYLOAD_TYPE} (compared with classes or class
+ * names).
+ */
+@SuppressWarnings("nls")
+public class EsProperty implements Property {
+   public static final String AGGREGATE_TYPE = "aggregateType";
+   public static final String AGGREGATE_IDENTIFIER = "aggregateIdentifier";
+   public static final String SEQUENCE_NUMBER = "sequenceNumber";
+   public static final String TIMESTAMP = "timeStamp";
+   public static final String PAYLOAD_TYPE = "payloadType";
+
+   private final String name;
+
+   public EsProperty(final String name) {
+      this.name = canonicalName(name);
+   }
+
+   @Override
+   public Criteria lessThan(final Object expression) {
+      return new Comparison(name, expression, Operator.LESS_THAN);
+   }
+
+   @Override
+   public Criteria lessThanEquals(final Object expression) {
+      return new Comparison(name, expression, Operator.LESS_THAN_EQUALS);
+   }
+
+   @Override
+   public Criteria greaterThan(final Object expression) {
+      return new Comparison(name, expression, Operator.GREATER_THAN);
+   }
+
+   @Override
+   public Criteria greaterThanEquals(final Object expression) {
+      return new Comparison(name, expression, Operator.GREATER_THAN_EQUALS);
+   }
+
+   @Override
+   public Criteria is(final Object expression) {
+      return new Membership(name, Collections.singleton(expression), true);
+   }
+
+   @Override
+   public Criteria isNot(final Object expression) {
+      return new Membership(name, Collections.singleton(expression), false);
+   }
+
+   @Override
+   public Criteria in(final Object expression) {
+      return new Membership(name, valuesOf(expression), true);
+   }
+
+   @Override
+   public Criteria notIn(final Object expression) {
+      return new Membership(name, valuesOf(expression), false);
+   }
+
+   /**
+    * Converts a value of the given property to the representation it is compared in: lower case aggregate types, aggregate identifiers and payload types as strings, sequence numbers as longs and
+    * timestamps as {@link DateTime}s.
+    */
+   public static Object normalize(final String property, final Object value) {
+      if (value == null) {
+         return null;
+      }
+      switch (property) {
+         case AGGREGATE_TYPE:
+            return value.toString()
+                  .toLowerCase();
+         case AGGREGATE_IDENTIFIER:
+            return value.toString();
+         case PAYLOAD_TYPE:
+            return value instanceof Class ? ((Class<?>) value).getName() : value.toString();
+         case SEQUENCE_NUMBER:
+            return value instanceof Number ? ((Number) value).longValue() : Long.valueOf(value.toString());
+         case TIMESTAMP:
+            if (value instanceof DateTime) {
+               return EventDeserializer.timestamp(((DateTime) value).getMillis());
+            }
+            if (value instanceof Date) {
+               return EventDeserializer.timestamp(((Date) value).getTime());
+            }
+            if (value instanceof Number) {
+               return EventDeserializer.timestamp(((Number) value).longValue());
+            }
+            return EventDeserializer.timestamp(value.toString());
+         default:
+            throw new IllegalArgumentException("Unknown property " + property);
+      }
+   }
+
+   static Object valueOf(final String property, final String aggregateType, final DomainEventMessage<?> message) {
+      switch (property) {
+         case AGGREGATE_TYPE:
+            return aggregateType;
+         case AGGREGATE_IDENTIFIER:
+            return String.valueOf(message.getAggregateIdentifier());
+         case PAYLOAD_TYPE:
+            return message.getPayloadType()
+                  .getName();
+         case SEQUENCE_NUMBER:
+            return message.getSequenceNumber();
+         case TIMESTAMP:
+            return message.getTimestamp();
+         default:
+            throw new IllegalArgumentException("Unknown property " + property);
+      }
+   }
+
+   private static String canonicalName(final String name) {
+      for (final String property : Arrays.asList(AGGREGATE_TYPE, AGGREGATE_IDENTIFIER, SEQUENCE_NUMBER, TIMESTAMP, PAYLOAD_TYPE)) {
+         if (property.equalsIgnoreCase(name)) {
+            return property;
+         }
+      }
+      throw new IllegalArgumentException("Unknown property " + name + ". Supported are " + AGGREGATE_TYPE + ", " + AGGREGATE_IDENTIFIER + ", " + SEQUENCE_NUMBER + ", " + TIMESTAMP + " and "
+            + PAYLOAD_TYPE + ".");
+   }
+
+   private static Collection<?> valuesOf(final Object expression) {
+      if (expression instanceof Collection) {
+         return (Collection<?>) expression;
+      }
+      if (expression instanceof Object[]) {
+         return Arrays.asList((Object[]) expression);
+      }
+      return Collections.singleton(expression);
+   }
+
+   private enum Operator {
+      LESS_THAN("<"),
+      LESS_THAN_EQUALS("<="),
+      GREATER_THAN(">"),
+      GREATER_THAN_EQUALS(">=");
+
+      private final String symbol;
+
+      private Operator(final String symbol) {
+         this.symbol = symbol;
+      }
+
+      private boolean test(final int comparison) {
+         switch (this) {
+            case LESS_THAN:
+               return comparison < 0;
+            case LESS_THAN_EQUALS:
+               return comparison <= 0;
+            case GREATER_THAN:
+               return comparison > 0;
+            default:
+               return comparison >= 0;
+         }
+      }
+   }
+
+   private static final class Comparison extends EsCriteria {
+      private final String property;
+      private final Object value;
+      private final Operator operator;
+
+      private Comparison(final String property, final Object value, final Operator operator) {
+         this.property = property;
+         this.value = normalize(property, value);
+         this.operator = operator;
+      }
+
+      @Override
+      public boolean matches(final String aggregateType, final DomainEventMessage<?> message) {
+         final Object actual = valueOf(property, aggregateType, message);
+         return actual != null && operator.test(compare(actual, value));
+      }
+
+      @Override
+      public Set<Object> requiredValues(final String requestedProperty) {
+         return null;
+      }
+
+      @Override
+      public Object upperBound(final String requestedProperty) {
+         return property.equals(requestedProperty) && (operator == Operator.LESS_THAN || operator == Operator.LESS_THAN_EQUALS) ? value : null;
+      }
+
+      @Override
+      public String toString() {
+         return property + " " + operator.symbol + " " + value;
+      }
+   }
+
+   private static final class Membership extends EsCriteria {
+      private final String property;
+      private final Set<Object> values = new HashSet<>();
+      private final boolean in;
+
+      private Membership(final String property, final Collection<?> values, final boolean in) {
+         this.property = property;
+         for (final Object value : values) {
+            this.values.add(normalize(property, value));
+         }
+         this.in = in;
+      }
+
+      @Override
+      public boolean matches(final String aggregateType, final DomainEventMessage<?> message) {
+         return values.contains(valueOf(property, aggregateType, message)) == in;
+      }
+
+      @Override
+      public Set<Object> requiredValues(final String requestedProperty) {
+         return in && property.equals(requestedProperty) ? Collections.unmodifiableSet(values) : null;
+      }
+
+      @Override
+      public Object upperBound(final String requestedProperty) {
+         if (!in || !property.equals(requestedProperty) || values.isEmpty()) {
+            return null;
+         }
+         Object max = null;
+         for (final Object value : values) {
+            if (value != null && (max == null || compare(value, max) > 0)) {
+               max = value;
+            }
+         }
+         return max;
+      }
+
+      @Override
+      public String toString() {
+         return property + (in ? " in " : " not in ") + values;
+      }
+   }
+}
@@ -5,8 +5,16 @@ import org.axonframework.domain.DomainEventMessage;
 @SuppressWarnings("nls")
 public interface Constants {
    public static final String ES_EVENT_TYPE_STREAM_PREFIX = "$et-";
+   public static final String ES_CATEGORY_STREAM_PREFIX = "$ce-";
    public static final String DOMAIN_EVENT_TYPE = DomainEventMessage.class.getSimpleName();
    public static final String AGGREGATE_ID_KEY = "AgregateIdentifier";
    public static final String PAYLOAD_REVISION_KEY = "PayloadRevision";
    public static final String EVENT_METADATA_KEY = "EventMetaData";
+   public static final String SEQUENCE_NUMBER_KEY = "SequenceNumber";
+   public static final String CONTENT_TYPE_KEY = "ContentType";
+   public static final String CONTENT_TYPE_JSON = "application/json";
+   /**
+    * The commit position of the linked event in the metadata of links written by the system projections (e.g. to <code>$et-</code> streams).
+    */
+   public static final String LINK_COMMIT_POSITION_KEY = "$c";
 }
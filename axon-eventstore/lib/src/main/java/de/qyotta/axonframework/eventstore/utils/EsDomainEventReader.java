@@ -2,21 +2,34 @@ package de.qyotta.axonframework.eventstore.utils;
 
 import de.qyotta.eventstore.EventStoreClient;
 import de.qyotta.eventstore.model.EventResponse;
+import de.qyotta.eventstore.utils.CheckpointStore;
 import de.qyotta.eventstore.utils.EventStreamReader;
 import de.qyotta.eventstore.utils.EventStreamReaderImpl;
 import de.qyotta.eventstore.utils.EventStreamReaderImpl.EventStreamReaderCallback;
+import de.qyotta.eventstore.utils.TimestampIndex;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.serializer.Serializer;
 
 public class EsDomainEventReader implements EventStreamReader {
    private final EventStreamReader reader;
+   private volatile Serializer serializer = EsEventStoreUtils.defaultSerializer();
 
    public interface EsDomainEventReaderCallback {
       void onEvent(final DomainEventMessage<?> event);
    }
 
+   /**
+    * Receives the events in batches. If this callback throws an exception none of the events in the batch count as read: they are read again by the next catch up.
+    */
+   public interface EsDomainEventReaderBatchCallback {
+      void onEvents(final List<DomainEventMessage<?>> events);
+   }
+
    public interface EsDomainEventReaderErrorCallback {
       void onEvent(final String messge, final Throwable cause);
    }
@@ -28,6 +41,13 @@ public class EsDomainEventReader implements EventStreamReader {
       }
    };
 
+   private EsDomainEventReaderBatchCallback batchCallback = new EsDomainEventReaderBatchCallback() {
+      @Override
+      public void onEvents(List<DomainEventMessage<?>> events) {
+         // do nothing by default
+      }
+   };
+
    private EsDomainEventReaderErrorCallback errorCallback = new EsDomainEventReaderErrorCallback() {
       @Override
       public void onEvent(final String message, final Throwable cause) {
@@ -39,6 +59,24 @@ public class EsDomainEventReader implements EventStreamReader {
       this.callback = callback;
    }
 
+   /**
+    * Set the callback that receives the events of a reader created with a batch size.
+    *
+    * @param batchCallback
+    */
+   public void setBatchCallback(EsDomainEventReaderBatchCallback batchCallback) {
+      this.batchCallback = batchCallback;
+   }
+
+   /**
+    * Set the serializer that reads the payloads of the events (see {@link EsEventStoreUtils#newSerializer(String, Serializer)}). This defaults to {@link EsEventStoreUtils#defaultSerializer()}.
+    *
+    * @param serializer
+    */
+   public void setSerializer(final Serializer serializer) {
+      this.serializer = serializer;
+   }
+
    public void setErrorCallback(EsDomainEventReaderErrorCallback errorCallback) {
       this.errorCallback = errorCallback;
    }
@@ -47,7 +85,7 @@ public class EsDomainEventReader implements EventStreamReader {
       this.reader = client.newEventStreamReader(streamName, intervalMillis, new EventStreamReaderCallback() {
          @Override
          public void readEvent(EventResponse event) {
-            callback.onEvent(EsEventStoreUtils.domainEventMessageOf(event));
+            callback.onEvent(EsEventStoreUtils.domainEventMessageOf(event, serializer));
          }
       }, new EventStreamReaderImpl.EventStreamReaderErrorCallback() {
          @Override
@@ -57,6 +95,20 @@ public class EsDomainEventReader implements EventStreamReader {
       });
    }
 
+   /**
+    * Creates a reader that hands the events to the batch callback (see {@link #setBatchCallback(EsDomainEventReaderBatchCallback)}) in batches of up to maxBatchSize events, waiting at most
+    * maxLingerMillis for a batch to fill up once the stream is exhausted.
+    */
+   public EsDomainEventReader(final EventStoreClient client, final String streamName, final int intervalMillis, final int maxBatchSize, final long maxLingerMillis) {
+      this.reader = client.newBatchEventStreamReader(streamName, intervalMillis, maxBatchSize, maxLingerMillis, events -> {
+         final List<DomainEventMessage<?>> messages = new ArrayList<>(events.size());
+         for (final EventResponse event : events) {
+            messages.add(EsEventStoreUtils.domainEventMessageOf(event, serializer));
+         }
+         batchCallback.onEvents(messages);
+      }, (errorMessage, cause) -> errorCallback.onEvent(errorMessage, cause));
+   }
+
    @Override
    public void start() {
       reader.start();
@@ -72,6 +124,21 @@ public class EsDomainEventReader implements EventStreamReader {
       reader.start(timestamp);
    }
 
+   @Override
+   public void resume() {
+      reader.resume();
+   }
+
+   @Override
+   public void setCheckpointStore(final CheckpointStore checkpointStore, final String checkpointName) {
+      reader.setCheckpointStore(checkpointStore, checkpointName);
+   }
+
+   @Override
+   public void setTimestampIndex(final TimestampIndex timestampIndex) {
+      reader.setTimestampIndex(timestampIndex);
+   }
+
    @Override
    public void catchUp() {
       reader.catchUp();
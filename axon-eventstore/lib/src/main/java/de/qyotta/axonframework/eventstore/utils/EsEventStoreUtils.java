@@ -1,59 +1,120 @@
 package de.qyotta.axonframework.eventstore.utils;
 
-import java.lang.reflect.Type;
-import java.util.Map;
-
 import org.axonframework.domain.DomainEventMessage;
-import org.axonframework.domain.GenericDomainEventMessage;
-import org.axonframework.domain.MetaData;
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
-
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import org.axonframework.serializer.SerializedDomainEventMessage;
+import org.axonframework.serializer.Serializer;
 
+import de.qyotta.axonframework.eventstore.EventEntry;
+import de.qyotta.eventstore.model.Event;
 import de.qyotta.eventstore.model.EventResponse;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
 @SuppressWarnings("nls")
 public final class EsEventStoreUtils {
-   private static final Type METADATA_TYPE = new TypeToken<Map<String, ?>>() {
-      //
-   }.getType();
+   private static final EventDeserializer DESERIALIZER = new EventDeserializer();
+   private static final EventEntrySerializer SERIALIZER = new EventEntrySerializer(DESERIALIZER);
 
    public static final String getStreamName(final String type, final Object identifier, final String prefix) {
       return prefix + "-" + type.toLowerCase() + "-" + identifier.toString();
    }
 
-   @SuppressWarnings({ "rawtypes", "unchecked" })
-   public static DomainEventMessage domainEventMessageOf(final EventResponse eventResponse) {
-      try {
-         final Gson gson = createGson();
-         final Class<?> payloadType = Class.forName(eventResponse.getContent()
-               .getEventType());
-         final Object payload = gson.fromJson(eventResponse.getContent()
-               .getData(), payloadType);
-
-         final Map<String, ?> metaData = gson.fromJson(eventResponse.getContent()
-               .getMetadata(), METADATA_TYPE);
-
-         final Map<String, ?> eventMetadata = (Map<String, ?>) metaData.get(Constants.EVENT_METADATA_KEY);
-         return new GenericDomainEventMessage(eventResponse.getTitle(), new DateTime(eventResponse.getUpdated(), DateTimeZone.UTC), metaData.get(Constants.AGGREGATE_ID_KEY), eventResponse.getContent()
-               .getEventNumber(), payload, new MetaData(eventMetadata));
-      } catch (final ClassNotFoundException e) {
-         throw new RuntimeException(e);
+   /**
+    * Extracts the (lower case) aggregate type from the name of a domain event stream (see {@link #getStreamName(String, Object, String)}).
+    *
+    * @return the aggregate type or <code>null</code> if the stream is not a domain event stream with the given prefix
+    */
+   public static String aggregateTypeOf(final String streamName, final String prefix) {
+      if (streamName == null || !streamName.startsWith(prefix + "-")) {
+         return null;
       }
+      final int start = prefix.length() + 1;
+      final int end = streamName.indexOf('-', start);
+      return end < 0 ? null : streamName.substring(start, end);
+   }
+
+   /**
+    * The serializer used when no other serializer is configured. It writes and reads payloads as JSON ({@link Constants#CONTENT_TYPE_JSON}).
+    */
+   public static Serializer defaultSerializer() {
+      return SERIALIZER;
+   }
+
+   /**
+    * Creates the serializer that reads the payloads of an event store: payloads written with the given content type are read with the given serializer, all others as JSON.
+    */
+   public static Serializer newSerializer(final String contentType, final Serializer serializer) {
+      if (serializer == SERIALIZER) {
+         return SERIALIZER;
+      }
+      final EventEntrySerializer entrySerializer = new EventEntrySerializer(DESERIALIZER);
+      entrySerializer.register(contentType, serializer);
+      return entrySerializer;
+   }
+
+   /**
+    * Creates a message whose payload and metadata are deserialized with the {@link #defaultSerializer() default serializer} when they are first accessed.
+    */
+   @SuppressWarnings("rawtypes")
+   public static DomainEventMessage domainEventMessageOf(final EventResponse eventResponse) {
+      return domainEventMessageOf(eventResponse, SERIALIZER);
+   }
+
+   /**
+    * Creates a message whose payload and metadata are deserialized with the given serializer (see {@link #newSerializer(String, Serializer)}) when they are first accessed.
+    */
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   public static DomainEventMessage domainEventMessageOf(final EventResponse eventResponse, final Serializer serializer) {
+      final EventDeserializer.Header header = DESERIALIZER.header(eventResponse.getContent()
+            .getMetadata());
+      return new SerializedDomainEventMessage(eventEntryOf(eventResponse, header, eventResponse.getContent()
+            .getEventNumber()), serializer);
+   }
 
+   /**
+    * The commit position of the linked event if the event was read through a link of a system projection (e.g. from a <code>$et-</code> stream).
+    *
+    * @return the commit position or -1 if it is unknown
+    */
+   public static long commitPosition(final EventResponse eventResponse) {
+      return DESERIALIZER.commitPosition(eventResponse.getContent()
+            .getLinkMetaData());
+   }
+
+   /**
+    * Creates the message of a snapshot event. Its sequence number is the one of the last event that is contained in the snapshot, not the event number within the snapshot stream.
+    */
+   @SuppressWarnings("rawtypes")
+   public static DomainEventMessage snapshotMessageOf(final EventResponse eventResponse) {
+      return snapshotMessageOf(eventResponse, SERIALIZER);
+   }
+
+   /**
+    * Creates the message of a snapshot event whose payload is deserialized with the given serializer (see {@link #newSerializer(String, Serializer)}).
+    */
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   public static DomainEventMessage snapshotMessageOf(final EventResponse eventResponse, final Serializer serializer) {
+      final EventDeserializer.Header header = DESERIALIZER.header(eventResponse.getContent()
+            .getMetadata());
+      if (header.getSequenceNumber() == null) {
+         throw new IllegalStateException("Snapshot event '" + eventResponse.getTitle() + "' has no sequence number.");
+      }
+      return new SerializedDomainEventMessage(eventEntryOf(eventResponse, header, header.getSequenceNumber()), serializer);
    }
 
-   private static Gson createGson() {
-      //// final RuntimeTypeAdapterFactory<Entity> typeFactory = RuntimeTypeAdapterFactory.of(Entity.class, "type")
-      //// .registerSubtype(UserEntity.class);
-      // final Gson gson = new GsonBuilder().registerTypeAdapterFactory(typeFactory)
-      // .create();
-      // return gson;
-      return new Gson();
+   private static EventEntry eventEntryOf(final EventResponse eventResponse, final EventDeserializer.Header header, final long sequenceNumber) {
+      final Event content = eventResponse.getContent();
+      return EventEntry.builder()
+            .eventIdentifier(eventResponse.getTitle())
+            .aggregateIdentifier(header.getAggregateIdentifier())
+            .sequenceNumber(sequenceNumber)
+            .timestamp(EventDeserializer.timestamp(eventResponse.getUpdated()))
+            .payloadType(content.getEventType())
+            .payloadRevision(header.getPayloadRevision())
+            .contentType(header.getContentType())
+            .serializedPayload(content.getData())
+            .serializedMetaData(content.getMetadata())
+            .build();
    }
 
 }
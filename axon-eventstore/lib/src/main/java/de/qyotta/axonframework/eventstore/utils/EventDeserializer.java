@@ -0,0 +1,234 @@
+package de.qyotta.axonframework.eventstore.utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.joda.time.Chronology;
+import org.joda.time.DateTime;
+import org.joda.time.chrono.ISOChronology;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import lombok.Getter;
+
+/**
+ * Decodes event payloads, metadata and timestamps. Payload classes, their {@link TypeAdapter}s and event types that cannot be resolved are cached, so after the first event of a type decoding neither
+ * loads classes nor builds adapters. Instances are thread safe and meant to be shared.
+ */
+@SuppressWarnings("nls")
+public final class EventDeserializer {
+   private static final Type METADATA_TYPE = new TypeToken<Map<String, ?>>() {
+      //
+   }.getType();
+   private static final Chronology UTC = ISOChronology.getInstanceUTC();
+   private static final DateTimeFormatter TIMESTAMP_PARSER = ISODateTimeFormat.dateTimeParser()
+         .withChronology(UTC);
+
+   private final ConcurrentMap<String, Class<?>> payloadTypes = new ConcurrentHashMap<>();
+   private final Set<String> unknownTypes = ConcurrentHashMap.newKeySet();
+   private final ClassValue<TypeAdapter<?>> adapters = new ClassValue<TypeAdapter<?>>() {
+      @Override
+      protected TypeAdapter<?> computeValue(final Class<?> type) {
+         return gson.getAdapter(type);
+      }
+   };
+   private final Gson gson;
+   private final TypeAdapter<Map<String, ?>> metaDataAdapter;
+   private final TypeAdapter<Object> valueAdapter;
+
+   public EventDeserializer() {
+      this(new Gson());
+   }
+
+   @SuppressWarnings("unchecked")
+   public EventDeserializer(final Gson gson) {
+      this.gson = gson;
+      this.metaDataAdapter = (TypeAdapter<Map<String, ?>>) gson.getAdapter(TypeToken.get(METADATA_TYPE));
+      this.valueAdapter = gson.getAdapter(Object.class);
+   }
+
+   /**
+    * Resolves the payload class of the given event type.
+    *
+    * @throws RuntimeException
+    *            caused by a {@link ClassNotFoundException} if there is no such class
+    */
+   public Class<?> payloadType(final String eventType) {
+      final Class<?> cached = payloadTypes.get(eventType);
+      if (cached != null) {
+         return cached;
+      }
+      if (unknownTypes.contains(eventType)) {
+         throw new RuntimeException(new ClassNotFoundException(eventType));
+      }
+      try {
+         final Class<?> payloadType = Class.forName(eventType);
+         payloadTypes.putIfAbsent(eventType, payloadType);
+         return payloadType;
+      } catch (final ClassNotFoundException e) {
+         unknownTypes.add(eventType);
+         throw new RuntimeException(e);
+      }
+   }
+
+   public Object payload(final String eventType, final String json) {
+      return fromJson(payloadType(eventType), json);
+   }
+
+   @SuppressWarnings("unchecked")
+   public <T> T fromJson(final Class<T> type, final String json) {
+      return read((TypeAdapter<T>) adapters.get(type), json);
+   }
+
+   public Map<String, ?> metaData(final String json) {
+      return read(metaDataAdapter, json);
+   }
+
+   /**
+    * Reads the aggregate identifier, the payload revision, the content type and the snapshot sequence number from the metadata of an event without building the metadata maps.
+    */
+   public Header header(final String metaDataJson) {
+      final Header header = new Header();
+      if (metaDataJson == null || metaDataJson.isEmpty()) {
+         return header;
+      }
+      try {
+         final JsonReader reader = reader(metaDataJson);
+         reader.beginObject();
+         while (reader.hasNext()) {
+            switch (reader.nextName()) {
+               case Constants.AGGREGATE_ID_KEY:
+                  header.aggregateIdentifier = valueAdapter.read(reader);
+                  break;
+               case Constants.PAYLOAD_REVISION_KEY:
+                  header.payloadRevision = (String) valueAdapter.read(reader);
+                  break;
+               case Constants.CONTENT_TYPE_KEY:
+                  header.contentType = (String) valueAdapter.read(reader);
+                  break;
+               case Constants.SEQUENCE_NUMBER_KEY:
+                  if (reader.peek() == JsonToken.NULL) {
+                     reader.nextNull();
+                  } else {
+                     header.sequenceNumber = reader.nextLong();
+                  }
+                  break;
+               default:
+                  reader.skipValue();
+            }
+         }
+         reader.endObject();
+         return header;
+      } catch (final IOException | IllegalStateException | NumberFormatException | ClassCastException e) {
+         throw new JsonSyntaxException(e);
+      }
+   }
+
+   /**
+    * Reads only the metadata the event was published with (see {@link Constants#EVENT_METADATA_KEY}) from the metadata of an event.
+    */
+   public Map<String, ?> eventMetaData(final String metaDataJson) {
+      if (metaDataJson == null || metaDataJson.isEmpty()) {
+         return null;
+      }
+      try {
+         Map<String, ?> eventMetaData = null;
+         final JsonReader reader = reader(metaDataJson);
+         reader.beginObject();
+         while (reader.hasNext()) {
+            if (Constants.EVENT_METADATA_KEY.equals(reader.nextName())) {
+               eventMetaData = metaDataAdapter.read(reader);
+            } else {
+               reader.skipValue();
+            }
+         }
+         reader.endObject();
+         return eventMetaData;
+      } catch (final IOException | IllegalStateException e) {
+         throw new JsonSyntaxException(e);
+      }
+   }
+
+   /**
+    * Reads the commit position of the linked event (see {@link Constants#LINK_COMMIT_POSITION_KEY}) from the metadata of a link.
+    *
+    * @return the commit position or -1 if the metadata does not contain it
+    */
+   public long commitPosition(final String linkMetaDataJson) {
+      if (linkMetaDataJson == null || linkMetaDataJson.isEmpty()) {
+         return -1;
+      }
+      return readCommitPosition(reader(linkMetaDataJson));
+   }
+
+   private static long readCommitPosition(final JsonReader reader) {
+      try {
+         reader.beginObject();
+         while (reader.hasNext()) {
+            if (Constants.LINK_COMMIT_POSITION_KEY.equals(reader.nextName())) {
+               // written as a number or as a string depending on the server version
+               return reader.peek() == JsonToken.STRING ? Long.parseLong(reader.nextString()) : reader.nextLong();
+            }
+            reader.skipValue();
+         }
+         return -1;
+      } catch (final IOException | IllegalStateException | NumberFormatException e) {
+         return -1;
+      }
+   }
+
+   public String toJson(final Object object) {
+      return gson.toJson(object);
+   }
+
+   /**
+    * Parses an ISO-8601 timestamp into a {@link DateTime} in UTC.
+    */
+   public static DateTime timestamp(final String timestamp) {
+      return TIMESTAMP_PARSER.parseDateTime(timestamp);
+   }
+
+   public static DateTime timestamp(final long epochMillis) {
+      return new DateTime(epochMillis, UTC);
+   }
+
+   private static <T> T read(final TypeAdapter<T> adapter, final String json) {
+      if (json == null || json.isEmpty()) {
+         return null;
+      }
+      try {
+         return adapter.read(reader(json));
+      } catch (final IOException | IllegalStateException e) {
+         throw new JsonSyntaxException(e);
+      }
+   }
+
+   private static JsonReader reader(final String json) {
+      final JsonReader reader = new JsonReader(new StringReader(json));
+      reader.setLenient(true);
+      return reader;
+   }
+
+   /**
+    * The values of the metadata of an event that are needed before its payload is deserialized.
+    */
+   @Getter
+   public static final class Header {
+      private Object aggregateIdentifier;
+      private String payloadRevision;
+      private String contentType;
+      private Long sequenceNumber;
+   }
+}
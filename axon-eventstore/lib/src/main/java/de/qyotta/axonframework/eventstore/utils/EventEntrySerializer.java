@@ -0,0 +1,115 @@
+package de.qyotta.axonframework.eventstore.utils;
+
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.axonframework.domain.MetaData;
+import org.axonframework.serializer.ChainingConverterFactory;
+import org.axonframework.serializer.ConverterFactory;
+import org.axonframework.serializer.Revision;
+import org.axonframework.serializer.SerializedObject;
+import org.axonframework.serializer.SerializedType;
+import org.axonframework.serializer.Serializer;
+import org.axonframework.serializer.SimpleSerializedObject;
+import org.axonframework.serializer.SimpleSerializedType;
+import org.axonframework.serializer.UnknownSerializedTypeException;
+
+/**
+ * The {@link Serializer} behind the lazily deserialized messages of the event stores. Payloads are handed to the serializer registered for their content type (see {@link Constants#CONTENT_TYPE_KEY})
+ * and are otherwise read as JSON of the type named in the serialized type. Metadata is the JSON metadata of the stored event, of which only the metadata the event was published with (see
+ * {@link Constants#EVENT_METADATA_KEY}) becomes the {@link MetaData} of the message.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class EventEntrySerializer implements Serializer {
+   private static final String METADATA_TYPE_NAME = MetaData.class.getName();
+   private static final Charset UTF_8 = Charset.forName("UTF-8"); //$NON-NLS-1$
+
+   private final EventDeserializer deserializer;
+   private final ConverterFactory converterFactory = new ChainingConverterFactory();
+   private final ConcurrentMap<String, Serializer> serializers = new ConcurrentHashMap<>();
+
+   public EventEntrySerializer(final EventDeserializer deserializer) {
+      this.deserializer = deserializer;
+   }
+
+   /**
+    * Registers the serializer that reads payloads written with the given content type.
+    */
+   public void register(final String contentType, final Serializer serializer) {
+      if (serializer != this) {
+         serializers.put(contentType, serializer);
+      }
+   }
+
+   @Override
+   public <T> SerializedObject<T> serialize(final Object object, final Class<T> expectedRepresentation) {
+      if (!canSerializeTo(expectedRepresentation)) {
+         throw new IllegalArgumentException("Cannot serialize to " + expectedRepresentation); //$NON-NLS-1$
+      }
+      final Object serializable;
+      if (object instanceof MetaData) {
+         final Map<String, Object> metaData = new HashMap<>();
+         metaData.put(Constants.EVENT_METADATA_KEY, new HashMap<>((MetaData) object));
+         serializable = metaData;
+      } else {
+         serializable = object;
+      }
+      final SerializedType type = typeForClass(object.getClass());
+      return new SimpleSerializedObject<>((T) deserializer.toJson(serializable), expectedRepresentation, type);
+   }
+
+   @Override
+   public <T> boolean canSerializeTo(final Class<T> expectedRepresentation) {
+      return String.class.equals(expectedRepresentation);
+   }
+
+   @Override
+   public <S, T> T deserialize(final SerializedObject<S> serializedObject) {
+      if (METADATA_TYPE_NAME.equals(serializedObject.getType()
+            .getName())) {
+         final Map<String, ?> eventMetaData = deserializer.eventMetaData(toString(serializedObject.getData()));
+         return (T) (eventMetaData == null ? MetaData.emptyInstance() : new MetaData(eventMetaData));
+      }
+      if (serializedObject instanceof ContentTypeSerializedObject) {
+         final String contentType = ((ContentTypeSerializedObject) serializedObject).getContentType();
+         final Serializer serializer = contentType == null ? null : serializers.get(contentType);
+         if (serializer != null) {
+            return serializer.deserialize(serializedObject);
+         }
+      }
+      return (T) deserializer.fromJson(classForType(serializedObject.getType()), toString(serializedObject.getData()));
+   }
+
+   @Override
+   public Class classForType(final SerializedType type) {
+      if (METADATA_TYPE_NAME.equals(type.getName())) {
+         return MetaData.class;
+      }
+      try {
+         return deserializer.payloadType(type.getName());
+      } catch (final RuntimeException e) {
+         throw new UnknownSerializedTypeException(type, e);
+      }
+   }
+
+   @Override
+   public SerializedType typeForClass(final Class type) {
+      final Revision revision = (Revision) type.getAnnotation(Revision.class);
+      return new SimpleSerializedType(type.getName(), revision != null ? revision.value() : null);
+   }
+
+   @Override
+   public ConverterFactory getConverterFactory() {
+      return converterFactory;
+   }
+
+   private static String toString(final Object data) {
+      if (data instanceof byte[]) {
+         return new String((byte[]) data, UTF_8);
+      }
+      return (String) data;
+   }
+}
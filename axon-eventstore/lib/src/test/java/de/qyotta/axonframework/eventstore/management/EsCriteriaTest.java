@@ -0,0 +1,78 @@
+package de.qyotta.axonframework.eventstore.management;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.eventstore.management.CriteriaBuilder;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class EsCriteriaTest {
+   private final CriteriaBuilder builder = new EsCriteriaBuilder();
+
+   @Test
+   public void shouldRequirePayloadTypesOfConjunction() {
+      final EsCriteria criteria = EsCriteria.toEsCriteria(builder.property("payloadType")
+            .in(Arrays.asList(String.class, Long.class))
+            .and(builder.property("sequenceNumber")
+                  .greaterThan(3)));
+
+      assertThat(criteria.requiredValues(EsProperty.PAYLOAD_TYPE), containsInAnyOrder((Object) String.class.getName(), Long.class.getName()));
+      assertThat(criteria.requiredValues(EsProperty.AGGREGATE_TYPE), is(nullValue()));
+   }
+
+   @Test
+   public void shouldNotRequireValuesOfDisjunctionWithUnrestrictedSide() {
+      final EsCriteria criteria = EsCriteria.toEsCriteria(builder.property("payloadType")
+            .is(String.class)
+            .or(builder.property("aggregateIdentifier")
+                  .is("42")));
+
+      assertThat(criteria.requiredValues(EsProperty.PAYLOAD_TYPE), is(nullValue()));
+   }
+
+   @Test
+   public void shouldMatchEvents() {
+      final EsCriteria criteria = EsCriteria.toEsCriteria(builder.property("aggregateType")
+            .is("MyAggregate")
+            .and(builder.property("sequenceNumber")
+                  .lessThanEquals(1L))
+            .and(builder.property("payloadType")
+                  .isNot(Long.class)));
+
+      assertThat(criteria.matches("myaggregate", new GenericDomainEventMessage<>("42", 1L, "payload")), is(true));
+      assertThat(criteria.matches("myaggregate", new GenericDomainEventMessage<>("42", 2L, "payload")), is(false));
+      assertThat(criteria.matches("other", new GenericDomainEventMessage<>("42", 1L, "payload")), is(false));
+      assertThat(criteria.matches("myaggregate", new GenericDomainEventMessage<>("42", 1L, 7L)), is(false));
+   }
+
+   @Test
+   public void shouldBoundTimestampByLowerLimitOfConjunction() {
+      final DateTime early = new DateTime(1000L, DateTimeZone.UTC);
+      final DateTime late = new DateTime(2000L, DateTimeZone.UTC);
+      final EsCriteria conjunction = EsCriteria.toEsCriteria(builder.property("timeStamp")
+            .lessThan(late)
+            .and(builder.property("timeStamp")
+                  .lessThanEquals(early))
+            .and(builder.property("sequenceNumber")
+                  .lessThan(5L)));
+      final EsCriteria disjunction = EsCriteria.toEsCriteria(builder.property("timeStamp")
+            .lessThan(early)
+            .or(builder.property("timeStamp")
+                  .is(late)));
+
+      assertThat(conjunction.upperBound(EsProperty.TIMESTAMP), is(equalTo((Object) early)));
+      assertThat(disjunction.upperBound(EsProperty.TIMESTAMP), is(equalTo((Object) late)));
+      assertThat(EsCriteria.toEsCriteria(builder.property("timeStamp")
+            .greaterThan(early))
+            .upperBound(EsProperty.TIMESTAMP), is(nullValue()));
+   }
+}
@@ -0,0 +1,125 @@
+package de.qyotta.axonframework.eventstore.utils;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.MetaData;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import de.qyotta.eventstore.model.Event;
+import de.qyotta.eventstore.model.EventResponse;
+
+/**
+ * Compares decoding an event the way {@link EsEventStoreUtils} used to (new {@link Gson}, <code>Class.forName</code> and reflective metadata parsing per event) with the cached
+ * {@link EventDeserializer}, once with the payload and metadata being read and once with only the type and aggregate identifier being read. Run {@link #main(String[])} with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings({ "nls", "rawtypes", "unchecked" })
+public class EventDeserializationBenchmark {
+   private static final Type METADATA_TYPE = new TypeToken<Map<String, ?>>() {
+      //
+   }.getType();
+
+   private EventResponse eventResponse;
+
+   @Setup
+   public void setUp() {
+      final Gson gson = new Gson();
+      final Map<String, Object> eventMetaData = new HashMap<>();
+      eventMetaData.put("networkId", "55");
+      eventMetaData.put("userId", UUID.randomUUID()
+            .toString());
+      final Map<String, Object> metaData = new HashMap<>();
+      metaData.put(Constants.AGGREGATE_ID_KEY, UUID.randomUUID()
+            .toString());
+      metaData.put(Constants.PAYLOAD_REVISION_KEY, "1");
+      metaData.put(Constants.EVENT_METADATA_KEY, eventMetaData);
+      eventResponse = EventResponse.builder()
+            .title("42@domain-benchmark-1")
+            .updated("2016-09-12T08:15:30.123456Z")
+            .content(Event.builder()
+                  .eventType(SampleEvent.class.getName())
+                  .eventNumber(42L)
+                  .data(gson.toJson(new SampleEvent(UUID.randomUUID()
+                        .toString(), "name", 17, true)))
+                  .metadata(gson.toJson(metaData))
+                  .build())
+            .build();
+   }
+
+   @Benchmark
+   public DomainEventMessage uncached() throws ClassNotFoundException {
+      final Gson gson = new Gson();
+      final Event content = eventResponse.getContent();
+      final Object payload = gson.fromJson(content.getData(), Class.forName(content.getEventType()));
+      final Map<String, ?> metaData = gson.fromJson(content.getMetadata(), METADATA_TYPE);
+      final Map<String, ?> eventMetadata = (Map<String, ?>) metaData.get(Constants.EVENT_METADATA_KEY);
+      return new GenericDomainEventMessage(eventResponse.getTitle(), new DateTime(eventResponse.getUpdated(), DateTimeZone.UTC), metaData.get(Constants.AGGREGATE_ID_KEY), content.getEventNumber(),
+            payload, new MetaData(eventMetadata));
+   }
+
+   @Benchmark
+   public void cached(final Blackhole blackhole) {
+      final DomainEventMessage message = EsEventStoreUtils.domainEventMessageOf(eventResponse);
+      blackhole.consume(message.getPayload());
+      blackhole.consume(message.getMetaData());
+   }
+
+   @Benchmark
+   public void lazyTypeAndAggregateOnly(final Blackhole blackhole) {
+      final DomainEventMessage message = EsEventStoreUtils.domainEventMessageOf(eventResponse);
+      blackhole.consume(message.getPayloadType());
+      blackhole.consume(message.getAggregateIdentifier());
+   }
+
+   public static void main(final String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(EventDeserializationBenchmark.class.getSimpleName())
+            .build()).run();
+   }
+
+   public static class SampleEvent {
+      private String id;
+      private String name;
+      private int count;
+      private boolean active;
+
+      public SampleEvent() {
+         //
+      }
+
+      public SampleEvent(final String id, final String name, final int count, final boolean active) {
+         this.id = id;
+         this.name = name;
+         this.count = count;
+         this.active = active;
+      }
+   }
+}
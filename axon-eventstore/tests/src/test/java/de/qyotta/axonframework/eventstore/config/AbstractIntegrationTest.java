@@ -54,7 +54,7 @@ public abstract class AbstractIntegrationTest {
    protected EventBus eventBus;
    @Autowired
    protected EventStore eventStore;
-   private EventStoreClient client;
+   protected EventStoreClient client;
    protected EventStoreSettings settings;
 
    @BeforeClass
@@ -1,29 +1,46 @@
 package de.qyotta.axonframework.eventstore.test;
 
+import static com.jayway.awaitility.Awaitility.await;
+import static com.jayway.awaitility.Duration.FIVE_SECONDS;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.axonframework.commandhandling.CommandExecutionException;
 import org.axonframework.commandhandling.GenericCommandMessage;
 import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.domain.DomainEventMessage;
 import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.GenericDomainEventMessage;
 import org.axonframework.domain.MetaData;
+import org.axonframework.eventstore.PartialStreamSupport;
+import org.axonframework.eventstore.SnapshotEventStore;
+import org.axonframework.eventstore.management.CriteriaBuilder;
+import org.axonframework.eventstore.management.EventStoreManagement;
 import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import de.qyotta.axonframework.eventstore.BulkReadResult;
+import de.qyotta.axonframework.eventstore.EsEventStore;
+import de.qyotta.axonframework.eventstore.EsEventTypeReplayer;
 import de.qyotta.axonframework.eventstore.config.AbstractIntegrationTest;
 import de.qyotta.axonframework.eventstore.domain.ChangeTestAggregate;
 import de.qyotta.axonframework.eventstore.domain.CreateTestAggregate;
 import de.qyotta.axonframework.eventstore.domain.MyTestAggregate;
+import de.qyotta.axonframework.eventstore.domain.TestAggregateCreated;
 
 @SuppressWarnings("nls")
 public class EventStoreIntegrationTest extends AbstractIntegrationTest {
@@ -71,4 +88,94 @@ public class EventStoreIntegrationTest extends AbstractIntegrationTest {
       assertThat(actual.get("Test"), is(equalTo("Test")));
    }
 
-}
\ No newline at end of file
+   @Test
+   public void shouldReadEventsStartingMidStream() {
+      for (int i = 0; i < 5; i++) {
+         commandGateway.sendAndWait(new CreateTestAggregate(myAggregateId));
+      }
+      final DomainEventStream readEvents = ((PartialStreamSupport) eventStore).readEvents(MyTestAggregate.class.getSimpleName(), myAggregateId, 2, 3);
+      assertThat(readEvents.next()
+            .getSequenceNumber(), is(equalTo(2L)));
+      assertThat(readEvents.next()
+            .getSequenceNumber(), is(equalTo(3L)));
+      assertThat(readEvents.hasNext(), is(false));
+   }
+
+   @Test
+   public void shouldReadEventsAfterLatestSnapshot() {
+      for (int i = 0; i < 5; i++) {
+         commandGateway.sendAndWait(new CreateTestAggregate(myAggregateId));
+      }
+      final String type = MyTestAggregate.class.getSimpleName();
+      ((SnapshotEventStore) eventStore).appendSnapshotEvent(type, new GenericDomainEventMessage<>(myAggregateId, 1L, new TestAggregateCreated(myAggregateId)));
+      ((SnapshotEventStore) eventStore).appendSnapshotEvent(type, new GenericDomainEventMessage<>(myAggregateId, 2L, new TestAggregateCreated(myAggregateId)));
+
+      final DomainEventStream readEvents = eventStore.readEvents(type, myAggregateId);
+      assertThat(readEvents.next()
+            .getSequenceNumber(), is(equalTo(2L)));
+      assertThat(readEvents.next()
+            .getSequenceNumber(), is(equalTo(3L)));
+      assertThat(readEvents.next()
+            .getSequenceNumber(), is(equalTo(4L)));
+      assertThat(readEvents.hasNext(), is(false));
+   }
+
+   @Test
+   public void shouldReadSeveralAggregatesAtOnce() {
+      commandGateway.sendAndWait(new CreateTestAggregate(myAggregateId));
+      final String missingAggregateId = UUID.randomUUID()
+            .toString();
+
+      final BulkReadResult result = ((EsEventStore) eventStore).readEvents(MyTestAggregate.class.getSimpleName(), Arrays.asList(myAggregateId, missingAggregateId));
+      assertThat(result.getStreams()
+            .get(myAggregateId)
+            .next()
+            .getSequenceNumber(), is(equalTo(0L)));
+      assertThat(result.getMissing()
+            .contains(missingAggregateId), is(true));
+      assertThat(result.hasFailures(), is(false));
+   }
+
+   @Test
+   public void shouldReplayEventsOfSelectedTypes() {
+      commandGateway.sendAndWait(new CreateTestAggregate(myAggregateId));
+
+      final EsEventTypeReplayer replayer = new EsEventTypeReplayer(client);
+      // the $et- streams are written asynchronously by the $by_event_type projection
+      await().atMost(FIVE_SECONDS)
+            .until(() -> {
+               final AtomicBoolean found = new AtomicBoolean(false);
+               replayer.replay(Arrays.asList(TestAggregateCreated.class), event -> {
+                  assertThat(event.getPayloadType(), is(equalTo(TestAggregateCreated.class)));
+                  if (myAggregateId.equals(event.getAggregateIdentifier())) {
+                     found.set(true);
+                  }
+               });
+               return found.get();
+            });
+   }
+
+   @Test
+   public void shouldVisitEventsMatchingCriteria() {
+      for (int i = 0; i < 3; i++) {
+         commandGateway.sendAndWait(new CreateTestAggregate(myAggregateId));
+      }
+      final EventStoreManagement management = (EventStoreManagement) eventStore;
+      final CriteriaBuilder criteria = management.newCriteriaBuilder();
+
+      final List<DomainEventMessage<?>> visited = new ArrayList<>();
+      management.visitEvents(criteria.property("aggregateType")
+            .is(MyTestAggregate.class.getSimpleName())
+            .and(criteria.property("aggregateIdentifier")
+                  .is(myAggregateId))
+            .and(criteria.property("sequenceNumber")
+                  .greaterThan(0L)), visited::add);
+
+      assertThat(visited.size(), is(equalTo(2)));
+      assertThat(visited.get(0)
+            .getSequenceNumber(), is(equalTo(1L)));
+      assertThat(visited.get(1)
+            .getPayload(), is(notNullValue()));
+   }
+
+}
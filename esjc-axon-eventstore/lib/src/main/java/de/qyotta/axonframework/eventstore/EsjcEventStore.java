@@ -2,74 +2,166 @@ package de.qyotta.axonframework.eventstore;
 
 import static de.qyotta.axonframework.eventstore.utils.EsjcEventstoreUtil.getStreamName;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
 
 import org.axonframework.domain.DomainEventMessage;
 import org.axonframework.domain.DomainEventStream;
-import org.axonframework.eventstore.EventStore;
+import org.axonframework.eventstore.EventStoreException;
 import org.axonframework.eventstore.EventStreamNotFoundException;
+import org.axonframework.eventstore.EventVisitor;
 import org.axonframework.eventstore.PartialStreamSupport;
-import org.axonframework.serializer.Revision;
+import org.axonframework.eventstore.SnapshotEventStore;
+import org.axonframework.eventstore.management.Criteria;
+import org.axonframework.eventstore.management.CriteriaBuilder;
+import org.axonframework.eventstore.management.EventStoreManagement;
+import org.axonframework.serializer.SerializedObject;
+import org.axonframework.serializer.Serializer;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.github.msemys.esjc.EventData;
 import com.github.msemys.esjc.ExpectedVersion;
+import com.github.msemys.esjc.SliceReadStatus;
+import com.github.msemys.esjc.StreamEventsSlice;
+import com.github.msemys.esjc.StreamMetadata;
+import com.github.msemys.esjc.StreamPosition;
+import com.github.msemys.esjc.WriteResult;
 import com.google.gson.Gson;
 
+import de.qyotta.axonframework.eventstore.management.DecodingPipeline;
+import de.qyotta.axonframework.eventstore.management.EsCriteria;
+import de.qyotta.axonframework.eventstore.management.EsCriteriaBuilder;
+import de.qyotta.axonframework.eventstore.management.EsProperty;
 import de.qyotta.axonframework.eventstore.utils.Constants;
 import de.qyotta.axonframework.eventstore.utils.EsjcEventstoreUtil;
+import de.qyotta.axonframework.eventstore.utils.InFlightLimiter;
 
 @SuppressWarnings({ "rawtypes", "nls" })
-public class EsjcEventStore implements EventStore, PartialStreamSupport {
+public class EsjcEventStore implements SnapshotEventStore, PartialStreamSupport, EventStoreManagement {
+   private static final Logger LOGGER = LoggerFactory.getLogger(EsjcEventStore.class.getName());
+   public static final int DEFAULT_MAX_IN_FLIGHT_APPENDS = 128;
+   public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 16 * 1024 * 1024;
+   public static final int DEFAULT_MAX_CONCURRENT_READS = 32;
    private static final String AGGREGATE_OF_TYPE_S_WITH_IDENTIFIER_S_CANNOT_BE_FOUND = "Aggregate of type [%s] with identifier [%s] cannot be found.";
+   private static final StreamMetadata SNAPSHOT_STREAM_METADATA = StreamMetadata.newBuilder()
+         .maxCount(1L)
+         .build();
    private final com.github.msemys.esjc.EventStore client;
+   private final Serializer serializer;
+   // reads the payloads written with the content type of this store as well as JSON payloads
+   private final Serializer messageSerializer;
+   private final String contentType;
+   private final boolean binary;
    private final Gson gson = new Gson();
+   private final Set<String> initializedSnapshotStreams = ConcurrentHashMap.newKeySet();
    private String prefix = "domain";
+   private String snapshotPrefix = "snapshot";
+   private final InFlightLimiter inFlightLimiter = new InFlightLimiter(DEFAULT_MAX_IN_FLIGHT_APPENDS, DEFAULT_MAX_IN_FLIGHT_BYTES);
+   private volatile WriteMode writeMode = WriteMode.FIRE_AND_FORGET;
+   private volatile BiConsumer<String, WriteResult> writeResultCallback;
+   private int maxConcurrentReads = DEFAULT_MAX_CONCURRENT_READS;
+   private ExecutorService executorService;
 
    public EsjcEventStore(final com.github.msemys.esjc.EventStore client) {
+      this(client, EsjcEventstoreUtil.defaultSerializer(), Constants.CONTENT_TYPE_JSON);
+   }
+
+   /**
+    * Creates an event store that writes payloads with the given serializer. The content type is stored with every event and tells readers which serializer to use, so it has to be unique per format.
+    * Payloads of any content type but {@link Constants#CONTENT_TYPE_JSON} are stored as binary event data (e.g. {@link de.qyotta.axonframework.eventstore.utils.SmileSerializer#CONTENT_TYPE}).
+    */
+   public EsjcEventStore(final com.github.msemys.esjc.EventStore client, final Serializer serializer, final String contentType) {
       this.client = client;
+      this.serializer = serializer;
+      this.contentType = contentType;
+      this.binary = !EsjcEventstoreUtil.isJson(contentType);
+      if (!serializer.canSerializeTo(binary ? byte[].class : String.class)) {
+         throw new IllegalArgumentException("The serializer cannot serialize to " + (binary ? "binary data." : "JSON text."));
+      }
+      this.messageSerializer = EsjcEventstoreUtil.newSerializer(contentType, serializer);
    }
 
    @Override
    public void appendEvents(final String type, final DomainEventStream eventStream) {
-      final Map<Object, List<EventData>> identifierToEventStoreEvents = new HashMap<>();
+      final Map<String, List<EventData>> streamToEventStoreEvents = new LinkedHashMap<>();
       while (eventStream.hasNext()) {
          final DomainEventMessage message = eventStream.next();
-         final Object identifier = message.getAggregateIdentifier();
-         if (!identifierToEventStoreEvents.containsKey(identifier)) {
-            identifierToEventStoreEvents.put(identifier, new LinkedList<EventData>());
+         final String streamName = getStreamName(type, message.getAggregateIdentifier(), prefix);
+         if (!streamToEventStoreEvents.containsKey(streamName)) {
+            streamToEventStoreEvents.put(streamName, new LinkedList<EventData>());
          }
-         identifierToEventStoreEvents.get(identifier)
+         streamToEventStoreEvents.get(streamName)
                .add(toEvent(message));
       }
-      for (final Entry<Object, List<EventData>> entry : identifierToEventStoreEvents.entrySet()) {
-         final String streamName = getStreamName(type, entry.getKey(), prefix);
-         final List<EventData> events = entry.getValue();
-         client.appendToStream(streamName, ExpectedVersion.ANY, events);
+      if (writeMode == WriteMode.ACKNOWLEDGED) {
+         appendAcknowledged(streamToEventStoreEvents);
+         return;
+      }
+      for (final Entry<String, List<EventData>> entry : streamToEventStoreEvents.entrySet()) {
+         final String streamName = entry.getKey();
+         client.appendToStream(streamName, ExpectedVersion.ANY, entry.getValue())
+               .whenComplete((result, e) -> {
+                  if (e != null) {
+                     LOGGER.error("Could not append events to stream " + streamName, e);
+                  } else {
+                     onWriteResult(streamName, result);
+                  }
+               });
       }
    }
 
+   /**
+    * Stores the snapshot in the companion stream <code>{snapshotPrefix}-{type}-{id}</code>, which only keeps the latest snapshot (<code>$maxCount=1</code>).
+    */
+   @Override
+   public void appendSnapshotEvent(final String type, final DomainEventMessage snapshotEvent) {
+      final String streamName = getStreamName(type, snapshotEvent.getAggregateIdentifier(), snapshotPrefix);
+      if (!initializedSnapshotStreams.contains(streamName)) {
+         client.setStreamMetadata(streamName, ExpectedVersion.ANY, SNAPSHOT_STREAM_METADATA)
+               .join();
+         initializedSnapshotStreams.add(streamName);
+      }
+      final HashMap<String, Object> metaData = new HashMap<>();
+      metaData.put(Constants.SEQUENCE_NUMBER_KEY, snapshotEvent.getSequenceNumber());
+      client.appendToStream(streamName, ExpectedVersion.ANY, toEvent(snapshotEvent, metaData))
+            .join();
+   }
+
+   /**
+    * Reads the latest snapshot of the aggregate (if any) followed by the events that were appended after it.
+    */
    @Override
    public DomainEventStream readEvents(final String type, final Object identifier) {
-      try {
-         final EsjcEventStreamBackedDomainEventStream eventStream = new EsjcEventStreamBackedDomainEventStream(EsjcEventstoreUtil.getStreamName(type, identifier, prefix), client);
-         if (!eventStream.hasNext()) {
-            throw new EventStreamNotFoundException(type, identifier);
-         }
-         return eventStream;
-      } catch (final EventStreamNotFoundException e) {
-         throw new EventStreamNotFoundException(String.format(AGGREGATE_OF_TYPE_S_WITH_IDENTIFIER_S_CANNOT_BE_FOUND, type, identifier), e);
+      final DomainEventMessage snapshot = readSnapshot(type, identifier);
+      if (snapshot == null) {
+         return readEvents(type, identifier, 0);
       }
+      return new SnapshotDomainEventStream(snapshot, new EsjcEventStreamBackedDomainEventStream(getStreamName(type, identifier, prefix), client, snapshot.getSequenceNumber() + 1, Long.MAX_VALUE,
+            messageSerializer));
    }
 
    @Override
    public DomainEventStream readEvents(String type, Object identifier, long firstSequenceNumber) {
       try {
-         final EsjcEventStreamBackedDomainEventStream eventStream = new EsjcEventStreamBackedDomainEventStream(EsjcEventstoreUtil.getStreamName(type, identifier, prefix), client, firstSequenceNumber);
+         final EsjcEventStreamBackedDomainEventStream eventStream = new EsjcEventStreamBackedDomainEventStream(EsjcEventstoreUtil.getStreamName(type, identifier, prefix), client, firstSequenceNumber,
+               Long.MAX_VALUE, messageSerializer);
          if (!eventStream.hasNext()) {
             throw new EventStreamNotFoundException(type, identifier);
          }
@@ -83,7 +175,7 @@ public class EsjcEventStore implements EventStore, PartialStreamSupport {
    public DomainEventStream readEvents(String type, Object identifier, long firstSequenceNumber, long lastSequenceNumber) {
       try {
          final EsjcEventStreamBackedDomainEventStream eventStream = new EsjcEventStreamBackedDomainEventStream(EsjcEventstoreUtil.getStreamName(type, identifier, prefix), client, firstSequenceNumber,
-               lastSequenceNumber);
+               lastSequenceNumber, messageSerializer);
          if (!eventStream.hasNext()) {
             throw new EventStreamNotFoundException(type, identifier);
          }
@@ -93,39 +185,257 @@ public class EsjcEventStore implements EventStore, PartialStreamSupport {
       }
    }
 
+   /**
+    * Reads the events (starting at the latest snapshot) of several aggregates concurrently. At most {@link #setMaxConcurrentReads(int) maxConcurrentReads} aggregates are requested at the same time;
+    * the method returns once the first slice of every aggregate arrived, further slices are read while the streams are consumed. Aggregates without events and aggregates that could not be read are
+    * reported in the result instead of throwing an exception.
+    */
+   public BulkReadResult readEvents(final String type, final Collection<?> identifiers) {
+      final Map<Object, CompletableFuture<DomainEventStream>> reads = new LinkedHashMap<>();
+      final Semaphore permits = new Semaphore(maxConcurrentReads);
+      try {
+         for (final Object identifier : identifiers) {
+            permits.acquire();
+            final CompletableFuture<DomainEventStream> read;
+            try {
+               read = readEventsAsync(type, identifier);
+            } catch (final RuntimeException e) {
+               permits.release();
+               final CompletableFuture<DomainEventStream> failed = new CompletableFuture<>();
+               failed.completeExceptionally(e);
+               reads.put(identifier, failed);
+               continue;
+            }
+            read.whenComplete((r, e) -> permits.release());
+            reads.put(identifier, read);
+         }
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+               .interrupt();
+         throw new EventStoreException("Interrupted while reading aggregates of type " + type, e);
+      }
+      final BulkReadResult result = new BulkReadResult();
+      for (final Entry<Object, CompletableFuture<DomainEventStream>> read : reads.entrySet()) {
+         try {
+            final DomainEventStream stream = read.getValue()
+                  .join();
+            if (stream.hasNext()) {
+               result.found(read.getKey(), stream);
+            } else {
+               result.missing(read.getKey());
+            }
+         } catch (final CompletionException e) {
+            result.failed(read.getKey(), e.getCause());
+         } catch (final RuntimeException e) {
+            result.failed(read.getKey(), e);
+         }
+      }
+      return result;
+   }
+
+   private CompletableFuture<DomainEventStream> readEventsAsync(final String type, final Object identifier) {
+      return client.readStreamEventsBackward(getStreamName(type, identifier, snapshotPrefix), StreamPosition.END, 1, false)
+            .handle((slice, e) -> snapshotOf(type, identifier, slice, e))
+            .thenCompose(snapshot -> {
+               final long firstSequenceNumber = snapshot == null ? 0 : snapshot.getSequenceNumber() + 1;
+               final EsjcEventStreamBackedDomainEventStream tail = new EsjcEventStreamBackedDomainEventStream(getStreamName(type, identifier, prefix), client, firstSequenceNumber, Long.MAX_VALUE,
+                     messageSerializer);
+               return tail.firstSlice()
+                     .thenApply(slice -> snapshot == null ? tail : new SnapshotDomainEventStream(snapshot, tail));
+            });
+   }
+
+   /**
+    * Pipelines the appends to all streams within the in-flight limits and waits until every append is acknowledged.
+    */
+   private void appendAcknowledged(final Map<String, List<EventData>> streamToEventStoreEvents) {
+      final Map<String, CompletableFuture<WriteResult>> results = new LinkedHashMap<>();
+      final Map<String, Throwable> failures = new LinkedHashMap<>();
+      try {
+         for (final Entry<String, List<EventData>> entry : streamToEventStoreEvents.entrySet()) {
+            final String streamName = entry.getKey();
+            final long bytes = sizeOf(entry.getValue());
+            inFlightLimiter.acquire(bytes);
+            final CompletableFuture<WriteResult> result;
+            try {
+               result = client.appendToStream(streamName, ExpectedVersion.ANY, entry.getValue());
+            } catch (final RuntimeException e) {
+               inFlightLimiter.release(bytes);
+               failures.put(streamName, e);
+               continue;
+            }
+            result.whenComplete((r, e) -> inFlightLimiter.release(bytes));
+            results.put(streamName, result);
+         }
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+               .interrupt();
+         throw new EventStoreException("Interrupted while appending events to streams " + streamToEventStoreEvents.keySet(), e);
+      }
+      // wait for all appends before any callback runs, so a slow or failing callback neither delays nor hides the result of another append
+      final Map<String, WriteResult> written = new LinkedHashMap<>();
+      for (final Entry<String, CompletableFuture<WriteResult>> result : results.entrySet()) {
+         try {
+            written.put(result.getKey(), result.getValue()
+                  .join());
+         } catch (final CompletionException | CancellationException e) {
+            failures.put(result.getKey(), e instanceof CompletionException ? e.getCause() : e);
+         }
+      }
+      for (final Entry<String, WriteResult> result : written.entrySet()) {
+         try {
+            onWriteResult(result.getKey(), result.getValue());
+         } catch (final RuntimeException e) {
+            LOGGER.warn("The write result callback failed for stream " + result.getKey() + ".", e);
+         }
+      }
+      if (!failures.isEmpty()) {
+         throw new AppendEventsFailedException(failures);
+      }
+   }
+
+   private void onWriteResult(final String streamName, final WriteResult result) {
+      if (LOGGER.isDebugEnabled()) {
+         LOGGER.debug("Appended events to stream " + streamName + ". Next expected version is " + result.nextExpectedVersion + " at position " + result.logPosition);
+      }
+      final BiConsumer<String, WriteResult> callback = writeResultCallback;
+      if (callback != null) {
+         callback.accept(streamName, result);
+      }
+   }
+
+   private static long sizeOf(final List<EventData> events) {
+      long bytes = 0;
+      for (final EventData event : events) {
+         bytes += (event.data == null ? 0 : event.data.length) + (event.metadata == null ? 0 : event.metadata.length);
+      }
+      return bytes;
+   }
+
+   private List<String> streamsFor(final EsCriteria criteria) {
+      final List<String> streamNames = new ArrayList<>();
+      if (criteria != null) {
+         final Set<Object> aggregateTypes = criteria.requiredValues(EsProperty.AGGREGATE_TYPE);
+         final Set<Object> identifiers = criteria.requiredValues(EsProperty.AGGREGATE_IDENTIFIER);
+         if (aggregateTypes != null && identifiers != null) {
+            for (final Object aggregateType : aggregateTypes) {
+               for (final Object identifier : identifiers) {
+                  streamNames.add(getStreamName(aggregateType.toString(), identifier, prefix));
+               }
+            }
+            return streamNames;
+         }
+         final Set<Object> payloadTypes = criteria.requiredValues(EsProperty.PAYLOAD_TYPE);
+         if (payloadTypes != null) {
+            for (final Object payloadType : payloadTypes) {
+               streamNames.add(Constants.ES_EVENT_TYPE_STREAM_PREFIX + payloadType);
+            }
+            return streamNames;
+         }
+      }
+      streamNames.add(Constants.ES_CATEGORY_STREAM_PREFIX + prefix);
+      return streamNames;
+   }
+
+   private DomainEventMessage readSnapshot(final String type, final Object identifier) {
+      try {
+         return snapshotOf(type, identifier, client.readStreamEventsBackward(getStreamName(type, identifier, snapshotPrefix), StreamPosition.END, 1, false)
+               .join(), null);
+      } catch (final RuntimeException e) {
+         return snapshotOf(type, identifier, null, e);
+      }
+   }
+
+   private DomainEventMessage snapshotOf(final String type, final Object identifier, final StreamEventsSlice slice, final Throwable failure) {
+      if (failure == null && (slice.status != SliceReadStatus.Success || slice.events.isEmpty())) {
+         return null;
+      }
+      Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+      if (cause == null) {
+         try {
+            return EsjcEventstoreUtil.snapshotMessageOf(slice.events.get(0), messageSerializer);
+         } catch (final RuntimeException e) {
+            cause = e;
+         }
+      }
+      LOGGER.warn("Could not read snapshot of aggregate of type [" + type + "] with identifier [" + identifier + "]. Reading all events instead.", cause);
+      return null;
+   }
+
    private EventData toEvent(final DomainEventMessage message) {
-      final HashMap<String, Object> metaData = new HashMap<>();
+      return toEvent(message, new HashMap<String, Object>());
+   }
+
+   private EventData toEvent(final DomainEventMessage message, final HashMap<String, Object> metaData) {
       final HashMap<String, Object> eventMetaData = new HashMap<>();
       for (final Entry<String, Object> entry : message.getMetaData()
             .entrySet()) {
          eventMetaData.put(entry.getKey(), entry.getValue());
       }
 
+      final EventData.Builder builder = EventData.newBuilder()
+            .eventId(UUID.fromString(message.getIdentifier())) // TODO check if it is save to assume that this can always be converted to a UUID
+            .type(message.getPayloadType()
+                  .getName());
+      final SerializedObject<?> payload;
+      if (binary) {
+         final SerializedObject<byte[]> binaryPayload = serializer.serialize(message.getPayload(), byte[].class);
+         builder.data(binaryPayload.getData());
+         payload = binaryPayload;
+      } else {
+         final SerializedObject<String> jsonPayload = serializer.serialize(message.getPayload(), String.class);
+         builder.jsonData(jsonPayload.getData());
+         payload = jsonPayload;
+      }
+
       metaData.put(Constants.AGGREGATE_ID_KEY, message.getAggregateIdentifier());
-      metaData.put(Constants.PAYLOAD_REVISION_KEY, getPayloadRevision(message.getPayloadType()));
+      metaData.put(Constants.PAYLOAD_REVISION_KEY, payload.getType()
+            .getRevision());
+      metaData.put(Constants.CONTENT_TYPE_KEY, contentType);
       metaData.put(Constants.EVENT_METADATA_KEY, eventMetaData);
 
-      return EventData.newBuilder()
-            .eventId(UUID.fromString(message.getIdentifier())) // TODO check if it is save to assume that this can always be converted to a UUID
-            .jsonData(serialize(message.getPayload()))
-            .type(message.getPayloadType()
-                  .getName())
-            .metadata(serialize(metaData))
+      return builder.metadata(serialize(metaData))
             .build();
    }
 
-   private String getPayloadRevision(final Class<?> payloadType) {
-      final Revision revision = payloadType.getDeclaredAnnotation(Revision.class);
-      if (revision != null) {
-         return revision.value();
-      }
-      return null;
-   }
-
    private String serialize(final Object payload) {
       return gson.toJson(payload);
    }
 
+   /**
+    * Visits all domain events in the order they were written (read from the <code>$ce-{prefix}</code> stream).
+    */
+   @Override
+   public void visitEvents(final EventVisitor visitor) {
+      visitEvents(null, visitor);
+   }
+
+   /**
+    * Visits the domain events matching the criteria in the order they were written. The criteria decide which streams are read: the streams of the aggregates if aggregate type and identifier are
+    * restricted, the <code>$et-</code> streams of the payload types if the payload type is restricted and the <code>$ce-{prefix}</code> stream otherwise. The remaining criteria are evaluated before
+    * the payloads are deserialized. If the timestamp has an upper bound the streams are read only up to the first event after it, assuming that the events were written in the order of their
+    * timestamps. If an executor is set the payloads are deserialized on it ahead of the visitor.
+    */
+   @Override
+   public void visitEvents(final Criteria criteria, final EventVisitor visitor) {
+      final EsCriteria esCriteria = criteria == null ? null : EsCriteria.toEsCriteria(criteria);
+      final DecodingPipeline pipeline = new DecodingPipeline(executorService, visitor);
+      final EsjcEventTypeReplayer replayer = new EsjcEventTypeReplayer(client, messageSerializer);
+      replayer.setPrefix(prefix);
+      final DateTime until = esCriteria == null ? null : (DateTime) esCriteria.upperBound(EsProperty.TIMESTAMP);
+      replayer.replayStreams(streamsFor(esCriteria), until, (streamName, event) -> {
+         if (esCriteria == null || esCriteria.matches(EsjcEventstoreUtil.aggregateTypeOf(streamName, prefix), event)) {
+            pipeline.accept(event);
+         }
+      });
+      pipeline.finish();
+   }
+
+   @Override
+   public CriteriaBuilder newCriteriaBuilder() {
+      return new EsCriteriaBuilder();
+   }
+
    /**
     * Set the prefix to use for domain-event-streams. This defaults to 'domain'.
     *
@@ -135,4 +445,85 @@ public class EsjcEventStore implements EventStore, PartialStreamSupport {
       this.prefix = prefix;
    }
 
+   /**
+    * Set how events are appended. This defaults to {@link WriteMode#FIRE_AND_FORGET}.
+    *
+    * @param writeMode
+    */
+   public void setWriteMode(final WriteMode writeMode) {
+      this.writeMode = writeMode;
+   }
+
+   /**
+    * Set the maximum number of appends that are in flight at the same time (across all units of work) in {@link WriteMode#ACKNOWLEDGED} mode. This defaults to
+    * {@value #DEFAULT_MAX_IN_FLIGHT_APPENDS}.
+    *
+    * @param maxInFlightAppends
+    */
+   public void setMaxInFlightAppends(final int maxInFlightAppends) {
+      inFlightLimiter.setMaxOperations(maxInFlightAppends);
+   }
+
+   /**
+    * Set the maximum number of event bytes (data and metadata) that are in flight at the same time in {@link WriteMode#ACKNOWLEDGED} mode. This defaults to 16 MB.
+    *
+    * @param maxInFlightBytes
+    */
+   public void setMaxInFlightBytes(final long maxInFlightBytes) {
+      inFlightLimiter.setMaxBytes(maxInFlightBytes);
+   }
+
+   /**
+    * Acknowledges appends ({@link WriteMode#ACKNOWLEDGED}) with at most the given number of appends in flight. A value of zero or less switches back to {@link WriteMode#FIRE_AND_FORGET}.
+    *
+    * @param maxConcurrentAppends
+    */
+   public void setMaxConcurrentAppends(final int maxConcurrentAppends) {
+      if (maxConcurrentAppends > 0) {
+         setMaxInFlightAppends(maxConcurrentAppends);
+         setWriteMode(WriteMode.ACKNOWLEDGED);
+      } else {
+         setWriteMode(WriteMode.FIRE_AND_FORGET);
+      }
+   }
+
+   /**
+    * Set a callback that receives the {@link WriteResult} (next expected version and log position) of every successful append. In {@link WriteMode#ACKNOWLEDGED} mode it is called after all appends
+    * of <code>appendEvents</code> completed; exceptions it throws are logged and do not fail the append.
+    *
+    * @param writeResultCallback
+    *           called with the stream name and the write result
+    */
+   public void setWriteResultCallback(final BiConsumer<String, WriteResult> writeResultCallback) {
+      this.writeResultCallback = writeResultCallback;
+   }
+
+   /**
+    * Set the executor the payloads of visited events are deserialized on (see {@link #visitEvents(Criteria, EventVisitor)}). Events are deserialized on the visiting thread if no executor is set (the
+    * default).
+    *
+    * @param executorService
+    */
+   public void setExecutorService(final ExecutorService executorService) {
+      this.executorService = executorService;
+   }
+
+   /**
+    * Set the maximum number of aggregates that are read concurrently by {@link #readEvents(String, Collection)}. This defaults to {@value #DEFAULT_MAX_CONCURRENT_READS}.
+    *
+    * @param maxConcurrentReads
+    */
+   public void setMaxConcurrentReads(final int maxConcurrentReads) {
+      this.maxConcurrentReads = maxConcurrentReads;
+   }
+
+   /**
+    * Set the prefix to use for snapshot-streams. This defaults to 'snapshot'.
+    *
+    * @param snapshotPrefix
+    */
+   public void setSnapshotPrefix(final String snapshotPrefix) {
+      this.snapshotPrefix = snapshotPrefix;
+   }
+
 }
@@ -1,10 +1,15 @@
 package de.qyotta.axonframework.eventstore;
 
-import java.util.LinkedList;
-import java.util.concurrent.ExecutionException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.axonframework.domain.DomainEventMessage;
 import org.axonframework.domain.DomainEventStream;
+import org.axonframework.eventstore.EventStoreException;
+import org.axonframework.serializer.Serializer;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.msemys.esjc.EventStore;
@@ -13,74 +18,136 @@ import com.github.msemys.esjc.StreamEventsSlice;
 
 import de.qyotta.axonframework.eventstore.utils.EsjcEventstoreUtil;
 
-@SuppressWarnings({ "rawtypes" })
+/**
+ * A {@link DomainEventStream} that reads the events of a stream slice by slice while it is consumed. The next slice is requested as soon as the current one arrives, so reading overlaps with
+ * processing and at most two slices are held in memory.
+ */
+@SuppressWarnings({ "rawtypes", "nls" })
 public class EsjcEventStreamBackedDomainEventStream implements DomainEventStream {
-   private final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(EsjcEventStore.class);
-   private static final int DEFAULT_NUMBER_OF_EVENTS_PER_SLICE = 4000;
-   private int currentEventNumber = 0;
-   private final LinkedList<ResolvedEvent> events = new LinkedList<>();
-
-   public EsjcEventStreamBackedDomainEventStream(String streamName, EventStore client) {
+   private static final Logger LOGGER = LoggerFactory.getLogger(EsjcEventStreamBackedDomainEventStream.class.getName());
+   public static final int DEFAULT_NUMBER_OF_EVENTS_PER_SLICE = 4000;
+
+   private final String streamName;
+   private final EventStore client;
+   private final long lastSequenceNumber;
+   private final int sliceSize;
+   private final Serializer serializer;
+   private ResolvedEvent[] events = new ResolvedEvent[0];
+   private int position;
+   private int size;
+   private CompletableFuture<StreamEventsSlice> nextSlice;
+   private DomainEventMessage peeked;
+
+   public EsjcEventStreamBackedDomainEventStream(final String streamName, final EventStore client) {
       this(streamName, client, 0);
    }
 
    public EsjcEventStreamBackedDomainEventStream(final String streamName, final EventStore client, final long firstSequenceNumber) {
-      boolean hasNext = true;
-      long from = firstSequenceNumber;
-      while (hasNext) {
-         try {
-
-            final StreamEventsSlice streamEventsSlice = client.readStreamEventsForward(streamName, from, DEFAULT_NUMBER_OF_EVENTS_PER_SLICE, true)
-                  .get();
-            events.addAll(streamEventsSlice.events);
-
-            hasNext = !streamEventsSlice.isEndOfStream;
-            from = streamEventsSlice.nextEventNumber;
-         } catch (InterruptedException | ExecutionException e) {
-            LOGGER.error(e.getMessage(), e);
-         }
-      }
+      this(streamName, client, firstSequenceNumber, Long.MAX_VALUE);
    }
 
-   public EsjcEventStreamBackedDomainEventStream(String streamName, EventStore client, long firstSequenceNumber, long lastSequenceNumber) {
+   /**
+    * Reads all events from the first sequence number (inclusive) up to the last sequence number (inclusive).
+    */
+   public EsjcEventStreamBackedDomainEventStream(final String streamName, final EventStore client, final long firstSequenceNumber, final long lastSequenceNumber) {
+      this(streamName, client, firstSequenceNumber, lastSequenceNumber, DEFAULT_NUMBER_OF_EVENTS_PER_SLICE);
+   }
 
-      long from = firstSequenceNumber;
+   /**
+    * Reads all events from the first sequence number (inclusive) up to the last sequence number (inclusive) and deserializes them with the given serializer (see
+    * {@link EsjcEventstoreUtil#newSerializer(String, Serializer)}).
+    */
+   public EsjcEventStreamBackedDomainEventStream(final String streamName, final EventStore client, final long firstSequenceNumber, final long lastSequenceNumber, final Serializer serializer) {
+      this(streamName, client, firstSequenceNumber, lastSequenceNumber, DEFAULT_NUMBER_OF_EVENTS_PER_SLICE, serializer);
+   }
 
-      long numberOfEventsTotal = lastSequenceNumber - firstSequenceNumber;
-      int numberOfEventsPerSlice = DEFAULT_NUMBER_OF_EVENTS_PER_SLICE;
-      if (numberOfEventsTotal < DEFAULT_NUMBER_OF_EVENTS_PER_SLICE) {
-         numberOfEventsPerSlice = Math.toIntExact(numberOfEventsTotal);
-      }
+   public EsjcEventStreamBackedDomainEventStream(final String streamName, final EventStore client, final long firstSequenceNumber, final long lastSequenceNumber, final int sliceSize) {
+      this(streamName, client, firstSequenceNumber, lastSequenceNumber, sliceSize, EsjcEventstoreUtil.defaultSerializer());
+   }
 
-      while (numberOfEventsTotal > 0) {
-         try {
-            final StreamEventsSlice streamEventsSlice = client.readStreamEventsForward(streamName, from, numberOfEventsPerSlice, true)
-                  .get();
-            events.addAll(streamEventsSlice.events);
-            from = streamEventsSlice.nextEventNumber;
-            numberOfEventsTotal = numberOfEventsTotal - numberOfEventsPerSlice;
-         } catch (InterruptedException | ExecutionException e) {
-            LOGGER.error(e.getMessage(), e);
-         }
+   public EsjcEventStreamBackedDomainEventStream(final String streamName, final EventStore client, final long firstSequenceNumber, final long lastSequenceNumber, final int sliceSize,
+         final Serializer serializer) {
+      this.streamName = streamName;
+      this.client = client;
+      this.lastSequenceNumber = lastSequenceNumber;
+      this.sliceSize = sliceSize;
+      this.serializer = serializer;
+      final long from = Math.max(0, firstSequenceNumber);
+      if (from <= lastSequenceNumber) {
+         nextSlice = readSlice(from);
       }
    }
 
+   /**
+    * @return a future that completes when the first slice was read (or reading it failed)
+    */
+   CompletableFuture<?> firstSlice() {
+      return nextSlice != null ? nextSlice : CompletableFuture.completedFuture(null);
+   }
+
    @Override
    public boolean hasNext() {
-      return !events.isEmpty() && currentEventNumber < events.size();
+      if (position < size) {
+         return true;
+      }
+      loadNextSlice();
+      return position < size;
    }
 
    @Override
    public DomainEventMessage next() {
-      final ResolvedEvent resolvedEvent = events.get(currentEventNumber);
-      currentEventNumber++;
-      return EsjcEventstoreUtil.domainEventMessageOf(resolvedEvent);
+      final DomainEventMessage next = peek();
+      peeked = null;
+      events[position++] = null;
+      return next;
    }
 
    @Override
    public DomainEventMessage peek() {
-      final ResolvedEvent resolvedEvent = events.get(currentEventNumber);
-      return EsjcEventstoreUtil.domainEventMessageOf(resolvedEvent);
+      if (peeked == null) {
+         if (!hasNext()) {
+            throw new NoSuchElementException("No more events in stream " + streamName);
+         }
+         peeked = EsjcEventstoreUtil.domainEventMessageOf(events[position], serializer);
+      }
+      return peeked;
+   }
+
+   private void loadNextSlice() {
+      while (position >= size && nextSlice != null) {
+         final StreamEventsSlice slice = await(nextSlice);
+         final List<ResolvedEvent> sliceEvents = slice.events;
+         final boolean endOfStream = slice.isEndOfStream || sliceEvents.isEmpty() || slice.nextEventNumber > lastSequenceNumber;
+         // request the next slice before the current one is consumed
+         nextSlice = endOfStream ? null : readSlice(slice.nextEventNumber);
+
+         if (events.length < sliceEvents.size()) {
+            events = new ResolvedEvent[sliceEvents.size()];
+         }
+         position = 0;
+         size = 0;
+         for (final ResolvedEvent event : sliceEvents) {
+            if (event.originalEvent().eventNumber > lastSequenceNumber) {
+               break;
+            }
+            events[size++] = event;
+         }
+         LOGGER.debug("Read " + size + " events from " + streamName + (endOfStream ? ". Reached end of stream." : ". Next event number is " + slice.nextEventNumber));
+      }
+   }
+
+   private CompletableFuture<StreamEventsSlice> readSlice(final long from) {
+      final int count = lastSequenceNumber - from < sliceSize ? (int) (lastSequenceNumber - from + 1) : sliceSize;
+      return client.readStreamEventsForward(streamName, from, count, true);
+   }
+
+   private StreamEventsSlice await(final CompletableFuture<StreamEventsSlice> slice) {
+      try {
+         return slice.join();
+      } catch (final CompletionException e) {
+         nextSlice = null;
+         throw new EventStoreException("Could not read events of stream " + streamName, e.getCause());
+      }
    }
 
 }
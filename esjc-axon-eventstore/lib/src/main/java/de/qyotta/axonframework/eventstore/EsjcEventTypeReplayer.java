@@ -0,0 +1,204 @@
+package de.qyotta.axonframework.eventstore;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.eventstore.EventStoreException;
+import org.axonframework.eventstore.EventVisitor;
+import org.axonframework.serializer.Serializer;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.msemys.esjc.EventStore;
+import com.github.msemys.esjc.ResolvedEvent;
+import com.github.msemys.esjc.StreamEventsSlice;
+
+import de.qyotta.axonframework.eventstore.utils.Constants;
+import de.qyotta.axonframework.eventstore.utils.EsjcEventstoreUtil;
+
+/**
+ * Replays the domain events of selected event types by reading the <code>$et-{type}</code> streams of the <code>$by_event_type</code> system projection instead of all events of the store. The links
+ * of every type are resolved in slices and the per-type streams are merged by the commit position of the linked events, so the events are visited in the order they were written. Links that do not
+ * point to a domain event stream (see {@link #setPrefix(String)}) or whose event was deleted are skipped. Links without a commit position follow in the order their events were created.
+ */
+@SuppressWarnings({ "nls", "rawtypes" })
+public class EsjcEventTypeReplayer {
+   private static final Logger LOGGER = LoggerFactory.getLogger(EsjcEventTypeReplayer.class.getName());
+   public static final int DEFAULT_BATCH_SIZE = 500;
+   // one total key per event: events with a commit position come first in commit order, events without one follow in the order of their timestamps, ties are broken by stream and event number
+   private static final Comparator<Cursor> ORDER = Comparator.comparingInt((final Cursor cursor) -> cursor.position >= 0 ? 0 : 1)
+         .thenComparingLong(cursor -> cursor.key)
+         .thenComparing(cursor -> cursor.streamId)
+         .thenComparingLong(cursor -> cursor.eventNumber);
+
+   private final EventStore client;
+   private final Serializer serializer;
+   private String prefix = "domain";
+   private int batchSize = DEFAULT_BATCH_SIZE;
+
+   public EsjcEventTypeReplayer(final EventStore client) {
+      this(client, EsjcEventstoreUtil.defaultSerializer());
+   }
+
+   /**
+    * Creates a replayer that reads the payloads with the given serializer (see {@link EsjcEventstoreUtil#newSerializer(String, Serializer)}).
+    */
+   public EsjcEventTypeReplayer(final EventStore client, final Serializer serializer) {
+      this.client = client;
+      this.serializer = serializer;
+   }
+
+   /**
+    * Visits all domain events with one of the given payload types in the order they were written.
+    *
+    * @return the number of visited events
+    */
+   public long replay(final Collection<? extends Class<?>> payloadTypes, final EventVisitor visitor) {
+      final List<String> eventTypes = new ArrayList<>(payloadTypes.size());
+      for (final Class<?> payloadType : payloadTypes) {
+         eventTypes.add(payloadType.getName());
+      }
+      return replayEventTypes(eventTypes, visitor);
+   }
+
+   /**
+    * Visits all domain events of the given event types (the names of their payload classes) in the order they were written.
+    *
+    * @return the number of visited events
+    */
+   public long replayEventTypes(final Collection<String> eventTypes, final EventVisitor visitor) {
+      final List<String> streamNames = new ArrayList<>(eventTypes.size());
+      for (final String eventType : eventTypes) {
+         streamNames.add(Constants.ES_EVENT_TYPE_STREAM_PREFIX + eventType);
+      }
+      final long count = replayStreams(streamNames, (streamName, event) -> visitor.doWithEvent(event));
+      LOGGER.info("Replayed " + count + " events of types " + eventTypes);
+      return count;
+   }
+
+   /**
+    * Visits the domain events of the given streams (link streams like <code>$et-</code> or <code>$ce-</code> streams as well as aggregate streams) merged in the order they were written.
+    *
+    * @param visitor
+    *           called with the name of the stream the event was written to and the event
+    * @return the number of visited events
+    */
+   public long replayStreams(final Collection<String> streamNames, final BiConsumer<String, DomainEventMessage> visitor) {
+      return replayStreams(streamNames, null, visitor);
+   }
+
+   /**
+    * Visits the domain events of the given streams merged in the order they were written up to the first event with a timestamp after the given one. This assumes that the events were written in the
+    * order of their timestamps; an event that was written later with an earlier timestamp (e.g. by a node whose clock is behind) is not visited.
+    *
+    * @param until
+    *           the timestamp after which the replay stops or <code>null</code> to visit all events
+    * @param visitor
+    *           called with the name of the stream the event was written to and the event
+    * @return the number of visited events
+    */
+   public long replayStreams(final Collection<String> streamNames, final DateTime until, final BiConsumer<String, DomainEventMessage> visitor) {
+      final PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(1, streamNames.size()), ORDER);
+      for (final String streamName : streamNames) {
+         final Cursor cursor = new Cursor(streamName);
+         if (cursor.advance()) {
+            cursors.add(cursor);
+         }
+      }
+      long count = 0;
+      while (!cursors.isEmpty()) {
+         final Cursor cursor = cursors.poll();
+         final DomainEventMessage event = EsjcEventstoreUtil.domainEventMessageOf(cursor.head, serializer);
+         if (until != null && event.getTimestamp()
+               .isAfter(until)) {
+            LOGGER.debug("Stopped replaying " + streamNames + " at an event after " + until + ".");
+            break;
+         }
+         visitor.accept(cursor.head.event.eventStreamId, event);
+         count++;
+         if (cursor.advance()) {
+            cursors.add(cursor);
+         }
+      }
+      return count;
+   }
+
+   /**
+    * Set the prefix of the domain event streams whose events are replayed. This defaults to 'domain'.
+    *
+    * @param prefix
+    */
+   public void setPrefix(final String prefix) {
+      this.prefix = prefix;
+   }
+
+   /**
+    * Set the number of links that are read and resolved per request. This defaults to {@value #DEFAULT_BATCH_SIZE}.
+    *
+    * @param batchSize
+    */
+   public void setBatchSize(final int batchSize) {
+      this.batchSize = batchSize;
+   }
+
+   /**
+    * Reads one <code>$et-</code> stream slice by slice. The next slice is requested as soon as the current one arrives.
+    */
+   private final class Cursor {
+      private final String streamName;
+      private final Deque<ResolvedEvent> buffer = new ArrayDeque<>();
+      private CompletableFuture<StreamEventsSlice> nextSlice;
+      private ResolvedEvent head;
+      private long position;
+      private long key;
+      private String streamId;
+      private long eventNumber;
+
+      private Cursor(final String streamName) {
+         this.streamName = streamName;
+         this.nextSlice = client.readStreamEventsForward(streamName, 0, batchSize, true);
+      }
+
+      private boolean advance() {
+         while (buffer.isEmpty()) {
+            if (nextSlice == null) {
+               head = null;
+               return false;
+            }
+            final StreamEventsSlice slice = await();
+            nextSlice = slice.isEndOfStream || slice.events.isEmpty() ? null : client.readStreamEventsForward(streamName, slice.nextEventNumber, batchSize, true);
+            final String streamPrefix = prefix + "-";
+            for (final ResolvedEvent event : slice.events) {
+               if (event.event != null && event.event.eventStreamId.startsWith(streamPrefix)) {
+                  buffer.addLast(event);
+               }
+            }
+         }
+         head = buffer.pollFirst();
+         position = EsjcEventstoreUtil.commitPosition(head);
+         key = position >= 0 ? position : head.event.created.toEpochMilli();
+         streamId = head.event.eventStreamId;
+         eventNumber = head.event.eventNumber;
+         return true;
+      }
+
+      private StreamEventsSlice await() {
+         try {
+            return nextSlice.join();
+         } catch (final CompletionException e) {
+            nextSlice = null;
+            throw new EventStoreException("Could not read events of stream " + streamName, e.getCause());
+         }
+      }
+   }
+}
@@ -3,9 +3,9 @@ package de.qyotta.axonframework.eventstore;
 import org.axonframework.serializer.SerializedDomainEventData;
 import org.axonframework.serializer.SerializedMetaData;
 import org.axonframework.serializer.SerializedObject;
-import org.axonframework.serializer.SimpleSerializedObject;
 import org.joda.time.DateTime;
 
+import de.qyotta.axonframework.eventstore.utils.ContentTypeSerializedObject;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,6 +15,10 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+/**
+ * An event as read from the event store with its payload and metadata still serialized. Backs a {@link org.axonframework.serializer.SerializedDomainEventMessage} so both are only deserialized when
+ * they are accessed. Payload and metadata are kept as the UTF-8 bytes they were read as.
+ */
 @SuppressWarnings("rawtypes")
 @Getter
 @Setter
@@ -24,30 +28,26 @@ import lombok.ToString;
 @NoArgsConstructor(access = AccessLevel.PUBLIC)
 @AllArgsConstructor(access = AccessLevel.PUBLIC)
 public class EventEntry implements SerializedDomainEventData {
-   private String aggregateIdentifier;
+   private Object aggregateIdentifier;
    private long sequenceNumber;
-   private String timeStamp;
+   private DateTime timestamp;
    private String aggregateType;
-   private String serializedPayload;
+   private Object serializedPayload;
    private String payloadType;
    private String payloadRevision;
-   private String serializedMetaData;
+   private String contentType;
+   private Object serializedMetaData;
    private String eventIdentifier;
 
-   @Override
-   public DateTime getTimestamp() {
-      return new DateTime(timeStamp);
-   }
-
    @Override
    @SuppressWarnings("unchecked")
    public SerializedObject getMetaData() {
-      return new SerializedMetaData(serializedMetaData, String.class);
+      return new SerializedMetaData(serializedMetaData, serializedMetaData == null ? String.class : serializedMetaData.getClass());
    }
 
    @Override
    @SuppressWarnings("unchecked")
    public SerializedObject getPayload() {
-      return new SimpleSerializedObject(serializedPayload, String.class, payloadType, payloadRevision);
+      return new ContentTypeSerializedObject(serializedPayload, serializedPayload.getClass(), payloadType, payloadRevision, contentType);
    }
 }
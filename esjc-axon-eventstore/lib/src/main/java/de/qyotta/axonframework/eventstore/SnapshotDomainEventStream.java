@@ -0,0 +1,42 @@
+package de.qyotta.axonframework.eventstore;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+
+/**
+ * A {@link DomainEventStream} that starts with an aggregate snapshot and continues with the events that were appended after the snapshot was taken.
+ */
+@SuppressWarnings({ "rawtypes" })
+public class SnapshotDomainEventStream implements DomainEventStream {
+   private final DomainEventMessage snapshot;
+   private final DomainEventStream tail;
+   private boolean snapshotConsumed;
+
+   public SnapshotDomainEventStream(final DomainEventMessage snapshot, final DomainEventStream tail) {
+      this.snapshot = snapshot;
+      this.tail = tail;
+   }
+
+   @Override
+   public boolean hasNext() {
+      return !snapshotConsumed || tail.hasNext();
+   }
+
+   @Override
+   public DomainEventMessage next() {
+      if (!snapshotConsumed) {
+         snapshotConsumed = true;
+         return snapshot;
+      }
+      return tail.next();
+   }
+
+   @Override
+   public DomainEventMessage peek() {
+      if (!snapshotConsumed) {
+         return snapshot;
+      }
+      return tail.peek();
+   }
+
+}
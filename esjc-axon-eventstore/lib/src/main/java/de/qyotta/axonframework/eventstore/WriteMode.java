@@ -0,0 +1,16 @@
+package de.qyotta.axonframework.eventstore;
+
+/**
+ * How {@link EsjcEventStore} appends events.
+ */
+public enum WriteMode {
+   /**
+    * Appends are sent without waiting for them. Failures are only logged. This is the default.
+    */
+   FIRE_AND_FORGET,
+   /**
+    * Appends are pipelined (limited by the in-flight limits of the event store) and <code>appendEvents</code> returns only when all of them are acknowledged, so the unit of work fails if an append
+    * fails.
+    */
+   ACKNOWLEDGED
+}
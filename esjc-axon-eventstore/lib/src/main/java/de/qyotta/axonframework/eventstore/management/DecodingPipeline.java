@@ -0,0 +1,81 @@
+package de.qyotta.axonframework.eventstore.management;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.eventstore.EventStoreException;
+import org.axonframework.eventstore.EventVisitor;
+
+/**
+ * Deserializes the payload and metadata of lazily deserialized events on an executor while the events are still handed to the visitor in the order they were read. At most
+ * {@link #DEFAULT_WINDOW_SIZE} events are decoded ahead of the visitor. Without an executor events are decoded on the calling thread.
+ */
+@SuppressWarnings("rawtypes")
+public class DecodingPipeline {
+   public static final int DEFAULT_WINDOW_SIZE = 1024;
+
+   private final ExecutorService executor;
+   private final EventVisitor visitor;
+   private final int windowSize;
+   private final Deque<CompletableFuture<DomainEventMessage>> window = new ArrayDeque<>();
+
+   public DecodingPipeline(final ExecutorService executor, final EventVisitor visitor) {
+      this(executor, visitor, DEFAULT_WINDOW_SIZE);
+   }
+
+   public DecodingPipeline(final ExecutorService executor, final EventVisitor visitor, final int windowSize) {
+      this.executor = executor;
+      this.visitor = visitor;
+      this.windowSize = Math.max(1, windowSize);
+   }
+
+   public void accept(final DomainEventMessage message) {
+      if (executor == null) {
+         visitor.doWithEvent(decode(message));
+         return;
+      }
+      if (window.size() >= windowSize) {
+         visitNext();
+      }
+      try {
+         window.addLast(CompletableFuture.supplyAsync(() -> decode(message), executor));
+      } catch (final RejectedExecutionException e) {
+         window.addLast(CompletableFuture.completedFuture(decode(message)));
+      }
+   }
+
+   /**
+    * Hands all remaining events to the visitor.
+    */
+   public void finish() {
+      while (!window.isEmpty()) {
+         visitNext();
+      }
+   }
+
+   private void visitNext() {
+      final DomainEventMessage message;
+      try {
+         message = window.pollFirst()
+               .join();
+      } catch (final CompletionException e) {
+         window.clear();
+         if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+         }
+         throw new EventStoreException("Could not decode event", e.getCause()); //$NON-NLS-1$
+      }
+      visitor.doWithEvent(message);
+   }
+
+   private static DomainEventMessage decode(final DomainEventMessage message) {
+      message.getPayload();
+      message.getMetaData();
+      return message;
+   }
+}
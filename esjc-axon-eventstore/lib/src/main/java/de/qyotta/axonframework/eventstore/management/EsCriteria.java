@@ -0,0 +1,110 @@
+package de.qyotta.axonframework.eventstore.management;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.eventstore.management.Criteria;
+
+/**
+ * {@link Criteria} that are evaluated against the events read from the event store. Besides matching single events the criteria tell which values of a property every matching event must have, so
+ * the event store can read a narrower stream (e.g. the <code>$et-</code> stream of a payload type) instead of all events.
+ */
+public abstract class EsCriteria implements Criteria {
+
+   /**
+    * @param aggregateType
+    *           the type of the aggregate as contained in the stream name (lower case)
+    * @param message
+    *           the event
+    */
+   public abstract boolean matches(final String aggregateType, final DomainEventMessage<?> message);
+
+   /**
+    * @return the values (see {@link EsProperty#normalize(String, Object)}) one of which the property of every matching event has or <code>null</code> if the property is not restricted to a set of
+    *         values
+    */
+   public abstract Set<Object> requiredValues(final String property);
+
+   /**
+    * @return the value (see {@link EsProperty#normalize(String, Object)}) the property of every matching event is less than or equal to or <code>null</code> if the property has no upper bound
+    */
+   public abstract Object upperBound(final String property);
+
+   @Override
+   public Criteria and(final Criteria criteria) {
+      return new Junction(this, toEsCriteria(criteria), true);
+   }
+
+   @Override
+   public Criteria or(final Criteria criteria) {
+      return new Junction(this, toEsCriteria(criteria), false);
+   }
+
+   @SuppressWarnings("nls")
+   public static EsCriteria toEsCriteria(final Criteria criteria) {
+      if (!(criteria instanceof EsCriteria)) {
+         throw new IllegalArgumentException("Criteria have to be created with the criteria builder of this event store, got " + criteria);
+      }
+      return (EsCriteria) criteria;
+   }
+
+   @SuppressWarnings("unchecked")
+   static int compare(final Object left, final Object right) {
+      return ((Comparable<Object>) left).compareTo(right);
+   }
+
+   private static final class Junction extends EsCriteria {
+      private final EsCriteria left;
+      private final EsCriteria right;
+      private final boolean and;
+
+      private Junction(final EsCriteria left, final EsCriteria right, final boolean and) {
+         this.left = left;
+         this.right = right;
+         this.and = and;
+      }
+
+      @Override
+      public boolean matches(final String aggregateType, final DomainEventMessage<?> message) {
+         return and ? left.matches(aggregateType, message) && right.matches(aggregateType, message) : left.matches(aggregateType, message) || right.matches(aggregateType, message);
+      }
+
+      @Override
+      public Set<Object> requiredValues(final String property) {
+         final Set<Object> leftValues = left.requiredValues(property);
+         final Set<Object> rightValues = right.requiredValues(property);
+         if (and) {
+            if (leftValues == null || rightValues == null) {
+               return leftValues == null ? rightValues : leftValues;
+            }
+            final Set<Object> values = new HashSet<>(leftValues);
+            values.retainAll(rightValues);
+            return values;
+         }
+         if (leftValues == null || rightValues == null) {
+            return null;
+         }
+         final Set<Object> values = new HashSet<>(leftValues);
+         values.addAll(rightValues);
+         return values;
+      }
+
+      @Override
+      public Object upperBound(final String property) {
+         final Object leftBound = left.upperBound(property);
+         final Object rightBound = right.upperBound(property);
+         if (leftBound == null || rightBound == null) {
+            return and ? (leftBound == null ? rightBound : leftBound) : null;
+         }
+         final boolean leftIsLower = compare(leftBound, rightBound) <= 0;
+         return leftIsLower == and ? leftBound : rightBound;
+      }
+
+      @SuppressWarnings("nls")
+      @Override
+      public String toString() {
+         return "(" + left + (and ? " and " : " or ") + right + ")";
+      }
+   }
+}
@@ -0,0 +1,15 @@
+package de.qyotta.axonframework.eventstore.management;
+
+import org.axonframework.eventstore.management.CriteriaBuilder;
+import org.axonframework.eventstore.management.Property;
+
+/**
+ * Builds {@link EsCriteria} on the properties listed in {@link EsProperty}.
+ */
+public class EsCriteriaBuilder implements CriteriaBuilder {
+
+   @Override
+   public Property property(final String propertyName) {
+      return new EsProperty(propertyName);
+   }
+}
@@ -0,0 +1,297 @@
+package de.qyotta.axonframework.eventstore.subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.axonframework.domain.EventMessage;
+import org.axonframework.eventhandling.Cluster;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.serializer.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.msemys.esjc.CatchUpSubscription;
+import com.github.msemys.esjc.CatchUpSubscriptionListener;
+import com.github.msemys.esjc.CatchUpSubscriptionSettings;
+import com.github.msemys.esjc.EventStore;
+import com.github.msemys.esjc.ResolvedEvent;
+import com.github.msemys.esjc.SubscriptionDropReason;
+
+import de.qyotta.axonframework.eventstore.utils.EsjcEventstoreUtil;
+
+/**
+ * Feeds the events of a stream (<code>$ce-domain</code> by default) to an Axon {@link EventBus} or {@link Cluster} using an ESJC catch-up subscription. Events are published in batches of up to
+ * {@link #setBatchSize(int) batchSize} events; a batch that does not fill up is published after {@link #setLingerMillis(long) lingerMillis}. The number of the last published event is written to a
+ * {@link CheckpointStore} periodically and on {@link #stop()}, and the subscription resumes after it when it is started again or was dropped. Events are delivered at least once.
+ */
+@SuppressWarnings({ "nls", "rawtypes" })
+public class CatchUpSubscriptionEventProcessor {
+   private static final Logger LOGGER = LoggerFactory.getLogger(CatchUpSubscriptionEventProcessor.class.getName());
+   public static final String DEFAULT_STREAM_NAME = "$ce-domain";
+   public static final int DEFAULT_BATCH_SIZE = 100;
+   public static final long DEFAULT_LINGER_MILLIS = 50;
+   public static final long DEFAULT_CHECKPOINT_INTERVAL_MILLIS = 1000;
+   public static final long DEFAULT_RETRY_DELAY_MILLIS = 1000;
+
+   private final String name;
+   private final EventStore client;
+   private final Consumer<EventMessage[]> publisher;
+   private final CheckpointStore checkpointStore;
+   private final List<EventMessage> batch = new ArrayList<>();
+   private String streamName = DEFAULT_STREAM_NAME;
+   private Serializer serializer = EsjcEventstoreUtil.defaultSerializer();
+   private int batchSize = DEFAULT_BATCH_SIZE;
+   private long lingerMillis = DEFAULT_LINGER_MILLIS;
+   private long checkpointIntervalMillis = DEFAULT_CHECKPOINT_INTERVAL_MILLIS;
+   private long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+
+   private ScheduledExecutorService scheduler;
+   private CatchUpSubscription subscription;
+   private int generation;
+   private volatile boolean running;
+   private Long lastBatchedEventNumber;
+   private Long lastPublishedEventNumber;
+   private Long lastCheckpoint;
+   private long batchStartedMillis;
+
+   /**
+    * @param name
+    *           the name the checkpoint is stored under
+    */
+   public CatchUpSubscriptionEventProcessor(final String name, final EventStore client, final EventBus eventBus, final CheckpointStore checkpointStore) {
+      this(name, client, eventBus::publish, checkpointStore);
+   }
+
+   /**
+    * @param name
+    *           the name the checkpoint is stored under
+    */
+   public CatchUpSubscriptionEventProcessor(final String name, final EventStore client, final Cluster cluster, final CheckpointStore checkpointStore) {
+      this(name, client, cluster::publish, checkpointStore);
+   }
+
+   private CatchUpSubscriptionEventProcessor(final String name, final EventStore client, final Consumer<EventMessage[]> publisher, final CheckpointStore checkpointStore) {
+      this.name = name;
+      this.client = client;
+      this.publisher = publisher;
+      this.checkpointStore = checkpointStore;
+   }
+
+   public synchronized void start() {
+      if (running) {
+         return;
+      }
+      running = true;
+      lastPublishedEventNumber = checkpointStore.load(name);
+      lastCheckpoint = lastPublishedEventNumber;
+      scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+         final Thread thread = new Thread(r, "catch-up-" + name);
+         thread.setDaemon(true);
+         return thread;
+      });
+      scheduler.scheduleWithFixedDelay(this::publishIfLingered, lingerMillis, lingerMillis, TimeUnit.MILLISECONDS);
+      scheduler.scheduleWithFixedDelay(this::storeCheckpoint, checkpointIntervalMillis, checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+      subscribe();
+   }
+
+   /**
+    * Stops the subscription, publishes the pending batch and stores the checkpoint.
+    */
+   public void stop() {
+      final CatchUpSubscription current;
+      synchronized (this) {
+         if (!running) {
+            return;
+         }
+         running = false;
+         current = subscription;
+         subscription = null;
+      }
+      if (current != null) {
+         current.stop();
+      }
+      synchronized (this) {
+         try {
+            publishBatch();
+         } catch (final RuntimeException e) {
+            LOGGER.error("Could not publish the last batch of " + name + ". It will be delivered again after a restart.", e);
+         }
+         scheduler.shutdownNow();
+         storeCheckpoint();
+      }
+   }
+
+   public boolean isRunning() {
+      return running;
+   }
+
+   private synchronized void subscribe() {
+      if (!running) {
+         return;
+      }
+      batch.clear();
+      lastBatchedEventNumber = lastPublishedEventNumber;
+      LOGGER.info("Subscribing " + name + " to " + streamName + (lastPublishedEventNumber == null ? " from the beginning." : " after event " + lastPublishedEventNumber + "."));
+      final CatchUpSubscriptionSettings settings = CatchUpSubscriptionSettings.newBuilder()
+            .resolveLinkTos(true)
+            .readBatchSize(Math.max(batchSize, 1))
+            .build();
+      subscription = client.subscribeToStreamFrom(streamName, lastPublishedEventNumber, settings, new Listener(++generation));
+   }
+
+   private synchronized void onEvent(final int subscriptionGeneration, final ResolvedEvent event) {
+      // ignore events of subscriptions that are being replaced
+      if (!running || subscriptionGeneration != generation) {
+         return;
+      }
+      if (event.event != null && !event.event.eventType.startsWith("$")) {
+         if (batch.isEmpty()) {
+            batchStartedMillis = System.currentTimeMillis();
+         }
+         batch.add(EsjcEventstoreUtil.domainEventMessageOf(event, serializer));
+      }
+      lastBatchedEventNumber = event.originalEventNumber();
+      if (batch.size() >= batchSize) {
+         publishBatch();
+      }
+   }
+
+   private synchronized void publishIfLingered() {
+      if (batch.isEmpty() || System.currentTimeMillis() - batchStartedMillis < lingerMillis) {
+         return;
+      }
+      try {
+         publishBatch();
+      } catch (final RuntimeException e) {
+         LOGGER.error("Could not publish batch of " + name + ". Resubscribing after event " + lastPublishedEventNumber + ".", e);
+         resubscribe();
+      }
+   }
+
+   private void publishBatch() {
+      if (!batch.isEmpty()) {
+         publisher.accept(batch.toArray(new EventMessage[batch.size()]));
+         batch.clear();
+      }
+      lastPublishedEventNumber = lastBatchedEventNumber;
+   }
+
+   private synchronized void storeCheckpoint() {
+      if (lastPublishedEventNumber == null || lastPublishedEventNumber.equals(lastCheckpoint)) {
+         return;
+      }
+      try {
+         checkpointStore.store(name, lastPublishedEventNumber);
+         lastCheckpoint = lastPublishedEventNumber;
+      } catch (final RuntimeException e) {
+         LOGGER.error("Could not store checkpoint " + lastPublishedEventNumber + " of " + name + ".", e);
+      }
+   }
+
+   private synchronized void resubscribe() {
+      final CatchUpSubscription current = subscription;
+      subscription = null;
+      generation++;
+      if (current != null) {
+         scheduler.execute(current::stop);
+      }
+      scheduleSubscribe();
+   }
+
+   private synchronized void scheduleSubscribe() {
+      if (running && !scheduler.isShutdown()) {
+         scheduler.schedule(this::subscribe, retryDelayMillis, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   private final class Listener implements CatchUpSubscriptionListener {
+      private final int subscriptionGeneration;
+
+      private Listener(final int subscriptionGeneration) {
+         this.subscriptionGeneration = subscriptionGeneration;
+      }
+
+      @Override
+      public void onEvent(final CatchUpSubscription catchUpSubscription, final ResolvedEvent event) {
+         CatchUpSubscriptionEventProcessor.this.onEvent(subscriptionGeneration, event);
+      }
+
+      @Override
+      public void onLiveProcessingStarted(final CatchUpSubscription catchUpSubscription) {
+         LOGGER.info(name + " caught up with " + streamName + ".");
+      }
+
+      @Override
+      public void onClose(final CatchUpSubscription catchUpSubscription, final SubscriptionDropReason reason, final Exception exception) {
+         if (reason == SubscriptionDropReason.UserInitiated) {
+            return;
+         }
+         synchronized (CatchUpSubscriptionEventProcessor.this) {
+            if (!running || subscriptionGeneration != generation) {
+               return;
+            }
+            LOGGER.warn("Subscription of " + name + " to " + streamName + " was dropped (" + reason + "). Resubscribing after event " + lastPublishedEventNumber + ".", exception);
+            subscription = null;
+            scheduleSubscribe();
+         }
+      }
+   }
+
+   /**
+    * Set the stream to subscribe to. This defaults to {@value #DEFAULT_STREAM_NAME}.
+    *
+    * @param streamName
+    */
+   public void setStreamName(final String streamName) {
+      this.streamName = streamName;
+   }
+
+   /**
+    * Set the serializer that reads the payloads of the events (see {@link EsjcEventstoreUtil#newSerializer(String, Serializer)}). This defaults to {@link EsjcEventstoreUtil#defaultSerializer()}.
+    *
+    * @param serializer
+    */
+   public void setSerializer(final Serializer serializer) {
+      this.serializer = serializer;
+   }
+
+   /**
+    * Set the maximum number of events published at once. This defaults to {@value #DEFAULT_BATCH_SIZE}.
+    *
+    * @param batchSize
+    */
+   public void setBatchSize(final int batchSize) {
+      this.batchSize = batchSize;
+   }
+
+   /**
+    * Set how long a batch that is not full waits for more events before it is published. This defaults to {@value #DEFAULT_LINGER_MILLIS} ms.
+    *
+    * @param lingerMillis
+    */
+   public void setLingerMillis(final long lingerMillis) {
+      this.lingerMillis = lingerMillis;
+   }
+
+   /**
+    * Set the interval at which the checkpoint is stored. This defaults to {@value #DEFAULT_CHECKPOINT_INTERVAL_MILLIS} ms.
+    *
+    * @param checkpointIntervalMillis
+    */
+   public void setCheckpointIntervalMillis(final long checkpointIntervalMillis) {
+      this.checkpointIntervalMillis = checkpointIntervalMillis;
+   }
+
+   /**
+    * Set the delay before resubscribing after the subscription was dropped or a batch could not be published. This defaults to {@value #DEFAULT_RETRY_DELAY_MILLIS} ms.
+    *
+    * @param retryDelayMillis
+    */
+   public void setRetryDelayMillis(final long retryDelayMillis) {
+      this.retryDelayMillis = retryDelayMillis;
+   }
+}
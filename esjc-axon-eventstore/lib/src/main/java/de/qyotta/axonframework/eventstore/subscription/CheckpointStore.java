@@ -0,0 +1,15 @@
+package de.qyotta.axonframework.eventstore.subscription;
+
+/**
+ * Stores the number of the last processed event per subscriber, so a subscription can resume where it stopped.
+ */
+public interface CheckpointStore {
+
+   /**
+    * @return the number of the last processed event or <code>null</code> if the subscriber has not processed any event yet
+    */
+   Long load(String name);
+
+   void store(String name, long eventNumber);
+
+}
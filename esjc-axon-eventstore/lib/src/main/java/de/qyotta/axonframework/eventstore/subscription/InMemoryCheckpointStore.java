@@ -0,0 +1,22 @@
+package de.qyotta.axonframework.eventstore.subscription;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link CheckpointStore} that keeps checkpoints in memory only. Useful for tests and for subscribers that rebuild their state on every start.
+ */
+public class InMemoryCheckpointStore implements CheckpointStore {
+   private final ConcurrentMap<String, Long> checkpoints = new ConcurrentHashMap<>();
+
+   @Override
+   public Long load(final String name) {
+      return checkpoints.get(name);
+   }
+
+   @Override
+   public void store(final String name, final long eventNumber) {
+      checkpoints.put(name, eventNumber);
+   }
+
+}
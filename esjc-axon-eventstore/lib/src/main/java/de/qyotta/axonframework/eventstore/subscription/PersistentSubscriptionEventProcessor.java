@@ -0,0 +1,332 @@
+package de.qyotta.axonframework.eventstore.subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.EventMessage;
+import org.axonframework.eventhandling.Cluster;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.serializer.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.msemys.esjc.EventStore;
+import com.github.msemys.esjc.PersistentSubscription;
+import com.github.msemys.esjc.PersistentSubscriptionListener;
+import com.github.msemys.esjc.PersistentSubscriptionNakEventAction;
+import com.github.msemys.esjc.PersistentSubscriptionSettings;
+import com.github.msemys.esjc.RetryableResolvedEvent;
+import com.github.msemys.esjc.SubscriptionDropReason;
+import com.github.msemys.esjc.SystemConsumerStrategy;
+
+import de.qyotta.axonframework.eventstore.utils.EsjcEventstoreUtil;
+
+/**
+ * Feeds the events of a stream (<code>$ce-domain</code> by default) to an Axon {@link EventBus} or {@link Cluster} through an Event Store persistent subscription, so that several consumers (threads
+ * or nodes) share the work of one subscription group. The group is created (or updated) on {@link #start()}. Every event is acknowledged after it was published and negatively acknowledged (to be
+ * retried) if publishing failed.
+ * <p>
+ * Events are handled on {@link #setHandlerThreads(int) handlerThreads} lanes with at most {@link #setMaxInFlight(int) maxInFlight} events being handled at the same time. With
+ * {@link #setPartitionByAggregate(boolean) partitionByAggregate} the lane is chosen by a hash of the aggregate identifier and the group uses the pinned consumer strategy, so the events of an
+ * aggregate are handled in order by one consumer.
+ * </p>
+ */
+@SuppressWarnings({ "nls", "rawtypes" })
+public class PersistentSubscriptionEventProcessor {
+   private static final Logger LOGGER = LoggerFactory.getLogger(PersistentSubscriptionEventProcessor.class.getName());
+   public static final String DEFAULT_STREAM_NAME = "$ce-domain";
+   public static final int DEFAULT_BUFFER_SIZE = 10;
+   public static final int DEFAULT_MAX_RETRY_COUNT = 10;
+   public static final long DEFAULT_RETRY_DELAY_MILLIS = 1000;
+
+   private final EventStore client;
+   private final String groupName;
+   private final Consumer<EventMessage[]> publisher;
+   private final List<PersistentSubscription> subscriptions = new ArrayList<>();
+   private final AtomicInteger nextLane = new AtomicInteger();
+   private String streamName = DEFAULT_STREAM_NAME;
+   private Serializer serializer = EsjcEventstoreUtil.defaultSerializer();
+   private int consumers = 1;
+   private int bufferSize = DEFAULT_BUFFER_SIZE;
+   private int handlerThreads = 1;
+   private int maxInFlight = DEFAULT_BUFFER_SIZE;
+   private int maxRetryCount = DEFAULT_MAX_RETRY_COUNT;
+   private long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+   private boolean partitionByAggregate;
+
+   private ExecutorService[] lanes;
+   private Semaphore inFlight;
+   private ScheduledExecutorService scheduler;
+   private volatile boolean running;
+
+   public PersistentSubscriptionEventProcessor(final EventStore client, final String groupName, final EventBus eventBus) {
+      this(client, groupName, eventBus::publish);
+   }
+
+   public PersistentSubscriptionEventProcessor(final EventStore client, final String groupName, final Cluster cluster) {
+      this(client, groupName, cluster::publish);
+   }
+
+   private PersistentSubscriptionEventProcessor(final EventStore client, final String groupName, final Consumer<EventMessage[]> publisher) {
+      this.client = client;
+      this.groupName = groupName;
+      this.publisher = publisher;
+   }
+
+   public synchronized void start() {
+      if (running) {
+         return;
+      }
+      // only counts as running once the group exists, so a failed start can be retried
+      createOrUpdateGroup();
+      inFlight = new Semaphore(maxInFlight);
+      lanes = new ExecutorService[handlerThreads];
+      for (int i = 0; i < handlerThreads; i++) {
+         lanes[i] = Executors.newSingleThreadExecutor(daemon(groupName + "-handler-" + i));
+      }
+      scheduler = Executors.newSingleThreadScheduledExecutor(daemon(groupName + "-resubscribe"));
+      running = true;
+      for (int i = 0; i < consumers; i++) {
+         subscribe();
+      }
+   }
+
+   /**
+    * Stops all consumers. Events that are being handled are completed and acknowledged, unacknowledged events are redelivered by the server.
+    */
+   public void stop() {
+      final List<PersistentSubscription> current;
+      synchronized (this) {
+         if (!running) {
+            return;
+         }
+         running = false;
+         current = new ArrayList<>(subscriptions);
+         subscriptions.clear();
+         if (scheduler != null) {
+            scheduler.shutdownNow();
+         }
+      }
+      for (final PersistentSubscription subscription : current) {
+         subscription.stop();
+      }
+      for (final ExecutorService lane : lanes) {
+         lane.shutdown();
+      }
+      try {
+         for (final ExecutorService lane : lanes) {
+            lane.awaitTermination(10, TimeUnit.SECONDS);
+         }
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+               .interrupt();
+      }
+   }
+
+   public boolean isRunning() {
+      return running;
+   }
+
+   private void createOrUpdateGroup() {
+      final PersistentSubscriptionSettings settings = PersistentSubscriptionSettings.newBuilder()
+            .resolveLinkTos(true)
+            .startFromBeginning()
+            .maxRetryCount(maxRetryCount)
+            .namedConsumerStrategy(partitionByAggregate ? SystemConsumerStrategy.PINNED : SystemConsumerStrategy.ROUND_ROBIN)
+            .build();
+      try {
+         client.createPersistentSubscription(streamName, groupName, settings)
+               .join();
+         LOGGER.info("Created persistent subscription group " + groupName + " on " + streamName + ".");
+      } catch (final CompletionException e) {
+         LOGGER.debug("Could not create persistent subscription group " + groupName + " on " + streamName + ". Updating it.", e.getCause());
+         client.updatePersistentSubscription(streamName, groupName, settings)
+               .join();
+         LOGGER.info("Updated persistent subscription group " + groupName + " on " + streamName + ".");
+      }
+   }
+
+   private synchronized void subscribe() {
+      if (!running) {
+         return;
+      }
+      try {
+         subscriptions.add(client.subscribeToPersistent(streamName, groupName, new Listener(), bufferSize, false)
+               .join());
+      } catch (final CompletionException e) {
+         LOGGER.error("Could not subscribe to persistent subscription group " + groupName + " on " + streamName + ". Retrying.", e.getCause());
+         scheduleSubscribe();
+      }
+   }
+
+   private void scheduleSubscribe() {
+      if (running && !scheduler.isShutdown()) {
+         scheduler.schedule(this::subscribe, retryDelayMillis, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   private void onEvent(final PersistentSubscription subscription, final RetryableResolvedEvent event) {
+      if (event.event == null || event.event.eventType.startsWith("$")) {
+         subscription.acknowledge(event);
+         return;
+      }
+      final DomainEventMessage message = EsjcEventstoreUtil.domainEventMessageOf(event, serializer);
+      try {
+         // blocks the subscription while too many events are being handled
+         inFlight.acquire();
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+               .interrupt();
+         subscription.fail(event, PersistentSubscriptionNakEventAction.Retry, "Interrupted");
+         return;
+      }
+      try {
+         laneFor(message).execute(() -> handle(subscription, event, message));
+      } catch (final RuntimeException e) {
+         inFlight.release();
+         subscription.fail(event, PersistentSubscriptionNakEventAction.Retry, "Could not schedule event: " + e.getMessage());
+      }
+   }
+
+   private void handle(final PersistentSubscription subscription, final RetryableResolvedEvent event, final DomainEventMessage message) {
+      try {
+         publisher.accept(new EventMessage[] { message });
+         subscription.acknowledge(event);
+      } catch (final RuntimeException e) {
+         LOGGER.warn("Could not handle event " + event.originalEventNumber() + "@" + streamName + " (retry " + event.retryCount + "). Requesting a retry.", e);
+         subscription.fail(event, PersistentSubscriptionNakEventAction.Retry, String.valueOf(e.getMessage()));
+      } finally {
+         inFlight.release();
+      }
+   }
+
+   private ExecutorService laneFor(final DomainEventMessage message) {
+      if (lanes.length == 1) {
+         return lanes[0];
+      }
+      final int hash = partitionByAggregate && message.getAggregateIdentifier() != null ? message.getAggregateIdentifier()
+            .hashCode() : nextLane.getAndIncrement();
+      return lanes[Math.floorMod(hash, lanes.length)];
+   }
+
+   private static ThreadFactory daemon(final String name) {
+      return r -> {
+         final Thread thread = new Thread(r, name);
+         thread.setDaemon(true);
+         return thread;
+      };
+   }
+
+   private final class Listener implements PersistentSubscriptionListener {
+
+      @Override
+      public void onEvent(final PersistentSubscription subscription, final RetryableResolvedEvent event) {
+         PersistentSubscriptionEventProcessor.this.onEvent(subscription, event);
+      }
+
+      @Override
+      public void onClose(final PersistentSubscription subscription, final SubscriptionDropReason reason, final Exception exception) {
+         if (reason == SubscriptionDropReason.UserInitiated) {
+            return;
+         }
+         synchronized (PersistentSubscriptionEventProcessor.this) {
+            if (!running || !subscriptions.remove(subscription)) {
+               return;
+            }
+            LOGGER.warn("Persistent subscription " + groupName + " on " + streamName + " was dropped (" + reason + "). Resubscribing.", exception);
+            scheduleSubscribe();
+         }
+      }
+   }
+
+   /**
+    * Set the stream the subscription group is created on. This defaults to {@value #DEFAULT_STREAM_NAME}.
+    *
+    * @param streamName
+    */
+   public void setStreamName(final String streamName) {
+      this.streamName = streamName;
+   }
+
+   /**
+    * Set the serializer that reads the payloads of the events (see {@link EsjcEventstoreUtil#newSerializer(String, Serializer)}). This defaults to {@link EsjcEventstoreUtil#defaultSerializer()}.
+    *
+    * @param serializer
+    */
+   public void setSerializer(final Serializer serializer) {
+      this.serializer = serializer;
+   }
+
+   /**
+    * Set the number of competing consumers this processor opens. This defaults to 1.
+    *
+    * @param consumers
+    */
+   public void setConsumers(final int consumers) {
+      this.consumers = consumers;
+   }
+
+   /**
+    * Set the number of unacknowledged events the server sends to each consumer. This defaults to {@value #DEFAULT_BUFFER_SIZE}.
+    *
+    * @param bufferSize
+    */
+   public void setBufferSize(final int bufferSize) {
+      this.bufferSize = bufferSize;
+   }
+
+   /**
+    * Set the number of threads events are handled on. This defaults to 1.
+    *
+    * @param handlerThreads
+    */
+   public void setHandlerThreads(final int handlerThreads) {
+      this.handlerThreads = handlerThreads;
+   }
+
+   /**
+    * Set the maximum number of events that are handled or waiting to be handled at the same time. This defaults to {@value #DEFAULT_BUFFER_SIZE}.
+    *
+    * @param maxInFlight
+    */
+   public void setMaxInFlight(final int maxInFlight) {
+      this.maxInFlight = maxInFlight;
+   }
+
+   /**
+    * Set how often the server retries an event before it is parked. This defaults to {@value #DEFAULT_MAX_RETRY_COUNT}.
+    *
+    * @param maxRetryCount
+    */
+   public void setMaxRetryCount(final int maxRetryCount) {
+      this.maxRetryCount = maxRetryCount;
+   }
+
+   /**
+    * Set the delay before resubscribing after a consumer was dropped. This defaults to {@value #DEFAULT_RETRY_DELAY_MILLIS} ms.
+    *
+    * @param retryDelayMillis
+    */
+   public void setRetryDelayMillis(final long retryDelayMillis) {
+      this.retryDelayMillis = retryDelayMillis;
+   }
+
+   /**
+    * Route the events of an aggregate to the same consumer (pinned consumer strategy) and the same handler thread, so they are handled in order. Disabled by default.
+    *
+    * @param partitionByAggregate
+    */
+   public void setPartitionByAggregate(final boolean partitionByAggregate) {
+      this.partitionByAggregate = partitionByAggregate;
+   }
+}
@@ -0,0 +1,19 @@
+package de.qyotta.axonframework.eventstore.utils;
+
+import org.axonframework.serializer.SimpleSerializedObject;
+
+/**
+ * A serialized payload that knows the content type (see {@link Constants#CONTENT_TYPE_KEY}) it was written with, so it can be handed to the matching serializer.
+ */
+public class ContentTypeSerializedObject<T> extends SimpleSerializedObject<T> {
+   private final String contentType;
+
+   public ContentTypeSerializedObject(final T data, final Class<T> dataType, final String type, final String revision, final String contentType) {
+      super(data, dataType, type, revision);
+      this.contentType = contentType;
+   }
+
+   public String getContentType() {
+      return contentType;
+   }
+}
@@ -1,53 +1,121 @@
 package de.qyotta.axonframework.eventstore.utils;
 
-import java.lang.reflect.Type;
-import java.nio.charset.Charset;
-import java.util.Map;
-
 import org.axonframework.domain.DomainEventMessage;
-import org.axonframework.domain.GenericDomainEventMessage;
-import org.axonframework.domain.MetaData;
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
+import org.axonframework.serializer.SerializedDomainEventMessage;
+import org.axonframework.serializer.Serializer;
 
 import com.github.msemys.esjc.RecordedEvent;
 import com.github.msemys.esjc.ResolvedEvent;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
+import de.qyotta.axonframework.eventstore.EventEntry;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
 @SuppressWarnings("nls")
 public final class EsjcEventstoreUtil {
-   private static final Type METADATA_TYPE = new TypeToken<Map<String, ?>>() {
-      //
-   }.getType();
-
-   private static final Gson gson = new Gson();
-   private static final Charset UTF_8 = Charset.forName("UTF-8");
+   private static final EventDeserializer DESERIALIZER = new EventDeserializer();
+   private static final EventEntrySerializer SERIALIZER = new EventEntrySerializer(DESERIALIZER);
 
    public static final String getStreamName(final String type, final Object identifier, final String prefix) {
       return prefix + "-" + type.toLowerCase() + "-" + identifier.toString();
    }
 
-   @SuppressWarnings({ "rawtypes", "unchecked" })
+   /**
+    * Extracts the (lower case) aggregate type from the name of a domain event stream (see {@link #getStreamName(String, Object, String)}).
+    *
+    * @return the aggregate type or <code>null</code> if the stream is not a domain event stream with the given prefix
+    */
+   public static String aggregateTypeOf(final String streamName, final String prefix) {
+      if (streamName == null || !streamName.startsWith(prefix + "-")) {
+         return null;
+      }
+      final int start = prefix.length() + 1;
+      final int end = streamName.indexOf('-', start);
+      return end < 0 ? null : streamName.substring(start, end);
+   }
+
+   /**
+    * The serializer used when no other serializer is configured. It writes and reads payloads as JSON ({@link Constants#CONTENT_TYPE_JSON}).
+    */
+   public static Serializer defaultSerializer() {
+      return SERIALIZER;
+   }
+
+   /**
+    * Creates the serializer that reads the payloads of an event store: payloads written with the given content type are read with the given serializer, all others as JSON.
+    */
+   public static Serializer newSerializer(final String contentType, final Serializer serializer) {
+      if (serializer == SERIALIZER) {
+         return SERIALIZER;
+      }
+      final EventEntrySerializer entrySerializer = new EventEntrySerializer(DESERIALIZER);
+      entrySerializer.register(contentType, serializer);
+      return entrySerializer;
+   }
+
+   public static boolean isJson(final String contentType) {
+      return contentType == null || Constants.CONTENT_TYPE_JSON.equals(contentType);
+   }
+
+   /**
+    * Creates a message whose payload and metadata are deserialized when they are first accessed. For a resolved link (e.g. read from a <code>$ce-</code> stream) the message is created from the
+    * linked event. Payload and metadata are decoded straight from the bytes of the event with the {@link #defaultSerializer() default serializer}.
+    */
+   @SuppressWarnings("rawtypes")
    public static DomainEventMessage domainEventMessageOf(final ResolvedEvent event) {
-      try {
-         final RecordedEvent originalEvent = event.originalEvent();
-         final Class<?> payloadType = Class.forName(originalEvent.eventType);
-         final Object payload = gson.fromJson(new String(originalEvent.data, UTF_8), payloadType);
-         final Map<String, ?> metaData = gson.fromJson(new String(originalEvent.metadata, UTF_8), METADATA_TYPE);
-
-         final Map<String, ?> eventMetadata = (Map<String, ?>) metaData.get(Constants.EVENT_METADATA_KEY);
-         final long sequenceNumber = originalEvent.eventNumber;
-         final DateTime dateTime = new DateTime(originalEvent.created.toEpochMilli(), DateTimeZone.UTC);
-         final String identifier = String.valueOf(originalEvent.eventId);
-         final Object aggregateIdentifier = metaData.get(Constants.AGGREGATE_ID_KEY);
-         return new GenericDomainEventMessage(identifier, dateTime, aggregateIdentifier, sequenceNumber, payload, new MetaData(eventMetadata));
-      } catch (final ClassNotFoundException e) {
-         throw new RuntimeException(e);
+      return domainEventMessageOf(event, SERIALIZER);
+   }
+
+   /**
+    * Creates a message whose payload and metadata are deserialized with the given serializer (see {@link #newSerializer(String, Serializer)}) when they are first accessed.
+    */
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   public static DomainEventMessage domainEventMessageOf(final ResolvedEvent event, final Serializer serializer) {
+      final RecordedEvent originalEvent = event.event != null ? event.event : event.originalEvent();
+      return new SerializedDomainEventMessage(eventEntryOf(originalEvent, DESERIALIZER.header(originalEvent.metadata), originalEvent.eventNumber), serializer);
+   }
+
+   /**
+    * The commit position of the linked event if the event was read through a link of a system projection (e.g. from a <code>$et-</code> stream).
+    *
+    * @return the commit position or -1 if it is unknown
+    */
+   public static long commitPosition(final ResolvedEvent event) {
+      return event.link == null ? -1 : DESERIALIZER.commitPosition(event.link.metadata);
+   }
+
+   /**
+    * Creates the message of a snapshot event. Its sequence number is the one of the last event that is contained in the snapshot, not the event number within the snapshot stream.
+    */
+   @SuppressWarnings("rawtypes")
+   public static DomainEventMessage snapshotMessageOf(final ResolvedEvent event) {
+      return snapshotMessageOf(event, SERIALIZER);
+   }
+
+   /**
+    * Creates the message of a snapshot event whose payload is deserialized with the given serializer (see {@link #newSerializer(String, Serializer)}).
+    */
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   public static DomainEventMessage snapshotMessageOf(final ResolvedEvent event, final Serializer serializer) {
+      final RecordedEvent originalEvent = event.originalEvent();
+      final EventDeserializer.Header header = DESERIALIZER.header(originalEvent.metadata);
+      if (header.getSequenceNumber() == null) {
+         throw new IllegalStateException("Snapshot event '" + originalEvent.eventId + "' has no sequence number.");
       }
+      return new SerializedDomainEventMessage(eventEntryOf(originalEvent, header, header.getSequenceNumber()), serializer);
+   }
 
+   private static EventEntry eventEntryOf(final RecordedEvent originalEvent, final EventDeserializer.Header header, final long sequenceNumber) {
+      return EventEntry.builder()
+            .eventIdentifier(String.valueOf(originalEvent.eventId))
+            .aggregateIdentifier(header.getAggregateIdentifier())
+            .sequenceNumber(sequenceNumber)
+            .timestamp(EventDeserializer.timestamp(originalEvent.created.toEpochMilli()))
+            .payloadType(originalEvent.eventType)
+            .payloadRevision(header.getPayloadRevision())
+            .contentType(header.getContentType())
+            .serializedPayload(originalEvent.data)
+            .serializedMetaData(originalEvent.metadata)
+            .build();
    }
 }
@@ -0,0 +1,322 @@
+package de.qyotta.axonframework.eventstore.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.joda.time.Chronology;
+import org.joda.time.DateTime;
+import org.joda.time.chrono.ISOChronology;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import lombok.Getter;
+
+/**
+ * Decodes event payloads, metadata and timestamps. Payload classes, their {@link TypeAdapter}s and event types that cannot be resolved are cached, so after the first event of a type decoding neither
+ * loads classes nor builds adapters. Everything can be decoded straight from the UTF-8 bytes of an event without creating an intermediate {@link String}. Top level metadata keys are interned, so the
+ * maps of many events share their key instances. Instances are thread safe and meant to be shared.
+ */
+@SuppressWarnings("nls")
+public final class EventDeserializer {
+   private static final int MAX_INTERNED_KEYS = 4096;
+   private static final Chronology UTC = ISOChronology.getInstanceUTC();
+   private static final DateTimeFormatter TIMESTAMP_PARSER = ISODateTimeFormat.dateTimeParser()
+         .withChronology(UTC);
+
+   private final ConcurrentMap<String, Class<?>> payloadTypes = new ConcurrentHashMap<>();
+   private final Set<String> unknownTypes = ConcurrentHashMap.newKeySet();
+   private final ConcurrentMap<String, String> keys = new ConcurrentHashMap<>();
+   private final ClassValue<TypeAdapter<?>> adapters = new ClassValue<TypeAdapter<?>>() {
+      @Override
+      protected TypeAdapter<?> computeValue(final Class<?> type) {
+         return gson.getAdapter(type);
+      }
+   };
+   private final Gson gson;
+   private final TypeAdapter<Object> valueAdapter;
+
+   public EventDeserializer() {
+      this(new Gson());
+   }
+
+   public EventDeserializer(final Gson gson) {
+      this.gson = gson;
+      this.valueAdapter = gson.getAdapter(Object.class);
+   }
+
+   /**
+    * Resolves the payload class of the given event type.
+    *
+    * @throws RuntimeException
+    *            caused by a {@link ClassNotFoundException} if there is no such class
+    */
+   public Class<?> payloadType(final String eventType) {
+      final Class<?> cached = payloadTypes.get(eventType);
+      if (cached != null) {
+         return cached;
+      }
+      if (unknownTypes.contains(eventType)) {
+         throw new RuntimeException(new ClassNotFoundException(eventType));
+      }
+      try {
+         final Class<?> payloadType = Class.forName(eventType);
+         payloadTypes.putIfAbsent(eventType, payloadType);
+         return payloadType;
+      } catch (final ClassNotFoundException e) {
+         unknownTypes.add(eventType);
+         throw new RuntimeException(e);
+      }
+   }
+
+   public Object payload(final String eventType, final String json) {
+      return fromJson(payloadType(eventType), json);
+   }
+
+   @SuppressWarnings("unchecked")
+   public <T> T fromJson(final Class<T> type, final String json) {
+      if (json == null || json.isEmpty()) {
+         return null;
+      }
+      return read((TypeAdapter<T>) adapters.get(type), reader(json));
+   }
+
+   @SuppressWarnings("unchecked")
+   public <T> T fromJson(final Class<T> type, final byte[] json) {
+      if (json == null || json.length == 0) {
+         return null;
+      }
+      return read((TypeAdapter<T>) adapters.get(type), reader(json));
+   }
+
+   public Map<String, ?> metaData(final String json) {
+      if (json == null || json.isEmpty()) {
+         return null;
+      }
+      return readMetaData(reader(json));
+   }
+
+   public Map<String, ?> metaData(final byte[] json) {
+      if (json == null || json.length == 0) {
+         return null;
+      }
+      return readMetaData(reader(json));
+   }
+
+   /**
+    * Reads the aggregate identifier, the payload revision, the content type and the snapshot sequence number from the metadata of an event without building the metadata maps.
+    */
+   public Header header(final String metaDataJson) {
+      if (metaDataJson == null || metaDataJson.isEmpty()) {
+         return new Header();
+      }
+      return readHeader(reader(metaDataJson));
+   }
+
+   public Header header(final byte[] metaDataJson) {
+      if (metaDataJson == null || metaDataJson.length == 0) {
+         return new Header();
+      }
+      return readHeader(reader(metaDataJson));
+   }
+
+   private Header readHeader(final JsonReader reader) {
+      final Header header = new Header();
+      try {
+         reader.beginObject();
+         while (reader.hasNext()) {
+            switch (reader.nextName()) {
+               case Constants.AGGREGATE_ID_KEY:
+                  header.aggregateIdentifier = valueAdapter.read(reader);
+                  break;
+               case Constants.PAYLOAD_REVISION_KEY:
+                  header.payloadRevision = (String) valueAdapter.read(reader);
+                  break;
+               case Constants.CONTENT_TYPE_KEY:
+                  header.contentType = (String) valueAdapter.read(reader);
+                  break;
+               case Constants.SEQUENCE_NUMBER_KEY:
+                  if (reader.peek() == JsonToken.NULL) {
+                     reader.nextNull();
+                  } else {
+                     header.sequenceNumber = reader.nextLong();
+                  }
+                  break;
+               default:
+                  reader.skipValue();
+            }
+         }
+         reader.endObject();
+         return header;
+      } catch (final IOException | IllegalStateException | NumberFormatException | ClassCastException e) {
+         throw new JsonSyntaxException(e);
+      }
+   }
+
+   /**
+    * Reads only the metadata the event was published with (see {@link Constants#EVENT_METADATA_KEY}) from the metadata of an event.
+    */
+   public Map<String, ?> eventMetaData(final String metaDataJson) {
+      if (metaDataJson == null || metaDataJson.isEmpty()) {
+         return null;
+      }
+      return readEventMetaData(reader(metaDataJson));
+   }
+
+   public Map<String, ?> eventMetaData(final byte[] metaDataJson) {
+      if (metaDataJson == null || metaDataJson.length == 0) {
+         return null;
+      }
+      return readEventMetaData(reader(metaDataJson));
+   }
+
+   private Map<String, ?> readEventMetaData(final JsonReader reader) {
+      try {
+         Map<String, ?> eventMetaData = null;
+         reader.beginObject();
+         while (reader.hasNext()) {
+            if (Constants.EVENT_METADATA_KEY.equals(reader.nextName())) {
+               eventMetaData = readObject(reader);
+            } else {
+               reader.skipValue();
+            }
+         }
+         reader.endObject();
+         return eventMetaData;
+      } catch (final IOException | IllegalStateException e) {
+         throw new JsonSyntaxException(e);
+      }
+   }
+
+   /**
+    * Reads the commit position of the linked event (see {@link Constants#LINK_COMMIT_POSITION_KEY}) from the metadata of a link.
+    *
+    * @return the commit position or -1 if the metadata does not contain it
+    */
+   public long commitPosition(final String linkMetaDataJson) {
+      if (linkMetaDataJson == null || linkMetaDataJson.isEmpty()) {
+         return -1;
+      }
+      return readCommitPosition(reader(linkMetaDataJson));
+   }
+
+   public long commitPosition(final byte[] linkMetaDataJson) {
+      if (linkMetaDataJson == null || linkMetaDataJson.length == 0) {
+         return -1;
+      }
+      return readCommitPosition(reader(linkMetaDataJson));
+   }
+
+   private static long readCommitPosition(final JsonReader reader) {
+      try {
+         reader.beginObject();
+         while (reader.hasNext()) {
+            if (Constants.LINK_COMMIT_POSITION_KEY.equals(reader.nextName())) {
+               // written as a number or as a string depending on the server version
+               return reader.peek() == JsonToken.STRING ? Long.parseLong(reader.nextString()) : reader.nextLong();
+            }
+            reader.skipValue();
+         }
+         return -1;
+      } catch (final IOException | IllegalStateException | NumberFormatException e) {
+         return -1;
+      }
+   }
+
+   public String toJson(final Object object) {
+      return gson.toJson(object);
+   }
+
+   /**
+    * Parses an ISO-8601 timestamp into a {@link DateTime} in UTC.
+    */
+   public static DateTime timestamp(final String timestamp) {
+      return TIMESTAMP_PARSER.parseDateTime(timestamp);
+   }
+
+   public static DateTime timestamp(final long epochMillis) {
+      return new DateTime(epochMillis, UTC);
+   }
+
+   private Map<String, ?> readMetaData(final JsonReader reader) {
+      try {
+         return readObject(reader);
+      } catch (final IOException | IllegalStateException e) {
+         throw new JsonSyntaxException(e);
+      }
+   }
+
+   /**
+    * Reads a JSON object into a map with interned keys. Nested values are read by Gson as usual.
+    */
+   private Map<String, Object> readObject(final JsonReader reader) throws IOException {
+      if (reader.peek() == JsonToken.NULL) {
+         reader.nextNull();
+         return null;
+      }
+      final Map<String, Object> map = new LinkedHashMap<>();
+      reader.beginObject();
+      while (reader.hasNext()) {
+         map.put(intern(reader.nextName()), valueAdapter.read(reader));
+      }
+      reader.endObject();
+      return map;
+   }
+
+   private String intern(final String key) {
+      final String interned = keys.get(key);
+      if (interned != null) {
+         return interned;
+      }
+      // metadata keys are few, this only guards against unbounded growth with generated keys
+      if (keys.size() >= MAX_INTERNED_KEYS) {
+         return key;
+      }
+      final String previous = keys.putIfAbsent(key, key);
+      return previous != null ? previous : key;
+   }
+
+   private static <T> T read(final TypeAdapter<T> adapter, final JsonReader reader) {
+      try {
+         return adapter.read(reader);
+      } catch (final IOException | IllegalStateException e) {
+         throw new JsonSyntaxException(e);
+      }
+   }
+
+   private static JsonReader reader(final String json) {
+      return reader(new StringReader(json));
+   }
+
+   private static JsonReader reader(final byte[] json) {
+      return reader(new Utf8ByteArrayReader(json));
+   }
+
+   private static JsonReader reader(final Reader in) {
+      final JsonReader reader = new JsonReader(in);
+      reader.setLenient(true);
+      return reader;
+   }
+
+   /**
+    * The values of the metadata of an event that are needed before its payload is deserialized.
+    */
+   @Getter
+   public static final class Header {
+      private Object aggregateIdentifier;
+      private String payloadRevision;
+      private String contentType;
+      private Long sequenceNumber;
+   }
+}
@@ -0,0 +1,86 @@
+package de.qyotta.axonframework.eventstore.utils;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of operations and the number of bytes that are in flight at the same time. A single operation that is larger than the byte limit is let through once nothing else is in flight.
+ */
+public class InFlightLimiter {
+   private final ReentrantLock lock = new ReentrantLock();
+   private final Condition released = lock.newCondition();
+   private int maxOperations;
+   private long maxBytes;
+   private int operations;
+   private long bytes;
+
+   public InFlightLimiter(final int maxOperations, final long maxBytes) {
+      this.maxOperations = maxOperations;
+      this.maxBytes = maxBytes;
+   }
+
+   /**
+    * Blocks until an operation of the given size may start.
+    */
+   public void acquire(final long operationBytes) throws InterruptedException {
+      lock.lock();
+      try {
+         while (operations > 0 && (operations >= maxOperations || bytes + operationBytes > maxBytes)) {
+            released.await();
+         }
+         operations++;
+         bytes += operationBytes;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   public void release(final long operationBytes) {
+      lock.lock();
+      try {
+         operations--;
+         bytes -= operationBytes;
+         released.signalAll();
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   public void setMaxOperations(final int maxOperations) {
+      lock.lock();
+      try {
+         this.maxOperations = maxOperations;
+         released.signalAll();
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   public void setMaxBytes(final long maxBytes) {
+      lock.lock();
+      try {
+         this.maxBytes = maxBytes;
+         released.signalAll();
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   public int getOperations() {
+      lock.lock();
+      try {
+         return operations;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   public long getBytes() {
+      lock.lock();
+      try {
+         return bytes;
+      } finally {
+         lock.unlock();
+      }
+   }
+}
@@ -0,0 +1,19 @@
+package de.qyotta.axonframework.eventstore.utils;
+
+import org.axonframework.serializer.json.JacksonSerializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Writes payloads as Smile, Jackson's binary JSON format, which is considerably smaller and faster to parse than JSON text. Needs <code>jackson-databind</code> and
+ * <code>jackson-dataformat-smile</code> on the classpath.
+ */
+@SuppressWarnings("nls")
+public class SmileSerializer extends JacksonSerializer {
+   public static final String CONTENT_TYPE = "application/x-jackson-smile";
+
+   public SmileSerializer() {
+      super(new ObjectMapper(new SmileFactory()));
+   }
+}
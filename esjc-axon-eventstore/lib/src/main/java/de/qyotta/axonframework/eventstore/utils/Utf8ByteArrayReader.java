@@ -0,0 +1,106 @@
+package de.qyotta.axonframework.eventstore.utils;
+
+import java.io.Reader;
+
+/**
+ * A {@link Reader} that decodes UTF-8 straight from a byte array. Unlike an {@link java.io.InputStreamReader} it neither copies the bytes nor allocates a decoding buffer, so it is cheap enough to be
+ * created for every event. Malformed input is replaced with U+FFFD.
+ */
+final class Utf8ByteArrayReader extends Reader {
+   private static final char REPLACEMENT = '\uFFFD';
+
+   private final byte[] bytes;
+   private final int end;
+   private int position;
+   // the low surrogate of a supplementary character that did not fit into the last read
+   private int pendingLowSurrogate = -1;
+
+   Utf8ByteArrayReader(final byte[] bytes) {
+      this.bytes = bytes;
+      this.end = bytes.length;
+      // skip a byte order mark
+      if (end >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF) {
+         position = 3;
+      }
+   }
+
+   @Override
+   public int read(final char[] buffer, final int offset, final int length) {
+      if (length == 0) {
+         return 0;
+      }
+      int count = 0;
+      if (pendingLowSurrogate >= 0) {
+         buffer[offset] = (char) pendingLowSurrogate;
+         pendingLowSurrogate = -1;
+         count++;
+      }
+      while (count < length && position < end) {
+         final int b = bytes[position];
+         if (b >= 0) {
+            // ASCII, by far the most common case in JSON
+            buffer[offset + count++] = (char) b;
+            position++;
+            continue;
+         }
+         final int codePoint = decodeMultiByte();
+         if (codePoint < 0x10000) {
+            buffer[offset + count++] = (char) codePoint;
+         } else {
+            buffer[offset + count++] = Character.highSurrogate(codePoint);
+            if (count < length) {
+               buffer[offset + count++] = Character.lowSurrogate(codePoint);
+            } else {
+               pendingLowSurrogate = Character.lowSurrogate(codePoint);
+            }
+         }
+      }
+      return count == 0 ? -1 : count;
+   }
+
+   @Override
+   public boolean ready() {
+      return position < end || pendingLowSurrogate >= 0;
+   }
+
+   @Override
+   public void close() {
+      //
+   }
+
+   private int decodeMultiByte() {
+      final int b = bytes[position] & 0xFF;
+      final int length;
+      int codePoint;
+      if (b >= 0xC2 && b <= 0xDF) {
+         length = 2;
+         codePoint = b & 0x1F;
+      } else if (b >= 0xE0 && b <= 0xEF) {
+         length = 3;
+         codePoint = b & 0x0F;
+      } else if (b >= 0xF0 && b <= 0xF4) {
+         length = 4;
+         codePoint = b & 0x07;
+      } else {
+         position++;
+         return REPLACEMENT;
+      }
+      if (position + length > end) {
+         position = end;
+         return REPLACEMENT;
+      }
+      for (int i = 1; i < length; i++) {
+         final int next = bytes[position + i] & 0xFF;
+         if ((next & 0xC0) != 0x80) {
+            position += i;
+            return REPLACEMENT;
+         }
+         codePoint = codePoint << 6 | next & 0x3F;
+      }
+      position += length;
+      if (length == 3 && (codePoint < 0x800 || Character.isSurrogate((char) codePoint)) || length == 4 && (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT)) {
+         return REPLACEMENT;
+      }
+      return codePoint;
+   }
+}
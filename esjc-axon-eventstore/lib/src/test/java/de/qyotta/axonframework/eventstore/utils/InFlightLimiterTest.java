@@ -0,0 +1,63 @@
+package de.qyotta.axonframework.eventstore.utils;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class InFlightLimiterTest {
+
+   @Test
+   public void shouldBlockWhenMaxOperationsAreInFlight() throws InterruptedException {
+      final InFlightLimiter limiter = new InFlightLimiter(2, Long.MAX_VALUE);
+      limiter.acquire(1);
+      limiter.acquire(1);
+
+      final CountDownLatch acquired = acquireAsync(limiter, 1);
+      assertThat(acquired.await(100, TimeUnit.MILLISECONDS), is(false));
+
+      limiter.release(1);
+      assertThat(acquired.await(1, TimeUnit.SECONDS), is(true));
+      assertThat(limiter.getOperations(), is(equalTo(2)));
+   }
+
+   @Test
+   public void shouldBlockWhenMaxBytesAreInFlight() throws InterruptedException {
+      final InFlightLimiter limiter = new InFlightLimiter(10, 100);
+      limiter.acquire(80);
+
+      final CountDownLatch acquired = acquireAsync(limiter, 30);
+      assertThat(acquired.await(100, TimeUnit.MILLISECONDS), is(false));
+
+      limiter.release(80);
+      assertThat(acquired.await(1, TimeUnit.SECONDS), is(true));
+      assertThat(limiter.getBytes(), is(equalTo(30L)));
+   }
+
+   @Test
+   public void shouldLetOversizedOperationThroughWhenNothingIsInFlight() throws InterruptedException {
+      final InFlightLimiter limiter = new InFlightLimiter(10, 100);
+      limiter.acquire(1000);
+      assertThat(limiter.getBytes(), is(equalTo(1000L)));
+   }
+
+   private static CountDownLatch acquireAsync(final InFlightLimiter limiter, final long bytes) {
+      final CountDownLatch acquired = new CountDownLatch(1);
+      final Thread thread = new Thread(() -> {
+         try {
+            limiter.acquire(bytes);
+            acquired.countDown();
+         } catch (final InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+         }
+      });
+      thread.setDaemon(true);
+      thread.start();
+      return acquired;
+   }
+}
@@ -0,0 +1,55 @@
+package de.qyotta.axonframework.eventstore.utils;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class Utf8ByteArrayReaderTest {
+   private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+   @Test
+   public void shouldDecodeLikeString() throws IOException {
+      final String text = "ascii \u00e4\u00f6\u00fc \u20ac \ud83d\ude00 end";
+      assertThat(readAll(new Utf8ByteArrayReader(text.getBytes(UTF_8)), 1024), is(equalTo(text)));
+   }
+
+   @Test
+   public void shouldSplitSupplementaryCharactersAcrossReads() throws IOException {
+      final String text = "\ud83d\ude00\ud83d\ude01x";
+      assertThat(readAll(new Utf8ByteArrayReader(text.getBytes(UTF_8)), 1), is(equalTo(text)));
+   }
+
+   @Test
+   public void shouldReplaceMalformedInput() throws IOException {
+      final byte[] bytes = { 'a', (byte) 0xC3, 'b', (byte) 0xFF };
+      assertThat(readAll(new Utf8ByteArrayReader(bytes), 16), is(equalTo("a\ufffdb\ufffd")));
+   }
+
+   @Test
+   public void shouldReadMetaDataFromBytes() {
+      final byte[] json = ("{\"" + Constants.EVENT_METADATA_KEY + "\":{\"user\":\"j\u00fcrgen\"},\"" + Constants.AGGREGATE_ID_KEY + "\":\"42\"}").getBytes(UTF_8);
+      final EventDeserializer deserializer = new EventDeserializer();
+      final Map<String, ?> metaData = deserializer.eventMetaData(json);
+      assertThat(metaData.get("user"), is(equalTo("j\u00fcrgen")));
+      assertThat(deserializer.header(json)
+            .getAggregateIdentifier(), is(equalTo("42")));
+   }
+
+   private static String readAll(final Reader reader, final int bufferSize) throws IOException {
+      final StringBuilder builder = new StringBuilder();
+      final char[] buffer = new char[bufferSize];
+      int read;
+      while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+         builder.append(buffer, 0, read);
+      }
+      return builder.toString();
+   }
+}
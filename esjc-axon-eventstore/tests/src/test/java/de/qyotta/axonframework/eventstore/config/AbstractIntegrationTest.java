@@ -7,7 +7,10 @@ import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.axonframework.domain.DomainEventMessage;
 import org.axonframework.domain.EventMessage;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.SimpleDomainEventStream;
 import org.axonframework.eventhandling.EventBus;
 import org.axonframework.eventhandling.EventListener;
 import org.axonframework.eventsourcing.annotation.AbstractAnnotatedAggregateRoot;
@@ -22,6 +25,11 @@ import org.springframework.test.context.support.AnnotationConfigContextLoader;
 
 import com.github.msemys.esjc.ExpectedVersion;
 
+import de.qyotta.axonframework.eventstore.EsjcEventStore;
+import de.qyotta.axonframework.eventstore.WriteMode;
+import de.qyotta.axonframework.eventstore.domain.MyTestAggregate;
+import de.qyotta.axonframework.eventstore.domain.TestAggregateChanged;
+import de.qyotta.axonframework.eventstore.domain.TestAggregateCreated;
 import de.qyotta.axonframework.eventstore.utils.EsjcEventstoreUtil;
 import de.qyotta.eventstore.InMemoryEventstoreProvider;
 
@@ -72,6 +80,26 @@ public abstract class AbstractIntegrationTest {
       eventStore.deleteStream(EsjcEventstoreUtil.getStreamName(classOfT.getSimpleName(), aggregateId, "domain"), ExpectedVersion.ANY);
    }
 
+   protected void appendEvents(final long firstSequenceNumber, final int count) {
+      appendEvents("domain", myAggregateId, firstSequenceNumber, count);
+   }
+
+   /**
+    * Appends events of a {@link MyTestAggregate} and waits until they are written. The event with sequence number 0 creates the aggregate, all others change it.
+    */
+   protected void appendEvents(final String prefix, final String aggregateId, final long firstSequenceNumber, final int count) {
+      final EsjcEventStore store = new EsjcEventStore(eventStore);
+      store.setPrefix(prefix);
+      store.setWriteMode(WriteMode.ACKNOWLEDGED);
+      final DomainEventMessage<?>[] events = new DomainEventMessage<?>[count];
+      for (int i = 0; i < count; i++) {
+         final long sequenceNumber = firstSequenceNumber + i;
+         final Object payload = sequenceNumber == 0 ? new TestAggregateCreated(aggregateId) : new TestAggregateChanged(aggregateId);
+         events[i] = new GenericDomainEventMessage<>(aggregateId, sequenceNumber, payload);
+      }
+      store.appendEvents(MyTestAggregate.class.getSimpleName(), new SimpleDomainEventStream(events));
+   }
+
    protected <T> void expectEventsMatchingExactlyOnce(final List<T> expectedEvents) {
       expectEvents(expectedEvents, true);
    }
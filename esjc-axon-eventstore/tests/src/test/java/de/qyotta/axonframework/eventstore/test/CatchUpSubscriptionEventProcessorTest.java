@@ -0,0 +1,104 @@
+package de.qyotta.axonframework.eventstore.test;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static com.jayway.awaitility.Duration.FIVE_SECONDS;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.EventMessage;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.eventhandling.EventListener;
+import org.junit.After;
+import org.junit.Test;
+
+import de.qyotta.axonframework.eventstore.config.AbstractIntegrationTest;
+import de.qyotta.axonframework.eventstore.domain.MyTestAggregate;
+import de.qyotta.axonframework.eventstore.subscription.CatchUpSubscriptionEventProcessor;
+import de.qyotta.axonframework.eventstore.subscription.CheckpointStore;
+import de.qyotta.axonframework.eventstore.subscription.InMemoryCheckpointStore;
+import de.qyotta.axonframework.eventstore.utils.EsjcEventstoreUtil;
+
+@SuppressWarnings({ "nls", "rawtypes" })
+public class CatchUpSubscriptionEventProcessorTest extends AbstractIntegrationTest {
+   private static final int BATCH_SIZE = 2;
+
+   private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+   private final EventBus recordingEventBus = new EventBus() {
+      @Override
+      public void publish(final EventMessage... events) {
+         final List<Long> batch = new ArrayList<>();
+         for (final EventMessage event : events) {
+            batch.add(((DomainEventMessage) event).getSequenceNumber());
+         }
+         batches.add(batch);
+      }
+
+      @Override
+      public void subscribe(final EventListener eventListener) {
+         // only records the published batches
+      }
+
+      @Override
+      public void unsubscribe(final EventListener eventListener) {
+         // only records the published batches
+      }
+   };
+
+   @After
+   public final void tearDown() {
+      deleteEventStream(MyTestAggregate.class, myAggregateId);
+   }
+
+   @Test
+   public void shouldResumeAfterCheckpointWithoutSkippingEvents() {
+      final CheckpointStore checkpointStore = new InMemoryCheckpointStore();
+      appendEvents(0, 5);
+
+      final CatchUpSubscriptionEventProcessor processor = processor(checkpointStore);
+      processor.start();
+      await().atMost(FIVE_SECONDS)
+            .until(() -> published().size() == 5);
+      processor.stop();
+      assertThat(checkpointStore.load(myAggregateId), is(equalTo(4L)));
+
+      appendEvents(5, 3);
+      final CatchUpSubscriptionEventProcessor restarted = processor(checkpointStore);
+      restarted.start();
+      try {
+         await().atMost(FIVE_SECONDS)
+               .until(() -> published().size() == 8);
+      } finally {
+         restarted.stop();
+      }
+
+      final List<Long> published = published();
+      for (int i = 0; i < 8; i++) {
+         assertThat(published.get(i), is(equalTo((long) i)));
+      }
+      for (final List<Long> batch : batches) {
+         assertThat(batch.size(), is(lessThanOrEqualTo(BATCH_SIZE)));
+      }
+      assertThat(checkpointStore.load(myAggregateId), is(equalTo(7L)));
+   }
+
+   private CatchUpSubscriptionEventProcessor processor(final CheckpointStore checkpointStore) {
+      final CatchUpSubscriptionEventProcessor processor = new CatchUpSubscriptionEventProcessor(myAggregateId, eventStore, recordingEventBus, checkpointStore);
+      processor.setStreamName(EsjcEventstoreUtil.getStreamName(MyTestAggregate.class.getSimpleName(), myAggregateId, "domain"));
+      processor.setBatchSize(BATCH_SIZE);
+      processor.setLingerMillis(20);
+      return processor;
+   }
+
+   private List<Long> published() {
+      final List<Long> published = new ArrayList<>();
+      batches.forEach(published::addAll);
+      return published;
+   }
+}
@@ -1,22 +1,47 @@
 package de.qyotta.axonframework.eventstore.test;
 
+import static com.jayway.awaitility.Awaitility.await;
+import static com.jayway.awaitility.Duration.FIVE_SECONDS;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.axonframework.commandhandling.CommandExecutionException;
 import org.axonframework.commandhandling.GenericCommandMessage;
 import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.eventstore.management.CriteriaBuilder;
 import org.junit.After;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.github.msemys.esjc.StreamEventsSlice;
+import com.github.msemys.esjc.WriteResult;
 
+import de.qyotta.axonframework.eventstore.BulkReadResult;
+import de.qyotta.axonframework.eventstore.EsjcEventStore;
+import de.qyotta.axonframework.eventstore.EsjcEventStreamBackedDomainEventStream;
+import de.qyotta.axonframework.eventstore.EsjcEventTypeReplayer;
+import de.qyotta.axonframework.eventstore.WriteMode;
 import de.qyotta.axonframework.eventstore.config.AbstractIntegrationTest;
 import de.qyotta.axonframework.eventstore.domain.ChangeTestAggregate;
 import de.qyotta.axonframework.eventstore.domain.CreateTestAggregate;
 import de.qyotta.axonframework.eventstore.domain.MyTestAggregate;
+import de.qyotta.axonframework.eventstore.domain.TestAggregateCreated;
+import de.qyotta.axonframework.eventstore.utils.EsjcEventstoreUtil;
 
 @SuppressWarnings("nls")
 public class EventStoreIntegrationTest extends AbstractIntegrationTest {
@@ -87,4 +112,101 @@ public class EventStoreIntegrationTest extends AbstractIntegrationTest {
 
    }
 
-}
\ No newline at end of file
+   @Test
+   public void shouldReadEventsSliceBySlice() {
+      appendEvents(0, 5);
+      final String streamName = EsjcEventstoreUtil.getStreamName(MyTestAggregate.class.getSimpleName(), myAggregateId, "domain");
+
+      final DomainEventStream readEvents = new EsjcEventStreamBackedDomainEventStream(streamName, eventStore, 0, Long.MAX_VALUE, 2);
+      for (long i = 0; i < 5; i++) {
+         assertThat(readEvents.next()
+               .getSequenceNumber(), is(equalTo(i)));
+      }
+      assertThat(readEvents.hasNext(), is(false));
+
+      final DomainEventStream partial = new EsjcEventStreamBackedDomainEventStream(streamName, eventStore, 1, 3, 2);
+      assertThat(partial.next()
+            .getSequenceNumber(), is(equalTo(1L)));
+      assertThat(partial.next()
+            .getSequenceNumber(), is(equalTo(2L)));
+      assertThat(partial.next()
+            .getSequenceNumber(), is(equalTo(3L)));
+      assertThat(partial.hasNext(), is(false));
+   }
+
+   @Test
+   public void shouldReturnOnlyAfterAppendsAreAcknowledged() {
+      final EsjcEventStore store = new EsjcEventStore(eventStore);
+      store.setWriteMode(WriteMode.ACKNOWLEDGED);
+      final Map<String, WriteResult> results = new HashMap<>();
+      store.setWriteResultCallback(results::put);
+
+      final String type = MyTestAggregate.class.getSimpleName();
+      store.appendEvents(type, new SimpleDomainEventStream(new GenericDomainEventMessage<>(myAggregateId, 0L, new TestAggregateCreated(myAggregateId))));
+
+      final String streamName = EsjcEventstoreUtil.getStreamName(type, myAggregateId, "domain");
+      assertThat(results.get(streamName), is(notNullValue()));
+      assertThat(results.get(streamName).nextExpectedVersion, is(equalTo(0L)));
+      // no waiting, the events are written when appendEvents returns
+      assertThat(store.readEvents(type, myAggregateId)
+            .next()
+            .getSequenceNumber(), is(equalTo(0L)));
+   }
+
+   @Test
+   public void shouldReadSeveralAggregatesAtOnce() {
+      appendEvents(0, 1);
+      final String missingAggregateId = UUID.randomUUID()
+            .toString();
+
+      final BulkReadResult result = new EsjcEventStore(eventStore).readEvents(MyTestAggregate.class.getSimpleName(), Arrays.asList(myAggregateId, missingAggregateId));
+      assertThat(result.getStreams()
+            .get(myAggregateId)
+            .next()
+            .getSequenceNumber(), is(equalTo(0L)));
+      assertThat(result.getMissing()
+            .contains(missingAggregateId), is(true));
+      assertThat(result.hasFailures(), is(false));
+   }
+
+   @Test
+   public void shouldReplayEventsOfSelectedTypes() {
+      appendEvents(0, 1);
+
+      final EsjcEventTypeReplayer replayer = new EsjcEventTypeReplayer(eventStore);
+      // the $et- streams are written asynchronously by the $by_event_type projection
+      await().atMost(FIVE_SECONDS)
+            .until(() -> {
+               final AtomicBoolean found = new AtomicBoolean(false);
+               replayer.replay(Arrays.asList(TestAggregateCreated.class), event -> {
+                  assertThat(event.getPayloadType(), is(equalTo(TestAggregateCreated.class)));
+                  if (myAggregateId.equals(event.getAggregateIdentifier())) {
+                     found.set(true);
+                  }
+               });
+               return found.get();
+            });
+   }
+
+   @Test
+   public void shouldVisitEventsMatchingCriteria() {
+      appendEvents(0, 3);
+      final EsjcEventStore store = new EsjcEventStore(eventStore);
+      final CriteriaBuilder criteria = store.newCriteriaBuilder();
+
+      final List<DomainEventMessage<?>> visited = new ArrayList<>();
+      store.visitEvents(criteria.property("aggregateType")
+            .is(MyTestAggregate.class.getSimpleName())
+            .and(criteria.property("aggregateIdentifier")
+                  .is(myAggregateId))
+            .and(criteria.property("sequenceNumber")
+                  .greaterThan(0L)), visited::add);
+
+      assertThat(visited.size(), is(equalTo(2)));
+      assertThat(visited.get(0)
+            .getSequenceNumber(), is(equalTo(1L)));
+      assertThat(visited.get(1)
+            .getPayload(), is(notNullValue()));
+   }
+
+}
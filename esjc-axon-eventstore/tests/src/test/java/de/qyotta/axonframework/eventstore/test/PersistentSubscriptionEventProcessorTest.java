@@ -0,0 +1,197 @@
+package de.qyotta.axonframework.eventstore.test;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static com.jayway.awaitility.Duration.FIVE_SECONDS;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.EventMessage;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.eventhandling.EventListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.qyotta.axonframework.eventstore.config.AbstractIntegrationTest;
+import de.qyotta.axonframework.eventstore.domain.MyTestAggregate;
+import de.qyotta.axonframework.eventstore.subscription.PersistentSubscriptionEventProcessor;
+import de.qyotta.axonframework.eventstore.utils.EsjcEventstoreUtil;
+
+@SuppressWarnings({ "nls", "rawtypes" })
+public class PersistentSubscriptionEventProcessorTest extends AbstractIntegrationTest {
+   private final List<Long> published = new CopyOnWriteArrayList<>();
+   private String groupName;
+   private String streamName;
+
+   @Before
+   public void setUp() {
+      groupName = "group-" + myAggregateId;
+      streamName = EsjcEventstoreUtil.getStreamName(MyTestAggregate.class.getSimpleName(), myAggregateId, "domain");
+   }
+
+   @After
+   public final void tearDown() {
+      eventStore.deletePersistentSubscription(streamName, groupName)
+            .join();
+      deleteEventStream(MyTestAggregate.class, myAggregateId);
+   }
+
+   @Test
+   public void shouldCreateAndUpdateGroup() {
+      appendEvents(0, 1);
+      final PersistentSubscriptionEventProcessor processor = processor(event -> published.add(event.getSequenceNumber()));
+      processor.start();
+      try {
+         await().atMost(FIVE_SECONDS)
+               .until(() -> published.contains(0L));
+      } finally {
+         processor.stop();
+      }
+
+      // the group exists now, so it is updated with the new settings
+      final PersistentSubscriptionEventProcessor updated = processor(event -> published.add(event.getSequenceNumber()));
+      updated.setMaxRetryCount(3);
+      updated.start();
+      try {
+         assertThat(updated.isRunning(), is(true));
+         appendEvents(1, 1);
+         await().atMost(FIVE_SECONDS)
+               .until(() -> published.contains(1L));
+      } finally {
+         updated.stop();
+      }
+   }
+
+   @Test
+   public void shouldAcknowledgeEventsAfterPublishing() throws InterruptedException {
+      appendEvents(0, 2);
+      final CountDownLatch release = new CountDownLatch(1);
+      final PersistentSubscriptionEventProcessor processor = processor(event -> {
+         published.add(event.getSequenceNumber());
+         if (event.getSequenceNumber() == 0) {
+            try {
+               release.await();
+            } catch (final InterruptedException e) {
+               Thread.currentThread()
+                     .interrupt();
+            }
+         }
+      });
+      // the server sends the next event only when the previous one is acknowledged
+      processor.setBufferSize(1);
+      processor.start();
+      try {
+         await().atMost(FIVE_SECONDS)
+               .until(() -> published.contains(0L));
+         Thread.sleep(500);
+         assertThat(published, contains(0L));
+
+         release.countDown();
+         await().atMost(FIVE_SECONDS)
+               .until(() -> published.contains(1L));
+      } finally {
+         release.countDown();
+         processor.stop();
+      }
+   }
+
+   @Test
+   public void shouldRetryEventsTheHandlerFailedOn() {
+      appendEvents(0, 2);
+      final PersistentSubscriptionEventProcessor processor = processor(event -> {
+         published.add(event.getSequenceNumber());
+         if (event.getSequenceNumber() == 0 && published.indexOf(0L) == published.lastIndexOf(0L)) {
+            throw new IllegalStateException("Fails the first time");
+         }
+      });
+      processor.start();
+      try {
+         await().atMost(FIVE_SECONDS)
+               .until(() -> published.indexOf(0L) != published.lastIndexOf(0L) && published.contains(1L));
+      } finally {
+         processor.stop();
+      }
+   }
+
+   @Test
+   public void shouldHandleEventsOfAnAggregateOnOneLane() {
+      // a prefix of its own so the category stream only contains the events of this test
+      final String prefix = "partition" + UUID.randomUUID()
+            .toString()
+            .replace("-", "");
+      final List<String> aggregateIds = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+         aggregateIds.add(UUID.randomUUID()
+               .toString());
+      }
+      final Map<Object, Set<String>> threadsByAggregate = new ConcurrentHashMap<>();
+      final Map<Object, List<Long>> sequenceNumbersByAggregate = new ConcurrentHashMap<>();
+      streamName = "$ce-" + prefix;
+      final PersistentSubscriptionEventProcessor processor = processor(event -> {
+         threadsByAggregate.computeIfAbsent(event.getAggregateIdentifier(), id -> ConcurrentHashMap.newKeySet())
+               .add(Thread.currentThread()
+                     .getName());
+         sequenceNumbersByAggregate.computeIfAbsent(event.getAggregateIdentifier(), id -> new CopyOnWriteArrayList<>())
+               .add(event.getSequenceNumber());
+      });
+      processor.setHandlerThreads(3);
+      processor.setPartitionByAggregate(true);
+      processor.start();
+      try {
+         for (final String aggregateId : aggregateIds) {
+            appendEvents(prefix, aggregateId, 0, 4);
+         }
+         // the category stream is written asynchronously by the $by_category projection
+         await().atMost(FIVE_SECONDS)
+               .until(() -> aggregateIds.stream()
+                     .allMatch(id -> sequenceNumbersByAggregate.containsKey(id) && new HashSet<>(sequenceNumbersByAggregate.get(id)).size() == 4));
+      } finally {
+         processor.stop();
+      }
+
+      for (final String aggregateId : aggregateIds) {
+         assertThat(threadsByAggregate.get(aggregateId)
+               .size(), is(equalTo(1)));
+         assertThat(sequenceNumbersByAggregate.get(aggregateId)
+               .subList(0, 4), contains(0L, 1L, 2L, 3L));
+      }
+   }
+
+   private PersistentSubscriptionEventProcessor processor(final Consumer<DomainEventMessage> handler) {
+      final PersistentSubscriptionEventProcessor processor = new PersistentSubscriptionEventProcessor(eventStore, groupName, new EventBus() {
+         @Override
+         public void publish(final EventMessage... events) {
+            for (final EventMessage event : events) {
+               handler.accept((DomainEventMessage) event);
+            }
+         }
+
+         @Override
+         public void subscribe(final EventListener eventListener) {
+            // events are passed to the handler only
+         }
+
+         @Override
+         public void unsubscribe(final EventListener eventListener) {
+            // events are passed to the handler only
+         }
+      });
+      processor.setStreamName(streamName);
+      processor.setRetryDelayMillis(100);
+      return processor;
+   }
+}
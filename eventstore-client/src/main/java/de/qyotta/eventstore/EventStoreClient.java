@@ -1,16 +1,26 @@
 package de.qyotta.eventstore;
 
 import de.qyotta.eventstore.communication.ESContext;
+import de.qyotta.eventstore.model.Entry;
 import de.qyotta.eventstore.model.Event;
+import de.qyotta.eventstore.model.EventResponse;
+import de.qyotta.eventstore.utils.EsUtils;
 import de.qyotta.eventstore.utils.EventStreamReader;
+import de.qyotta.eventstore.utils.EventStreamReaderGroup;
 import de.qyotta.eventstore.utils.EventStreamReaderImpl;
+import de.qyotta.eventstore.utils.EventStreamReaderImpl.EventStreamReaderBatchCallback;
 import de.qyotta.eventstore.utils.EventStreamReaderImpl.EventStreamReaderCallback;
 
 import static de.qyotta.eventstore.utils.Constants.STREAMS_PATH;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
 
+@SuppressWarnings("nls")
 public class EventStoreClient {
+   private static final String METADATA_PATH = "/metadata";
+   private static final String METADATA_EVENT_TYPE = "$metadata";
    private final ESContext context;
 
    public EventStoreClient(ESContext context) {
@@ -33,10 +43,77 @@ public class EventStoreClient {
       return new EventStreamReaderImpl(streamUrlForName(streamName), context, intervalMillis, callback, errorCallback);
    }
 
+   /**
+    * Creates a new {@link EventStreamReaderImpl} whose catch ups are scheduled by the given group instead of a scheduler thread of its own.
+    */
+   public EventStreamReader newEventStreamReader(final String streamName, final int intervalMillis, final EventStreamReaderGroup group, final EventStreamReaderCallback callback) {
+      final EventStreamReaderImpl reader = new EventStreamReaderImpl(streamUrlForName(streamName), context, intervalMillis, callback);
+      reader.setGroup(group);
+      return reader;
+   }
+
+   /**
+    * Creates a reader that hands the events to the callback in batches of up to maxBatchSize events, waiting at most maxLingerMillis for a batch to fill up once the stream is exhausted.
+    */
+   public EventStreamReader newBatchEventStreamReader(final String streamName, final int intervalMillis, final int maxBatchSize, final long maxLingerMillis,
+         final EventStreamReaderBatchCallback callback) {
+      return new EventStreamReaderImpl(streamUrlForName(streamName), context, intervalMillis, maxBatchSize, maxLingerMillis, callback);
+   }
+
+   public EventStreamReader newBatchEventStreamReader(final String streamName, final int intervalMillis, final int maxBatchSize, final long maxLingerMillis,
+         final EventStreamReaderBatchCallback callback, final EventStreamReaderImpl.EventStreamReaderErrorCallback errorCallback) {
+      return new EventStreamReaderImpl(streamUrlForName(streamName), context, intervalMillis, maxBatchSize, maxLingerMillis, callback, errorCallback);
+   }
+
    public EventStream readEvents(final String streamName) {
       return new EventStreamImpl(streamUrlForName(streamName), context);
    }
 
+   /**
+    * Reads the events of the given stream starting at the given event number (inclusive). Events are loaded in slices while the stream is consumed.
+    */
+   public EventStream readEvents(final String streamName, final long firstEventNumber) {
+      return readEvents(streamName, firstEventNumber, Long.MAX_VALUE);
+   }
+
+   /**
+    * Reads the events of the given stream between the given event numbers (both inclusive). Events are loaded in slices while the stream is consumed.
+    */
+   public EventStream readEvents(final String streamName, final long firstEventNumber, final long lastEventNumber) {
+      return new SlicedEventStreamImpl(streamUrlForName(streamName), context, firstEventNumber, lastEventNumber, SlicedEventStreamImpl.DEFAULT_SLICE_SIZE);
+   }
+
+   /**
+    * Reads the last event of the given stream.
+    *
+    * @return the last event or <code>null</code> if the stream is empty
+    * @throws de.qyotta.eventstore.model.EventStreamNotFoundException
+    *            if the stream does not exist
+    */
+   public EventResponse readLastEvent(final String streamName) {
+      final List<Entry> entries = context.getReader()
+            .readStreamWithBody(streamUrlForName(streamName) + "/head/backward/1")
+            .getEntries();
+      if (entries == null || entries.isEmpty()) {
+         return null;
+      }
+      return EsUtils.eventResponseOf(entries.get(0));
+   }
+
+   /**
+    * Replaces the metadata of the given stream (e.g. <code>{"$maxCount": 1}</code>).
+    */
+   public void setStreamMetadata(final String streamName, final String metadataJson) {
+      context.getWriter()
+            .appendEvent(streamUrlForName(streamName) + METADATA_PATH, Event.builder()
+                  .eventId(UUID.randomUUID()
+                        .toString())
+                  .eventType(METADATA_EVENT_TYPE)
+                  .data(metadataJson)
+                  .metadata("{}")
+                  .build());
+   }
+
    public void createProjection(String name, final String... includedStreams) {
       context.getWriter()
             .createLinkedProjection(context.getSettings()
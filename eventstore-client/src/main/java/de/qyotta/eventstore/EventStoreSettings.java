@@ -27,6 +27,7 @@ public class EventStoreSettings {
    private static final String DEFAULT_HOST = "http://127.0.0.1:2113";
    private static final int DEFAULT_CONNECTION_TIMEOUT_MILLIS = 10000;
    private static final int DEFAULT_SOCKET_TIMEOUT_MILLIS = 10000;
+   private static final int DEFAULT_MAX_CONNECTIONS = 10;
 
    private String host;
    private String realm;
@@ -35,8 +36,33 @@ public class EventStoreSettings {
    private String password;
    private Integer connectionTimeoutMillis;
    private Integer socketTimeoutMillis;
+   /**
+    * Size of the connection pool. Limits how many requests (e.g. concurrent appends) can be executed in parallel.
+    */
+   private Integer maxConnections;
    private File cacheDirectory;
    private boolean cacheResponses;
+   /**
+    * Optional snapshot created with {@link de.qyotta.eventstore.utils.CacheSnapshot} that is loaded into the cache directory before the first request.
+    */
+   private File cacheSnapshot;
+   /**
+    * Events per second all stream reads of a context may read together (see {@link de.qyotta.eventstore.utils.ReadThrottle}). Not limited if not set.
+    */
+   private Integer readEventsPerSecond;
+   /**
+    * Bytes per second all stream reads of a context may read together. Not limited if not set.
+    */
+   private Long readBytesPerSecond;
+   /**
+    * Read latency above which stream reads back off adaptively. No back off if not set.
+    */
+   private Integer readLatencyTargetMillis;
+   /**
+    * How long a loaded stream feed is reused for further reads of the same url, e.g. of readers polling the same head page. Concurrent reads of the same url are always coalesced. Not reused if not
+    * set.
+    */
+   private Long feedReuseMillis;
 
    public static EventStoreSettings.EventStoreSettingsBuilder withDefaults() {
       return EventStoreSettings.builder()
@@ -47,6 +73,7 @@ public class EventStoreSettings {
             .password(DEFAULT_PASSWORD)
             .connectionTimeoutMillis(DEFAULT_CONNECTION_TIMEOUT_MILLIS)
             .socketTimeoutMillis(DEFAULT_SOCKET_TIMEOUT_MILLIS)
+            .maxConnections(DEFAULT_MAX_CONNECTIONS)
             .cacheDirectory(new File(System.getProperty("java.io.tmpdir") + "/es"))
             .cacheResponses(true);
    }
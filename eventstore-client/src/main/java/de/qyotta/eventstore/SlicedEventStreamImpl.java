@@ -0,0 +1,139 @@
+package de.qyotta.eventstore;
+
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.qyotta.eventstore.communication.ESContext;
+import de.qyotta.eventstore.model.Entry;
+import de.qyotta.eventstore.model.EventResponse;
+import de.qyotta.eventstore.model.EventStreamFeed;
+import de.qyotta.eventstore.utils.EsUtils;
+
+/**
+ * An {@link EventStream} that reads a range of events using forward slices (<code>/streams/{name}/{from}/forward/{count}</code>) with embedded event bodies. Slices are loaded lazily while the stream
+ * is consumed, so a stream can be started at any event number without reading its beginning.
+ */
+@SuppressWarnings("nls")
+public class SlicedEventStreamImpl implements EventStream {
+   private static final Logger LOGGER = LoggerFactory.getLogger(SlicedEventStreamImpl.class.getName());
+   public static final int DEFAULT_SLICE_SIZE = 100;
+
+   private final String streamUrl;
+   private final ESContext context;
+   private final long lastEventNumber;
+   private final int sliceSize;
+   private final Deque<EventResponse> currentEvents = new ArrayDeque<>();
+   private long nextEventNumber;
+   private boolean endOfStream;
+   private EventResponse next;
+
+   /**
+    * Initialize this stream at the very beginning
+    */
+   public SlicedEventStreamImpl(final String streamUrl, final ESContext context) {
+      this(streamUrl, context, 0, Long.MAX_VALUE, DEFAULT_SLICE_SIZE);
+   }
+
+   /**
+    * Initialize this stream to read all events from the given event number (inclusive) up to the given event number (inclusive).
+    */
+   public SlicedEventStreamImpl(final String streamUrl, final ESContext context, final long firstEventNumber, final long lastEventNumber, final int sliceSize) {
+      this.streamUrl = streamUrl;
+      this.context = context;
+      this.lastEventNumber = lastEventNumber;
+      this.sliceSize = sliceSize;
+      moveTo(firstEventNumber);
+   }
+
+   @Override
+   public synchronized boolean hasNext() {
+      return next != null;
+   }
+
+   @Override
+   public synchronized EventResponse next() {
+      final EventResponse result = next;
+      next = pollNextEvent();
+      return result;
+   }
+
+   @Override
+   public synchronized EventResponse peek() {
+      return next;
+   }
+
+   @Override
+   public synchronized void setAfterTitle(final String title) {
+      moveTo(EsUtils.getEventNumber(title) + 1);
+   }
+
+   /**
+    * Moves the stream to the event after the given event number without reading the events before it.
+    */
+   public synchronized void setAfterEventNumber(final long eventNumber) {
+      moveTo(eventNumber + 1);
+   }
+
+   @Override
+   public synchronized void setAfterTimestamp(final Date timestamp) {
+      moveTo(0);
+      while (next != null && !timestamp.before(EsUtils.timestampOf(next))) {
+         next = pollNextEvent();
+      }
+   }
+
+   @Override
+   public synchronized void loadNext() {
+      if (hasNext()) {
+         return;
+      }
+      endOfStream = false;
+      next = pollNextEvent();
+   }
+
+   private void moveTo(final long eventNumber) {
+      currentEvents.clear();
+      nextEventNumber = Math.max(0, eventNumber);
+      endOfStream = false;
+      next = pollNextEvent();
+   }
+
+   private EventResponse pollNextEvent() {
+      if (currentEvents.isEmpty() && !endOfStream) {
+         loadNextSlice();
+      }
+      return currentEvents.pollFirst();
+   }
+
+   private void loadNextSlice() {
+      if (nextEventNumber > lastEventNumber) {
+         endOfStream = true;
+         return;
+      }
+      final int count = lastEventNumber - nextEventNumber < sliceSize ? (int) (lastEventNumber - nextEventNumber + 1) : sliceSize;
+      final EventStreamFeed feed = context.getReader()
+            .readStreamWithBody(streamUrl + "/" + nextEventNumber + "/forward/" + count);
+      final List<Entry> entries = feed.getEntries();
+      // entries are ordered from the newest to the oldest
+      for (int i = entries.size() - 1; i >= 0; i--) {
+         final Entry entry = entries.get(i);
+         final long position = EsUtils.positionOf(entry);
+         if (position < nextEventNumber) {
+            continue;
+         }
+         if (position > lastEventNumber) {
+            break;
+         }
+         currentEvents.addLast(EsUtils.eventResponseOf(entry));
+         nextEventNumber = position + 1;
+      }
+      endOfStream = entries.isEmpty() || feed.isHeadOfStream() || nextEventNumber > lastEventNumber;
+      LOGGER.debug("Loaded " + entries.size() + " events from " + streamUrl + ". Next event number is " + nextEventNumber);
+   }
+
+}
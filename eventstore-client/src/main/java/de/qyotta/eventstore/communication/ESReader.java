@@ -7,6 +7,11 @@ public interface ESReader {
 
    EventStreamFeed readStream(String url);
 
+   /**
+    * Reads the feed page at the given url with the event data and metadata embedded in its entries, so the events do not have to be loaded one by one.
+    */
+   EventStreamFeed readStreamWithBody(String url);
+
    EventResponse readEvent(String url);
 
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import org.apache.http.impl.client.CloseableHttpClient;
 
 import de.qyotta.eventstore.EventStoreSettings;
 import de.qyotta.eventstore.utils.HttpClientFactory;
+import de.qyotta.eventstore.utils.ReadThrottle;
 
 public class EsContextDefaultImpl implements ESContext {
 
@@ -16,7 +17,12 @@ public class EsContextDefaultImpl implements ESContext {
       this.settings = settings;
       httpclient = HttpClientFactory.httpClient(settings);
 
-      reader = new EsReaderDefaultImpl(httpclient);
+      final EsReaderDefaultImpl defaultReader = new EsReaderDefaultImpl(httpclient);
+      defaultReader.setReadThrottle(ReadThrottle.of(settings));
+      if (settings.getFeedReuseMillis() != null) {
+         defaultReader.setFeedReuseMillis(settings.getFeedReuseMillis());
+      }
+      reader = defaultReader;
       writer = new EsWriterDefaultImpl(httpclient);
    }
 
@@ -33,14 +33,21 @@ import de.qyotta.eventstore.model.EventDeletedException;
 import de.qyotta.eventstore.model.EventResponse;
 import de.qyotta.eventstore.model.EventStreamFeed;
 import de.qyotta.eventstore.model.EventStreamNotFoundException;
-import de.qyotta.eventstore.utils.HttpCacheLoggingUtil;
+import de.qyotta.eventstore.utils.CountingInputStream;
+import de.qyotta.eventstore.utils.HttpCacheMetrics;
+import de.qyotta.eventstore.utils.ReadThrottle;
+import de.qyotta.eventstore.utils.SingleFlight;
 
 @SuppressWarnings("nls")
 public class EsReaderDefaultImpl implements ESReader {
    private static final Logger LOGGER = LoggerFactory.getLogger(EsReaderDefaultImpl.class.getName());
+   private static final String EMBED_RICH = "rich";
+   private static final String EMBED_BODY = "body";
    private final Gson gson;
    private final CloseableHttpClient httpclient;
    private String name;
+   private ReadThrottle readThrottle;
+   private SingleFlight<String, EventStreamFeed> feeds = new SingleFlight<>();
 
    public EsReaderDefaultImpl(final CloseableHttpClient httpclient) {
       this(EsReaderDefaultImpl.class.getSimpleName() + "_" + UUID.randomUUID(), httpclient);
@@ -83,15 +90,42 @@ public class EsReaderDefaultImpl implements ESReader {
       gson = gsonBuilder.create();
    }
 
+   /**
+    * Set the throttle stream feed reads are accounted against. This defaults to <code>null</code> (reads are not throttled).
+    *
+    * @param readThrottle
+    */
+   public void setReadThrottle(final ReadThrottle readThrottle) {
+      this.readThrottle = readThrottle;
+   }
+
+   /**
+    * Set how long a loaded stream feed is handed to further readers of the same url instead of loading it again. Concurrent reads of the same url are always coalesced. This defaults to 0.
+    *
+    * @param feedReuseMillis
+    */
+   public void setFeedReuseMillis(final long feedReuseMillis) {
+      this.feeds = new SingleFlight<>(feedReuseMillis);
+   }
+
    @Override
    public EventStreamFeed readStream(final String url) {
       try {
-         return loadFeed(url);
+         return loadFeed(url, EMBED_RICH);
       } catch (final IOException e) {
          throw new RuntimeException("Could not initialize EventStreamImpl from url: '" + url + "'.", e);
       }
    }
 
+   @Override
+   public EventStreamFeed readStreamWithBody(final String url) {
+      try {
+         return loadFeed(url, EMBED_BODY);
+      } catch (final IOException e) {
+         throw new RuntimeException("Could not load stream feed from url: '" + url + "'.", e);
+      }
+   }
+
    @Override
    public EventResponse readEvent(String url) {
       try {
@@ -102,18 +136,31 @@ public class EsReaderDefaultImpl implements ESReader {
 
    }
 
-   private EventStreamFeed loadFeed(final String url) throws IOException {
+   private EventStreamFeed loadFeed(final String url, final String embed) throws IOException {
       try {
-         final HttpGet httpget = new HttpGet(url + "?embed=rich");
+         return feeds.execute(url + "?embed=" + embed, () -> fetchFeed(url, embed));
+      } catch (final IOException | RuntimeException e) {
+         throw e;
+      } catch (final Exception e) {
+         throw new IOException(e);
+      }
+   }
+
+   private EventStreamFeed fetchFeed(final String url, final String embed) throws IOException {
+      try {
+         final HttpGet httpget = new HttpGet(url + "?embed=" + embed);
          httpget.addHeader(ACCEPT_HEADER, ACCEPT_EVENTSTORE_ATOM_JSON);
          // httpget.addHeader("ES-LongPoll", "5");
 
          final HttpCacheContext context = HttpCacheContext.create();
+         final long start = System.nanoTime();
          final CloseableHttpResponse response = httpclient.execute(httpget, context);
+         final EventStreamFeed result;
+         final long latency;
+         final long bytes;
          try {
-            if (context.getCacheResponseStatus() != null) {
-               HttpCacheLoggingUtil.logCacheResponseStatus(name, context.getCacheResponseStatus());
-            }
+            HttpCacheMetrics.observe(name, context.getCacheResponseStatus(), start, response.getEntity() != null ? response.getEntity()
+                  .getContentLength() : -1);
 
             final int statusCode = response.getStatusLine()
                   .getStatusCode();
@@ -123,13 +170,21 @@ public class EsReaderDefaultImpl implements ESReader {
             if (!(HttpStatus.SC_OK == statusCode)) {
                throw new RuntimeException("Could not load stream feed from url: " + url);
             }
-            final EventStreamFeed result = gson.fromJson(new BufferedReader(new InputStreamReader(response.getEntity()
-                  .getContent())), EventStreamFeed.class);
+            latency = System.nanoTime() - start;
+            final CountingInputStream content = new CountingInputStream(response.getEntity()
+                  .getContent());
+            result = gson.fromJson(new BufferedReader(new InputStreamReader(content)), EventStreamFeed.class);
             EntityUtils.consume(response.getEntity());
-            return result;
+            bytes = content.getCount();
          } finally {
             response.close();
          }
+         if (readThrottle != null) {
+            // the connection is back in the pool before the throttle makes the reader wait
+            readThrottle.onRead(result.getEntries() == null ? 0 : result.getEntries()
+                  .size(), bytes, latency);
+         }
+         return result;
       } finally {
          httpclient.close();
       }
@@ -142,11 +197,11 @@ public class EsReaderDefaultImpl implements ESReader {
 
          LOGGER.info("Executing request " + httpget.getRequestLine());
          final HttpCacheContext context = HttpCacheContext.create();
+         final long start = System.nanoTime();
          final CloseableHttpResponse response = httpclient.execute(httpget, context);
          try {
-            if (context.getCacheResponseStatus() != null) {
-               HttpCacheLoggingUtil.logCacheResponseStatus(name, context.getCacheResponseStatus());
-            }
+            HttpCacheMetrics.observe(name, context.getCacheResponseStatus(), start, response.getEntity() != null ? response.getEntity()
+                  .getContentLength() : -1);
 
             final int statusCode = response.getStatusLine()
                   .getStatusCode();
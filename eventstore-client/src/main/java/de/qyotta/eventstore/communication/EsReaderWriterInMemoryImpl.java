@@ -19,6 +19,11 @@ public class EsReaderWriterInMemoryImpl implements ESReader, ESWriter {
       throw new UnsupportedOperationException("In Memory version is not implemented yet.");
    }
 
+   @Override
+   public EventStreamFeed readStreamWithBody(String url) {
+      throw new UnsupportedOperationException("In Memory version is not implemented yet.");
+   }
+
    @Override
    public EventResponse readEvent(String url) {
       throw new UnsupportedOperationException("In Memory version is not implemented yet.");
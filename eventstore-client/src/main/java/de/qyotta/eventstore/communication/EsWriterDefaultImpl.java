@@ -34,7 +34,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
 import de.qyotta.eventstore.model.Event;
-import de.qyotta.eventstore.utils.HttpCacheLoggingUtil;
+import de.qyotta.eventstore.utils.HttpCacheMetrics;
 
 @SuppressWarnings("nls")
 public class EsWriterDefaultImpl implements ESWriter {
@@ -79,11 +79,9 @@ public class EsWriterDefaultImpl implements ESWriter {
             final HttpCacheContext context = HttpCacheContext.create();
             CloseableHttpResponse response = null;
             try {
+               final long start = System.nanoTime();
                response = httpclient.execute(post, context);
-
-               if (context.getCacheResponseStatus() != null) {
-                  HttpCacheLoggingUtil.logCacheResponseStatus(name, context.getCacheResponseStatus());
-               }
+               HttpCacheMetrics.observe(name, context.getCacheResponseStatus(), start, -1);
 
                if (HttpStatus.SC_CREATED != response.getStatusLine()
                      .getStatusCode()) {
@@ -24,6 +24,7 @@ public class Entry {
    private Long eventNumber;
    private String data;
    private String metaData;
+   private String linkMetaData;
    private String streamId;
    private Boolean isLinkMetaData;
    private Long positionEventNumber;
@@ -33,4 +33,5 @@ public class Event {
    private String eventStreamId;
    private String data;
    private String metadata;
+   private String linkMetaData;
 }
@@ -0,0 +1,239 @@
+package de.qyotta.eventstore.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.client.cache.HeaderConstants;
+import org.apache.http.client.cache.HttpCacheEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.qyotta.eventstore.EventStoreSettings;
+import de.qyotta.eventstore.EventStream;
+import de.qyotta.eventstore.EventStreamImpl;
+import de.qyotta.eventstore.communication.ESContext;
+import de.qyotta.eventstore.communication.EsContextDefaultImpl;
+
+/**
+ * Exports the response cache written by {@link FileCacheStorage} into a single compressed snapshot file and bulk loads such a snapshot into a (fresh) cache directory. This allows new nodes to start
+ * with a pre-warmed cache instead of reading the whole history from the event store.
+ */
+@SuppressWarnings("nls")
+public final class CacheSnapshot {
+   private static final Logger LOGGER = LoggerFactory.getLogger(CacheSnapshot.class.getName());
+   private static final long IMMUTABLE_MIN_MAX_AGE_SECONDS = 24 * 60 * 60;
+   private static final String TEMP_FILE_SUFFIX = ".snapshot-tmp";
+
+   /**
+    * Accepts every cache entry.
+    */
+   public static final Predicate<HttpCacheEntry> ALL = e -> true;
+
+   /**
+    * Only accepts entries the event store marked as cacheable for a long time. These are the pages and events that will never change (i.e. everything but the head of a stream).
+    */
+   public static final Predicate<HttpCacheEntry> IMMUTABLE_ONLY = CacheSnapshot::isImmutable;
+
+   private CacheSnapshot() {
+      //
+   }
+
+   /**
+    * Writes all entries of the given cache directory that match the filter into the given snapshot file.
+    *
+    * @return the number of exported entries
+    */
+   public static int export(final File cacheDirectory, final File snapshotFile, final Predicate<HttpCacheEntry> filter) throws IOException {
+      final File[] files = cacheDirectory.listFiles(f -> f.isFile() && !f.getName()
+            .endsWith(TEMP_FILE_SUFFIX));
+      if (files == null) {
+         throw new IOException("Cache directory '" + cacheDirectory + "' does not exist.");
+      }
+      int exported = 0;
+      try (final ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(snapshotFile)))) {
+         out.setLevel(Deflater.BEST_COMPRESSION);
+         for (final File file : files) {
+            if (filter != ALL && !filter.test(readEntry(file))) {
+               continue;
+            }
+            out.putNextEntry(new ZipEntry(file.getName()));
+            Files.copy(file.toPath(), out);
+            out.closeEntry();
+            exported++;
+         }
+      }
+      LOGGER.info("Exported " + exported + " of " + files.length + " cache entries from '" + cacheDirectory + "' to '" + snapshotFile + "'.");
+      return exported;
+   }
+
+   /**
+    * Loads the given snapshot into the cache directory using the given number of threads. Entries that already exist in the cache directory are kept.
+    *
+    * @return the number of loaded entries
+    */
+   public static int load(final File snapshotFile, final File cacheDirectory, final int threads) throws IOException {
+      cacheDirectory.mkdirs();
+      final long start = System.currentTimeMillis();
+      final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+      try (final ZipFile zip = new ZipFile(snapshotFile)) {
+         final List<Future<Boolean>> results = new ArrayList<>();
+         final Enumeration<? extends ZipEntry> entries = zip.entries();
+         while (entries.hasMoreElements()) {
+            final ZipEntry entry = entries.nextElement();
+            results.add(executor.submit(() -> loadEntry(zip, entry, cacheDirectory)));
+         }
+         int loaded = 0;
+         for (final Future<Boolean> result : results) {
+            if (result.get()) {
+               loaded++;
+            }
+         }
+         LOGGER.info("Loaded " + loaded + " cache entries from '" + snapshotFile + "' into '" + cacheDirectory + "' in " + (System.currentTimeMillis() - start) + " ms.");
+         return loaded;
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+               .interrupt();
+         throw new IOException("Interrupted while loading cache snapshot '" + snapshotFile + "'.", e);
+      } catch (final ExecutionException e) {
+         throw new IOException("Could not load cache snapshot '" + snapshotFile + "'.", e.getCause());
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   /**
+    * Reads the given streams completely through a caching client backed by the given cache directory, so that their immutable pages end up in the cache and can be exported afterwards.
+    */
+   public static void warm(final EventStoreSettings settings, final String... streamNames) {
+      final ESContext context = new EsContextDefaultImpl(settings.toBuilder()
+            .cacheResponses(true)
+            .cacheSnapshot(null)
+            .build());
+      for (final String streamName : streamNames) {
+         final EventStream stream = new EventStreamImpl(settings.getHost() + Constants.STREAMS_PATH + streamName, context);
+         long count = 0;
+         while (stream.hasNext()) {
+            stream.next();
+            count++;
+         }
+         LOGGER.info("Warmed cache with " + count + " events of stream '" + streamName + "'.");
+      }
+   }
+
+   public static boolean isImmutable(final HttpCacheEntry entry) {
+      if (entry == null) {
+         return false;
+      }
+      for (final Header header : entry.getHeaders(HeaderConstants.CACHE_CONTROL)) {
+         for (final HeaderElement element : header.getElements()) {
+            final String name = element.getName();
+            if (HeaderConstants.CACHE_CONTROL_NO_CACHE.equalsIgnoreCase(name) || HeaderConstants.CACHE_CONTROL_NO_STORE.equalsIgnoreCase(name)
+                  || HeaderConstants.CACHE_CONTROL_MUST_REVALIDATE.equalsIgnoreCase(name)) {
+               return false;
+            }
+            if (HeaderConstants.CACHE_CONTROL_MAX_AGE.equalsIgnoreCase(name) && element.getValue() != null) {
+               try {
+                  return Long.parseLong(element.getValue()) >= IMMUTABLE_MIN_MAX_AGE_SECONDS;
+               } catch (final NumberFormatException e) {
+                  return false;
+               }
+            }
+         }
+      }
+      return false;
+   }
+
+   private static boolean loadEntry(final ZipFile zip, final ZipEntry entry, final File cacheDirectory) throws IOException {
+      final File target = new File(cacheDirectory, new File(entry.getName()).getName());
+      if (target.exists()) {
+         return false;
+      }
+      final Path temp = Files.createTempFile(cacheDirectory.toPath(), target.getName(), TEMP_FILE_SUFFIX);
+      try (final InputStream in = zip.getInputStream(entry)) {
+         Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+         Files.move(temp, target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+         return true;
+      } finally {
+         Files.deleteIfExists(temp);
+      }
+   }
+
+   private static HttpCacheEntry readEntry(final File file) {
+      try (final ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+         return (HttpCacheEntry) in.readObject();
+      } catch (final Exception e) {
+         LOGGER.warn("Skipping unreadable cache entry " + file, e);
+         return null;
+      }
+   }
+
+   /**
+    * Command line entry point:
+    *
+    * <pre>
+    * export &lt;cacheDirectory&gt; &lt;snapshotFile&gt; [--immutable-only]
+    * import &lt;snapshotFile&gt; &lt;cacheDirectory&gt; [threads]
+    * warm &lt;host&gt; &lt;cacheDirectory&gt; &lt;snapshotFile&gt; &lt;stream&gt;...
+    * </pre>
+    */
+   public static void main(final String[] args) throws IOException {
+      if (args.length < 3) {
+         usage();
+         return;
+      }
+      switch (args[0]) {
+         case "export":
+            export(new File(args[1]), new File(args[2]), args.length > 3 && "--immutable-only".equals(args[3]) ? IMMUTABLE_ONLY : ALL);
+            break;
+         case "import":
+            load(new File(args[1]), new File(args[2]), args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime()
+                  .availableProcessors());
+            break;
+         case "warm":
+            if (args.length < 5) {
+               usage();
+               return;
+            }
+            final File cacheDirectory = new File(args[2]);
+            final String[] streams = new String[args.length - 4];
+            System.arraycopy(args, 4, streams, 0, streams.length);
+            warm(EventStoreSettings.withDefaults()
+                  .host(args[1])
+                  .cacheDirectory(cacheDirectory)
+                  .build(), streams);
+            export(cacheDirectory, new File(args[3]), IMMUTABLE_ONLY);
+            break;
+         default:
+            usage();
+      }
+   }
+
+   private static void usage() {
+      System.err.println("Usage: CacheSnapshot export <cacheDirectory> <snapshotFile> [--immutable-only]");
+      System.err.println("       CacheSnapshot import <snapshotFile> <cacheDirectory> [threads]");
+      System.err.println("       CacheSnapshot warm <host> <cacheDirectory> <snapshotFile> <stream>...");
+   }
+}
@@ -0,0 +1,29 @@
+package de.qyotta.eventstore.utils;
+
+/**
+ * Persists the position a reader has processed a stream up to, so a restarted reader can continue right after it (see {@link EventStreamReader#resume()}). Positions are event numbers in the stream
+ * that is read; for streams of resolved links this is the number of the link.
+ */
+public interface CheckpointStore {
+
+   /**
+    * @param name
+    *           the name of the reader
+    * @return the number of the last event processed by the reader or <code>null</code> if nothing was recorded yet
+    */
+   Long load(String name);
+
+   /**
+    * Records that the reader processed all events up to and including the given event number. The checkpoint may only be durable after the next {@link #flush()}.
+    *
+    * @param name
+    * @param eventNumber
+    */
+   void store(String name, long eventNumber);
+
+   /**
+    * Makes all stored checkpoints durable.
+    */
+   void flush();
+
+}
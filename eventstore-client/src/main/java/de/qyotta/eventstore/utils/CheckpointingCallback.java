@@ -0,0 +1,17 @@
+package de.qyotta.eventstore.utils;
+
+/**
+ * A reader callback that completes events after it returned (e.g. {@link ParallelEventDispatcher}) and therefore writes the checkpoints itself. A reader whose callback implements this interface hands
+ * its checkpoint store to the callback (see {@link EventStreamReader#setCheckpointStore(CheckpointStore, String)}) instead of recording every event the callback returned from.
+ */
+public interface CheckpointingCallback {
+
+   /**
+    * Record the position of the last event up to which all events are processed under the given name in the given store.
+    *
+    * @param checkpointStore
+    * @param checkpointName
+    */
+   void setCheckpointStore(CheckpointStore checkpointStore, String checkpointName);
+
+}
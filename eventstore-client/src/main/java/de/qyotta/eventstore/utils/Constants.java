@@ -13,4 +13,9 @@ public class Constants {
    public static final String ACCEPT_HEADER = "Accept";
 
    public static final String STREAMS_PATH = "/streams/";
+
+   /**
+    * The metadata key the Axon event stores write the aggregate identifier to.
+    */
+   public static final String AGGREGATE_ID_KEY = "AgregateIdentifier";
 }
@@ -0,0 +1,45 @@
+package de.qyotta.eventstore.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read from the wrapped stream, used to account response bodies of unknown length.
+ */
+public final class CountingInputStream extends FilterInputStream {
+   private long count;
+
+   public CountingInputStream(final InputStream in) {
+      super(in);
+   }
+
+   public long getCount() {
+      return count;
+   }
+
+   @Override
+   public int read() throws IOException {
+      final int result = super.read();
+      if (result >= 0) {
+         count++;
+      }
+      return result;
+   }
+
+   @Override
+   public int read(final byte[] b, final int off, final int len) throws IOException {
+      final int result = super.read(b, off, len);
+      if (result > 0) {
+         count += result;
+      }
+      return result;
+   }
+
+   @Override
+   public long skip(final long n) throws IOException {
+      final long result = super.skip(n);
+      count += result;
+      return result;
+   }
+}
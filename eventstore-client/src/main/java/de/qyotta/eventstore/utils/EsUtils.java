@@ -4,6 +4,7 @@ import java.time.Instant;
 import java.util.Date;
 
 import de.qyotta.eventstore.model.Entry;
+import de.qyotta.eventstore.model.Event;
 import de.qyotta.eventstore.model.EventResponse;
 import lombok.experimental.UtilityClass;
 
@@ -13,11 +14,69 @@ public class EsUtils {
    private static final String SEQUENCE_NUMBER_TITLE_SEPERATOR = "@";
 
    public static long getEventNumber(final Entry entry) {
-      final String title = entry.getTitle();
+      return getEventNumber(entry.getTitle());
+   }
+
+   /**
+    * Extracts the event number from a title of the form <code>eventNumber@streamId</code>.
+    */
+   public static long getEventNumber(final String title) {
       final String subsequenceNumber = title.substring(0, title.indexOf(SEQUENCE_NUMBER_TITLE_SEPERATOR));
       return Long.valueOf(subsequenceNumber);
    }
 
+   /**
+    * The position of the entry in the stream it was read from. For resolved links this is the number of the link, not the number of the event in its original stream.
+    */
+   public static long positionOf(final Entry entry) {
+      if (entry.getPositionEventNumber() != null) {
+         return entry.getPositionEventNumber();
+      }
+      return entry.getEventNumber();
+   }
+
+   /**
+    * The position of the event in the stream it was read from, see {@link #positionOf(Entry)}.
+    */
+   public static long positionOf(final EventResponse event) {
+      final Event content = event.getContent();
+      if (content.getPositionEventNumber() != null) {
+         return content.getPositionEventNumber();
+      }
+      return content.getEventNumber();
+   }
+
+   /**
+    * Creates an {@link EventResponse} from an entry that was read with embedded event bodies (<code>embed=body</code>).
+    */
+   public static EventResponse eventResponseOf(final Entry entry) {
+      return EventResponse.builder()
+            .author(entry.getAuthor())
+            .summary(entry.getSummary())
+            .id(entry.getId())
+            .title(entry.getTitle())
+            .updated(entry.getUpdated())
+            .content(Event.builder()
+                  .author(entry.getAuthor())
+                  .data(entry.getData())
+                  .eventId(entry.getEventId())
+                  .eventNumber(entry.getEventNumber())
+                  .eventStreamId(entry.getStreamId())
+                  .eventType(entry.getEventType())
+                  .id(entry.getId())
+                  .isLinkMetaData(entry.getIsLinkMetaData())
+                  .metadata(entry.getMetaData())
+                  .linkMetaData(entry.getLinkMetaData())
+                  .positionEventNumber(entry.getPositionEventNumber())
+                  .positionStreamId(entry.getPositionStreamId())
+                  .streamId(entry.getStreamId())
+                  .summary(entry.getSummary())
+                  .title(entry.getTitle())
+                  .updated(entry.getUpdated())
+                  .build())
+            .build();
+   }
+
    public static Date timestampOf(final Entry entry) {
       return Date.from(Instant.parse(entry.getUpdated()));
    }
@@ -15,10 +15,34 @@ public interface EventStreamReader {
    void start(String title);
 
    /**
-    * Start after the given timestamp (exclusive)
+    * Start after the given timestamp (exclusive). The first event is found with the timestamp index of this reader if one is set and a binary search over the stream otherwise.
     */
    void start(Date timestamp);
 
+   /**
+    * Start after the event recorded for this reader in its checkpoint store or at the beginning of the stream if nothing was recorded yet.
+    *
+    * @throws IllegalStateException
+    *            if no checkpoint store is set
+    */
+   void resume();
+
+   /**
+    * Record the number of every processed event (the last event of every batch for batch readers) under the given name in the given store. An event counts as processed once the callback returned
+    * from it, so a callback that processes events asynchronously has to implement {@link CheckpointingCallback}; the store is then handed to the callback, which records its own progress.
+    *
+    * @param checkpointStore
+    * @param checkpointName
+    */
+   void setCheckpointStore(CheckpointStore checkpointStore, String checkpointName);
+
+   /**
+    * Record the timestamps of the processed events in the given index and use it to position the reader in {@link #start(Date)}.
+    *
+    * @param timestampIndex
+    */
+   void setTimestampIndex(TimestampIndex timestampIndex);
+
    /**
     * Manually trigger a catch up. If the reader is in the middle of a catchup this will do nothing
     */
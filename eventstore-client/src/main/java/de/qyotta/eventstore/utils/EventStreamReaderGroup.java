@@ -0,0 +1,184 @@
+package de.qyotta.eventstore.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the catch ups of many {@link EventStreamReaderImpl}s on one shared scheduler thread and a small worker pool instead of a scheduler thread per reader.
+ * <p>
+ * The scheduler ticks every {@link #setTickMillis(long) tick} and hands every reader whose interval has expired to the worker pool, so the polls of all readers that are due within one tick are
+ * coalesced into one pass. A reader is never queued twice: while its catch up is queued or running further ticks skip it. Each turn reads at most {@link #setMaxEventsPerTurn(int)} events; a reader
+ * with more events pending is queued again behind all readers that are already waiting, so one busy stream can not starve the others. Paused readers are not polled at all.
+ * <p>
+ * Readers join a group with {@link EventStreamReaderImpl#setGroup(EventStreamReaderGroup)} before they are started.
+ */
+@SuppressWarnings("nls")
+public class EventStreamReaderGroup {
+   private static final Logger LOGGER = LoggerFactory.getLogger(EventStreamReaderGroup.class.getName());
+   private static final AtomicInteger GROUP_NUMBER = new AtomicInteger();
+   private static final long DEFAULT_TICK_MILLIS = 50;
+   private static final int DEFAULT_MAX_EVENTS_PER_TURN = 500;
+
+   private final Map<EventStreamReaderImpl, Member> members = new ConcurrentHashMap<>();
+   private final ScheduledExecutorService scheduler;
+   private final ExecutorService workers;
+   private volatile int maxEventsPerTurn = DEFAULT_MAX_EVENTS_PER_TURN;
+   private volatile long tickMillis = DEFAULT_TICK_MILLIS;
+   private volatile boolean shutdown;
+
+   private static final class Member {
+      private final EventStreamReaderImpl reader;
+      private final long intervalMillis;
+      // a turn of this reader is queued or running
+      private final AtomicBoolean queued = new AtomicBoolean(false);
+      private volatile long nextDueMillis;
+
+      private Member(final EventStreamReaderImpl reader, final long intervalMillis) {
+         this.reader = reader;
+         this.intervalMillis = intervalMillis;
+      }
+   }
+
+   /**
+    * Creates a new group that catches up on its readers with the given number of worker threads.
+    *
+    * @param workerThreads
+    */
+   public EventStreamReaderGroup(final int workerThreads) {
+      if (workerThreads < 1) {
+         throw new IllegalArgumentException("A reader group needs at least one worker thread but was given " + workerThreads);
+      }
+      final String name = "event-stream-reader-group-" + GROUP_NUMBER.incrementAndGet();
+      scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory(name + "-scheduler"));
+      workers = Executors.newFixedThreadPool(workerThreads, threadFactory(name + "-worker"));
+      scheduleTick();
+   }
+
+   /**
+    * Set the number of events a reader may read in one turn before the other readers of this group get their turn. This defaults to 500.
+    *
+    * @param maxEventsPerTurn
+    */
+   public void setMaxEventsPerTurn(final int maxEventsPerTurn) {
+      if (maxEventsPerTurn < 1) {
+         throw new IllegalArgumentException("The maximum number of events per turn has to be at least 1 but was " + maxEventsPerTurn);
+      }
+      this.maxEventsPerTurn = maxEventsPerTurn;
+   }
+
+   /**
+    * Set how often the scheduler looks for readers whose interval expired. Intervals of the readers are effectively rounded up to a multiple of this. This defaults to 50 milliseconds.
+    *
+    * @param tickMillis
+    */
+   public void setTickMillis(final long tickMillis) {
+      if (tickMillis < 1) {
+         throw new IllegalArgumentException("The tick has to be at least 1 millisecond but was " + tickMillis);
+      }
+      this.tickMillis = tickMillis;
+   }
+
+   /**
+    * @return the number of readers currently scheduled by this group
+    */
+   public int size() {
+      return members.size();
+   }
+
+   void add(final EventStreamReaderImpl reader, final long intervalMillis) {
+      if (shutdown) {
+         throw new IllegalStateException("The reader group has been shut down.");
+      }
+      members.put(reader, new Member(reader, intervalMillis));
+   }
+
+   void remove(final EventStreamReaderImpl reader) {
+      members.remove(reader);
+   }
+
+   /**
+    * Stops polling the readers of this group and waits for the given time for running catch ups to finish.
+    *
+    * @param timeout
+    * @param unit
+    * @return <code>true</code> if all catch ups finished in time
+    * @throws InterruptedException
+    */
+   public boolean shutdown(final long timeout, final TimeUnit unit) throws InterruptedException {
+      shutdown = true;
+      members.clear();
+      scheduler.shutdown();
+      workers.shutdown();
+      return workers.awaitTermination(timeout, unit);
+   }
+
+   private void scheduleTick() {
+      if (shutdown) {
+         return;
+      }
+      try {
+         scheduler.schedule(this::tick, tickMillis, TimeUnit.MILLISECONDS);
+      } catch (final RejectedExecutionException e) {
+         // shut down concurrently
+      }
+   }
+
+   private void tick() {
+      try {
+         final long now = System.currentTimeMillis();
+         for (final Member member : members.values()) {
+            if (now >= member.nextDueMillis && !member.reader.isPaused() && member.queued.compareAndSet(false, true)) {
+               submit(member);
+            }
+         }
+      } catch (final Throwable t) {
+         LOGGER.error("Error scheduling the readers of the group.", t);
+      } finally {
+         scheduleTick();
+      }
+   }
+
+   private void submit(final Member member) {
+      try {
+         workers.execute(() -> runTurn(member));
+      } catch (final RejectedExecutionException e) {
+         member.queued.set(false);
+      }
+   }
+
+   private void runTurn(final Member member) {
+      boolean more = false;
+      try {
+         more = member.reader.catchUpTurn(maxEventsPerTurn);
+      } catch (final Throwable t) {
+         LOGGER.error("Error catching up on a reader of the group.", t);
+      }
+      if (more && !shutdown && members.get(member.reader) == member) {
+         // queue behind the readers that are already waiting
+         submit(member);
+         return;
+      }
+      member.nextDueMillis = System.currentTimeMillis() + member.intervalMillis;
+      member.queued.set(false);
+   }
+
+   private static ThreadFactory threadFactory(final String name) {
+      final AtomicInteger threadNumber = new AtomicInteger();
+      return runnable -> {
+         final Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+         thread.setDaemon(true);
+         return thread;
+      };
+   }
+}
@@ -1,36 +1,61 @@
 package de.qyotta.eventstore.utils;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.qyotta.eventstore.EventStream;
 import de.qyotta.eventstore.EventStreamImpl;
+import de.qyotta.eventstore.SlicedEventStreamImpl;
 import de.qyotta.eventstore.communication.ESContext;
+import de.qyotta.eventstore.model.Entry;
 import de.qyotta.eventstore.model.EventResponse;
 import de.qyotta.eventstore.model.EventStreamReaderException;
 
 @SuppressWarnings("nls")
 public class EventStreamReaderImpl implements EventStreamReader {
    private static final Logger LOGGER = LoggerFactory.getLogger(EventStreamReaderImpl.class.getName());
+   private static final long LINGER_POLL_MILLIS = 10;
 
    private long catchUpTerminationPeriodMillis = 30000;
    private final int intervalMillis;
 
-   private boolean paused = false;
-   private boolean isCatchingUp = false;
+   private volatile boolean paused = false;
+   private final AtomicBoolean catchingUp = new AtomicBoolean(false);
 
    private final String streamurl;
    private final ESContext context;
 
    private ScheduledExecutorService scheduler;
-   private Runnable currentTask;
+   private volatile EventStreamReaderGroup group;
+   private volatile EventStream currentStream;
+   private volatile CheckpointStore checkpointStore;
+   private volatile String checkpointName;
+   private volatile TimestampIndex timestampIndex;
+   private volatile ReaderMetrics metrics;
 
    private final EventStreamReaderCallback callback;
+   private final EventStreamReaderBatchCallback batchCallback;
+   private final int maxBatchSize;
+   private final long maxLingerMillis;
+   // the callback records the checkpoints itself (see CheckpointingCallback)
+   private final boolean checkpointsByCallback;
+   // the title and position of the last event of the last batch that was delivered successfully
+   private String committedTitle;
+   private long committedPosition;
+   // the events read but not yet delivered to the batch callback and the time until they wait for more events
+   private final List<EventResponse> batch = new ArrayList<>();
+   private long lingerDeadline;
+   // moves a new event stream to the position the reader was started at
+   private Consumer<EventStream> startPosition;
    private EventStreamReaderErrorCallback errorCallback = (errorMessage, cause) -> {
       LOGGER.error(errorMessage, cause);
       throw new EventStreamReaderException(cause);
@@ -41,6 +66,14 @@ public class EventStreamReaderImpl implements EventStreamReader {
       void readEvent(final EventResponse event);
    }
 
+   /**
+    * Receives the events in batches. If this callback throws an exception none of the events in the batch count as read: they are read again by the next catch up.
+    */
+   @FunctionalInterface
+   public interface EventStreamReaderBatchCallback {
+      void readEvents(final List<EventResponse> events);
+   }
+
    @FunctionalInterface
    public interface EventStreamReaderErrorCallback {
       void onError(final String errorMessage, final Throwable cause);
@@ -59,15 +92,51 @@ public class EventStreamReaderImpl implements EventStreamReader {
       this.streamurl = streamurl;
       this.context = context;
       this.intervalMillis = intervalMillis;
+      this.metrics = ReaderMetrics.unexported();
       this.callback = callback;
+      this.batchCallback = null;
+      this.maxBatchSize = 1;
+      this.maxLingerMillis = 0;
+      this.checkpointsByCallback = callback instanceof CheckpointingCallback;
    }
 
    public EventStreamReaderImpl(final String streamurl, final ESContext context, final int intervalMillis, final EventStreamReaderCallback callback,
          final EventStreamReaderErrorCallback errorCallback) {
+      this(streamurl, context, intervalMillis, callback);
+      this.errorCallback = errorCallback;
+   }
+
+   /**
+    * Creates a new {@link EventStreamReaderImpl} that hands the events to the given callback in batches of up to maxBatchSize events. Once the stream is exhausted a batch that is not full is held back
+    * for at most maxLingerMillis (counted from its first event) to wait for more events; a reader of an {@link EventStreamReaderGroup} does not wait on the worker of the group but delivers the
+    * batch in its first turn after that time. The reader only advances past the events of a batch after the callback returned successfully.
+    *
+    * @param streamurl
+    * @param context
+    * @param intervalMillis
+    * @param maxBatchSize
+    * @param maxLingerMillis
+    * @param batchCallback
+    */
+   public EventStreamReaderImpl(final String streamurl, final ESContext context, final int intervalMillis, final int maxBatchSize, final long maxLingerMillis,
+         final EventStreamReaderBatchCallback batchCallback) {
+      if (maxBatchSize < 1) {
+         throw new IllegalArgumentException("The maximum batch size has to be at least 1 but was " + maxBatchSize);
+      }
       this.streamurl = streamurl;
       this.context = context;
       this.intervalMillis = intervalMillis;
-      this.callback = callback;
+      this.metrics = ReaderMetrics.unexported();
+      this.callback = null;
+      this.batchCallback = batchCallback;
+      this.maxBatchSize = maxBatchSize;
+      this.maxLingerMillis = maxLingerMillis;
+      this.checkpointsByCallback = batchCallback instanceof CheckpointingCallback;
+   }
+
+   public EventStreamReaderImpl(final String streamurl, final ESContext context, final int intervalMillis, final int maxBatchSize, final long maxLingerMillis,
+         final EventStreamReaderBatchCallback batchCallback, final EventStreamReaderErrorCallback errorCallback) {
+      this(streamurl, context, intervalMillis, maxBatchSize, maxLingerMillis, batchCallback);
       this.errorCallback = errorCallback;
    }
 
@@ -82,7 +151,7 @@ public class EventStreamReaderImpl implements EventStreamReader {
          shutdownIfNeeded();
          final EventStream eventStream = new EventStreamImpl(streamurl, context);
          eventStream.setAfterTitle(title);
-         start(eventStream);
+         start(eventStream, s -> s.setAfterTitle(title));
       } catch (final Throwable t) {
          errorCallback.onError("Error initializog event stream.", t);
       }
@@ -98,7 +167,7 @@ public class EventStreamReaderImpl implements EventStreamReader {
       try {
          shutdownIfNeeded();
          final EventStream eventStream = new EventStreamImpl(streamurl, context);
-         start(eventStream);
+         start(eventStream, s -> s.setAfterTimestamp(new Date(0)));
       } catch (final Throwable t) {
          errorCallback.onError("Error initializog event stream.", t);
       }
@@ -113,14 +182,60 @@ public class EventStreamReaderImpl implements EventStreamReader {
    public void start(final Date timestamp) {
       try {
          shutdownIfNeeded();
-         final EventStream eventStream = new EventStreamImpl(streamurl, context);
-         eventStream.setAfterTimestamp(timestamp);
-         start(eventStream);
+         final long firstEventNumber = TimestampIndex.firstEventNumberAfter(streamurl, context, timestampIndex, timestamp);
+         final EventStream eventStream = new SlicedEventStreamImpl(streamurl, context, firstEventNumber, Long.MAX_VALUE, SlicedEventStreamImpl.DEFAULT_SLICE_SIZE);
+         start(eventStream, s -> ((SlicedEventStreamImpl) s).setAfterEventNumber(firstEventNumber - 1));
+      } catch (final Throwable t) {
+         errorCallback.onError("Error initializog event stream.", t);
+      }
+   }
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see de.qyotta.eventstore.utils.EventStreamReader#resume()
+    */
+   @Override
+   public void resume() {
+      if (checkpointStore == null) {
+         throw new IllegalStateException("A reader can only be resumed if a checkpoint store is set.");
+      }
+      try {
+         shutdownIfNeeded();
+         final Long checkpoint = checkpointStore.load(checkpointName);
+         final long firstEventNumber = checkpoint == null ? 0 : checkpoint + 1;
+         // position directly at the event number instead of searching the title from the start of the stream
+         final EventStream eventStream = new SlicedEventStreamImpl(streamurl, context, firstEventNumber, Long.MAX_VALUE, SlicedEventStreamImpl.DEFAULT_SLICE_SIZE);
+         start(eventStream, s -> ((SlicedEventStreamImpl) s).setAfterEventNumber(firstEventNumber - 1));
       } catch (final Throwable t) {
          errorCallback.onError("Error initializog event stream.", t);
       }
    }
 
+   /*
+    * (non-Javadoc)
+    *
+    * @see de.qyotta.eventstore.utils.EventStreamReader#setCheckpointStore(de.qyotta.eventstore.utils.CheckpointStore, java.lang.String)
+    */
+   @Override
+   public void setCheckpointStore(final CheckpointStore checkpointStore, final String checkpointName) {
+      this.checkpointStore = checkpointStore;
+      this.checkpointName = checkpointName;
+      if (checkpointsByCallback) {
+         ((CheckpointingCallback) (callback != null ? callback : batchCallback)).setCheckpointStore(checkpointStore, checkpointName);
+      }
+   }
+
+   /*
+    * (non-Javadoc)
+    *
+    * @see de.qyotta.eventstore.utils.EventStreamReader#setTimestampIndex(de.qyotta.eventstore.utils.TimestampIndex)
+    */
+   @Override
+   public void setTimestampIndex(final TimestampIndex timestampIndex) {
+      this.timestampIndex = timestampIndex;
+   }
+
    /*
     * (non-Javadoc)
     *
@@ -128,8 +243,9 @@ public class EventStreamReaderImpl implements EventStreamReader {
     */
    @Override
    public void catchUp() {
-      if (currentTask != null) {
-         currentTask.run();
+      final EventStream eventStream = currentStream;
+      if (eventStream != null) {
+         catchUp(eventStream, Integer.MAX_VALUE);
          return;
       }
       // if start was never called just start, wich is equivalent to catching
@@ -137,23 +253,158 @@ public class EventStreamReaderImpl implements EventStreamReader {
       start();
    }
 
-   private void catchUp(final EventStream eventStream) {
+   /**
+    * Catches up on the current stream but reads at most maxEvents events (whole batches for a batch reader). Used by {@link EventStreamReaderGroup} to give every reader of the group a fair turn.
+    *
+    * @return <code>true</code> if the turn ended because the limit was reached and more events may be available
+    */
+   boolean catchUpTurn(final int maxEvents) {
+      final EventStream eventStream = currentStream;
+      return eventStream != null && catchUp(eventStream, maxEvents);
+   }
+
+   private boolean catchUp(final EventStream eventStream, final int maxEvents) {
+      if (isPaused() || !catchingUp.compareAndSet(false, true)) {
+         return false;
+      }
       try {
-         if (isPaused()) {
-            return;
+         sampleHead();
+         if (batchCallback != null) {
+            return catchUpInBatches(eventStream, maxEvents);
          }
-         if (isCatchingUp) {
-            return;
-         }
-         isCatchingUp = true;
          eventStream.loadNext();
+         int read = 0;
          while (eventStream.hasNext() && !isPaused()) {
-            callback.readEvent(eventStream.next());
+            if (read++ >= maxEvents) {
+               return true;
+            }
+            final EventResponse event = eventStream.next();
+            final long callbackStartNanos = System.nanoTime();
+            callback.readEvent(event);
+            metrics.processed(event, 1, callbackStartNanos);
+            index(event);
+            checkpoint(event);
+         }
+         if (!eventStream.hasNext()) {
+            metrics.atHead();
          }
       } catch (final Throwable t) {
          errorCallback.onError("Error catching up to event stream.", t);
       } finally {
-         isCatchingUp = false;
+         catchingUp.set(false);
+      }
+      return false;
+   }
+
+   private boolean catchUpInBatches(final EventStream eventStream, final int maxEvents) throws InterruptedException {
+      final boolean inGroup = group != null;
+      if (inGroup && !batch.isEmpty() && System.currentTimeMillis() < lingerDeadline) {
+         // the batch is still waiting for more events, a turn of the group after the deadline reads and delivers them
+         return false;
+      }
+      int delivered = 0;
+      eventStream.loadNext();
+      while (!isPaused()) {
+         if (eventStream.hasNext()) {
+            if (batch.isEmpty()) {
+               lingerDeadline = System.currentTimeMillis() + maxLingerMillis;
+            }
+            batch.add(eventStream.next());
+            if (batch.size() >= maxBatchSize) {
+               delivered += deliver(eventStream);
+               if (delivered >= maxEvents) {
+                  return true;
+               }
+            }
+            continue;
+         }
+         if (batch.isEmpty()) {
+            metrics.atHead();
+            return false;
+         }
+         final long remaining = lingerDeadline - System.currentTimeMillis();
+         if (remaining <= 0) {
+            deliver(eventStream);
+            metrics.atHead();
+            return false;
+         }
+         if (inGroup) {
+            // keep the batch for a later turn instead of blocking a worker the readers of the group share
+            return false;
+         }
+         Thread.sleep(Math.min(remaining, LINGER_POLL_MILLIS));
+         eventStream.loadNext();
+      }
+      if (!batch.isEmpty()) {
+         // paused with undelivered events, read them again when resumed
+         batch.clear();
+         rewind(eventStream);
+      }
+      return false;
+   }
+
+   private int deliver(final EventStream eventStream) {
+      final List<EventResponse> events = new ArrayList<>(batch);
+      batch.clear();
+      final long callbackStartNanos = System.nanoTime();
+      try {
+         batchCallback.readEvents(events);
+      } catch (final RuntimeException e) {
+         rewind(eventStream);
+         throw e;
+      }
+      final EventResponse last = events.get(events.size() - 1);
+      metrics.processed(last, events.size(), callbackStartNanos);
+      committedTitle = last.getTitle();
+      committedPosition = EsUtils.positionOf(last);
+      for (final EventResponse event : events) {
+         index(event);
+      }
+      checkpoint(last);
+      return events.size();
+   }
+
+   private void sampleHead() {
+      if (!metrics.claimHeadSample()) {
+         return;
+      }
+      try {
+         final List<Entry> entries = context.getReader()
+               .readStreamWithBody(streamurl + "/head/backward/1")
+               .getEntries();
+         if (!entries.isEmpty()) {
+            metrics.head(EsUtils.positionOf(entries.get(0)));
+         }
+      } catch (final RuntimeException e) {
+         LOGGER.debug("Could not sample the head of " + streamurl, e);
+      }
+   }
+
+   private void index(final EventResponse event) {
+      final TimestampIndex index = timestampIndex;
+      if (index != null) {
+         index.record(event);
+      }
+   }
+
+   private void checkpoint(final EventResponse event) {
+      final CheckpointStore store = checkpointStore;
+      if (store != null && !checkpointsByCallback) {
+         store.store(checkpointName, EsUtils.positionOf(event));
+      }
+   }
+
+   /**
+    * Moves the stream back to the event after the last successfully delivered batch. Sliced streams are moved by position because the titles of resolved links (e.g. in <code>$ce-</code> streams) are
+    * the ones of the linked events.
+    */
+   private void rewind(final EventStream eventStream) {
+      if (committedTitle == null) {
+         startPosition.accept(eventStream);
+      } else if (eventStream instanceof SlicedEventStreamImpl) {
+         ((SlicedEventStreamImpl) eventStream).setAfterEventNumber(committedPosition);
+      } else {
+         eventStream.setAfterTitle(committedTitle);
       }
    }
 
@@ -161,15 +412,62 @@ public class EventStreamReaderImpl implements EventStreamReader {
       if (scheduler != null) {
          scheduler.shutdown();
          scheduler.awaitTermination(catchUpTerminationPeriodMillis, TimeUnit.MILLISECONDS);
+         scheduler = null;
+      }
+      final EventStreamReaderGroup currentGroup = group;
+      if (currentGroup != null) {
+         currentGroup.remove(this);
+         awaitCatchUp();
+      }
+   }
+
+   private void awaitCatchUp() throws InterruptedException {
+      final long deadline = System.currentTimeMillis() + catchUpTerminationPeriodMillis;
+      while (catchingUp.get() && System.currentTimeMillis() < deadline) {
+         Thread.sleep(LINGER_POLL_MILLIS);
       }
    }
 
-   private void start(final EventStream eventStream) {
+   private void start(final EventStream eventStream, final Consumer<EventStream> startPosition) {
       paused = false;
-      currentTask = () -> catchUp(eventStream);
-      if (intervalMillis > 0) {
-         scheduler = Executors.newScheduledThreadPool(1);
-         scheduler.scheduleWithFixedDelay(currentTask, 0, intervalMillis, TimeUnit.MILLISECONDS);
+      committedTitle = null;
+      committedPosition = -1;
+      batch.clear();
+      this.startPosition = startPosition;
+      currentStream = eventStream;
+      if (intervalMillis <= 0) {
+         return;
+      }
+      final EventStreamReaderGroup currentGroup = group;
+      if (currentGroup != null) {
+         currentGroup.add(this, intervalMillis);
+         return;
+      }
+      scheduler = Executors.newScheduledThreadPool(1);
+      scheduler.scheduleWithFixedDelay(() -> catchUp(eventStream, Integer.MAX_VALUE), 0, intervalMillis, TimeUnit.MILLISECONDS);
+   }
+
+   /**
+    * Set the group that schedules the catch ups of this reader. Instead of starting a scheduler thread of its own the reader is polled by the shared scheduler and worker pool of the group. Has to be
+    * set before the reader is started. This defaults to <code>null</code> (the reader uses its own scheduler).
+    *
+    * @param group
+    */
+   public void setGroup(final EventStreamReaderGroup group) {
+      this.group = group;
+   }
+
+   /**
+    * Stops scheduled catch ups of this reader and waits up to the catch up termination period for a running catch up to finish. The metrics of the reader are removed from the export.
+    */
+   public void shutdown() {
+      try {
+         shutdownIfNeeded();
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+               .interrupt();
+      } finally {
+         metrics.remove();
       }
    }
 
@@ -191,6 +489,25 @@ public class EventStreamReaderImpl implements EventStreamReader {
    @Override
    public void setPaused(boolean paused) {
       this.paused = paused;
+      metrics.paused(paused);
+   }
+
+   /**
+    * Set the name the metrics of this reader are exported with (see {@link ReaderMetrics}). The name is used as label, so it should not be derived from unbounded values like stream names of
+    * aggregates. This defaults to <code>null</code> (the metrics are not exported).
+    *
+    * @param metricsName
+    */
+   public void setMetricsName(final String metricsName) {
+      final ReaderMetrics previous = metrics;
+      this.metrics = metricsName == null ? ReaderMetrics.unexported() : ReaderMetrics.of(metricsName);
+      if (previous != metrics) {
+         previous.remove();
+      }
+   }
+
+   public ReaderMetrics getMetrics() {
+      return metrics;
    }
 
    /*
@@ -23,6 +23,7 @@ public class FileCacheStorage implements HttpCacheStorage, Closeable {
 
    public FileCacheStorage(final CacheConfig config, File cacheDir) {
       this.cacheDir = cacheDir;
+      publishCacheSize();
    }
 
    @Override
@@ -44,7 +45,10 @@ public class FileCacheStorage implements HttpCacheStorage, Closeable {
       final File cache = getCacheFile(url);
       if (cache != null && cache.exists()) {
          synchronized (this) {
-            cache.delete();
+            final long length = cache.length();
+            if (cache.delete()) {
+               HttpCacheMetrics.cacheEntryChanged(cacheDir, -1, -length);
+            }
          }
       }
    }
@@ -62,9 +66,12 @@ public class FileCacheStorage implements HttpCacheStorage, Closeable {
       ObjectOutputStream stream = null;
       try {
          final File cache = getCacheFile(url);
+         final boolean existed = cache.exists();
+         final long previousLength = cache.length();
          stream = new ObjectOutputStream(new FileOutputStream(cache));
          stream.writeObject(entry);
          stream.close();
+         HttpCacheMetrics.cacheEntryChanged(cacheDir, existed ? 0 : 1, cache.length() - previousLength);
       } catch (final Exception e) {
          LOGGER.error("Faled to save cache entry " + entry, e);
       }
@@ -88,6 +95,18 @@ public class FileCacheStorage implements HttpCacheStorage, Closeable {
       return entry;
    }
 
+   private void publishCacheSize() {
+      final File[] files = cacheDir.listFiles(File::isFile);
+      if (files == null) {
+         return;
+      }
+      long bytes = 0;
+      for (final File file : files) {
+         bytes += file.length();
+      }
+      HttpCacheMetrics.cacheSize(cacheDir, files.length, bytes);
+   }
+
    private File getCacheFile(String url) {
       return new File(cacheDir, DigestUtils.sha256Hex(url));
    }
@@ -0,0 +1,131 @@
+package de.qyotta.eventstore.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link CheckpointStore} that keeps one small memory-mapped file per reader in a directory. Storing a checkpoint is a write to the mapped page, so it survives a crash of the process right away.
+ * Forcing the pages to the disk is batched: it happens at most once per sync interval when checkpoints are stored, and on {@link #flush()} and {@link #close()}. After a crash of the machine a reader
+ * may therefore process the events of the last sync interval again.
+ * <p>
+ * Each file holds the event number followed by a check value, a file with a torn or missing write is treated as having no checkpoint.
+ */
+@SuppressWarnings("nls")
+public class FileCheckpointStore implements CheckpointStore, Closeable {
+   private static final Logger LOGGER = LoggerFactory.getLogger(FileCheckpointStore.class.getName());
+   private static final String SUFFIX = ".checkpoint";
+   private static final int FILE_SIZE = 16;
+   private static final long CHECK = 0x5143484b50544c31L;
+   private static final long DEFAULT_SYNC_INTERVAL_MILLIS = 1000;
+
+   private final File directory;
+   private final long syncIntervalMillis;
+   private final Map<String, MappedByteBuffer> checkpoints = new ConcurrentHashMap<>();
+   private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+   private volatile long lastSyncMillis = System.currentTimeMillis();
+
+   public FileCheckpointStore(final File directory) {
+      this(directory, DEFAULT_SYNC_INTERVAL_MILLIS);
+   }
+
+   /**
+    * @param directory
+    *           the directory the checkpoint files are kept in, it is created if it does not exist
+    * @param syncIntervalMillis
+    *           the minimum time between two syncs of stored checkpoints to the disk, 0 syncs on every store
+    */
+   public FileCheckpointStore(final File directory, final long syncIntervalMillis) {
+      if (syncIntervalMillis < 0) {
+         throw new IllegalArgumentException("The sync interval must not be negative but was " + syncIntervalMillis);
+      }
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+         throw new IllegalArgumentException("Could not create checkpoint directory " + directory.getAbsolutePath());
+      }
+      this.directory = directory;
+      this.syncIntervalMillis = syncIntervalMillis;
+   }
+
+   @Override
+   public Long load(final String name) {
+      final MappedByteBuffer buffer = checkpoint(name);
+      synchronized (buffer) {
+         final long eventNumber = buffer.getLong(0);
+         if ((eventNumber ^ CHECK) != buffer.getLong(8)) {
+            return null;
+         }
+         return eventNumber;
+      }
+   }
+
+   @Override
+   public void store(final String name, final long eventNumber) {
+      final MappedByteBuffer buffer = checkpoint(name);
+      synchronized (buffer) {
+         buffer.putLong(0, eventNumber);
+         buffer.putLong(8, eventNumber ^ CHECK);
+      }
+      dirty.add(name);
+      if (System.currentTimeMillis() - lastSyncMillis >= syncIntervalMillis) {
+         flush();
+      }
+   }
+
+   @Override
+   public void flush() {
+      lastSyncMillis = System.currentTimeMillis();
+      for (final String name : dirty) {
+         dirty.remove(name);
+         final MappedByteBuffer buffer = checkpoints.get(name);
+         synchronized (buffer) {
+            buffer.force();
+         }
+      }
+   }
+
+   @Override
+   public void close() {
+      flush();
+      checkpoints.clear();
+   }
+
+   private MappedByteBuffer checkpoint(final String name) {
+      return checkpoints.computeIfAbsent(name, this::map);
+   }
+
+   private MappedByteBuffer map(final String name) {
+      final File file = new File(directory, fileName(name));
+      // the mapping stays valid after the file is closed
+      try (final RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+         if (raf.length() < FILE_SIZE) {
+            raf.setLength(FILE_SIZE);
+         }
+         LOGGER.debug("Mapping checkpoint file " + file.getAbsolutePath());
+         return raf.getChannel()
+               .map(MapMode.READ_WRITE, 0, FILE_SIZE);
+      } catch (final IOException e) {
+         throw new UncheckedIOException("Could not map checkpoint file " + file.getAbsolutePath(), e);
+      }
+   }
+
+   private static String fileName(final String name) {
+      try {
+         return URLEncoder.encode(name, "UTF-8") + SUFFIX;
+      } catch (final UnsupportedEncodingException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+}
@@ -0,0 +1,113 @@
+package de.qyotta.eventstore.utils;
+
+import java.io.File;
+
+import org.apache.http.client.cache.CacheResponseStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+
+/**
+ * Prometheus instrumentation of the response cache. Requests are counted per reader/writer name and {@link CacheResponseStatus}, their latency is split by whether the response was served from the
+ * cache or had to go to the origin server.
+ */
+@SuppressWarnings("nls")
+public final class HttpCacheMetrics {
+   private static final Logger LOGGER = LoggerFactory.getLogger(HttpCacheMetrics.class.getName());
+   private static final String SOURCE_CACHE = "cache";
+   private static final String SOURCE_ORIGIN = "origin";
+   private static final String STATUS_UNCACHED = "UNCACHED";
+   private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+   private static final Counter RESPONSES = Counter.build()
+         .name("de_qyotta_http_cache_responses_total")
+         .help("Responses per cache response status")
+         .labelNames("name", "status")
+         .register();
+
+   private static final Histogram REQUEST_TIME = Histogram.build()
+         .name("de_qyotta_http_cache_request_time")
+         .help("Request time split by responses served from the cache and responses from the origin server")
+         .labelNames("name", "source")
+         .buckets(0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 10)
+         .register();
+
+   private static final Counter SERVED_BYTES = Counter.build()
+         .name("de_qyotta_http_cache_served_bytes_total")
+         .help("Bytes of response bodies served from the cache")
+         .labelNames("name")
+         .register();
+
+   private static final Gauge CACHE_ENTRIES = Gauge.build()
+         .name("de_qyotta_http_cache_entries")
+         .help("Number of entries in the file cache")
+         .labelNames("directory")
+         .register();
+
+   private static final Gauge CACHE_SIZE = Gauge.build()
+         .name("de_qyotta_http_cache_size_bytes")
+         .help("Size of the file cache on disk")
+         .labelNames("directory")
+         .register();
+
+   private HttpCacheMetrics() {
+      //
+   }
+
+   /**
+    * Records a finished request.
+    *
+    * @param name
+    *           the name of the reader or writer that issued the request
+    * @param status
+    *           the cache response status or <code>null</code> if the request was not executed by a caching client
+    * @param startNanos
+    *           {@link System#nanoTime()} before the request was executed
+    * @param contentLength
+    *           the length of the response body or a negative value if unknown
+    */
+   public static void observe(final String name, final CacheResponseStatus status, final long startNanos, final long contentLength) {
+      final double seconds = (System.nanoTime() - startNanos) / NANOS_PER_SECOND;
+      if (status == null) {
+         RESPONSES.labels(name, STATUS_UNCACHED)
+               .inc();
+         REQUEST_TIME.labels(name, SOURCE_ORIGIN)
+               .observe(seconds);
+         return;
+      }
+      RESPONSES.labels(name, status.name())
+            .inc();
+      REQUEST_TIME.labels(name, isServedFromCache(status) ? SOURCE_CACHE : SOURCE_ORIGIN)
+            .observe(seconds);
+      if (contentLength > 0 && (isServedFromCache(status) || status == CacheResponseStatus.VALIDATED)) {
+         SERVED_BYTES.labels(name)
+               .inc(contentLength);
+      }
+      if (LOGGER.isDebugEnabled()) {
+         LOGGER.debug(name + ": " + status + " after " + seconds + "s");
+      }
+   }
+
+   static void cacheSize(final File directory, final long entries, final long bytes) {
+      final String label = directory.getAbsolutePath();
+      CACHE_ENTRIES.labels(label)
+            .set(entries);
+      CACHE_SIZE.labels(label)
+            .set(bytes);
+   }
+
+   static void cacheEntryChanged(final File directory, final long entriesDelta, final long bytesDelta) {
+      final String label = directory.getAbsolutePath();
+      CACHE_ENTRIES.labels(label)
+            .inc(entriesDelta);
+      CACHE_SIZE.labels(label)
+            .inc(bytesDelta);
+   }
+
+   private static boolean isServedFromCache(final CacheResponseStatus status) {
+      return status == CacheResponseStatus.CACHE_HIT || status == CacheResponseStatus.CACHE_MODULE_RESPONSE;
+   }
+}
@@ -1,5 +1,10 @@
 package de.qyotta.eventstore.utils;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
@@ -10,10 +15,14 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.LaxRedirectStrategy;
 import org.apache.http.impl.client.cache.CacheConfig;
 import org.apache.http.impl.client.cache.CachingHttpClientBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import de.qyotta.eventstore.EventStoreSettings;
 
 public class HttpClientFactory {
+   private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientFactory.class.getName());
+   private static final Set<String> LOADED_SNAPSHOTS = ConcurrentHashMap.newKeySet();
 
    public static CloseableHttpClient httpClient(final EventStoreSettings settings) {
       if (settings.isCacheResponses()) {
@@ -23,7 +32,7 @@ public class HttpClientFactory {
    }
 
    private static CloseableHttpClient newClosableHttpClient(EventStoreSettings settings) {
-      return HttpClientBuilder.create()
+      return withConnectionPool(HttpClientBuilder.create(), settings)
 
             .setDefaultRequestConfig(requestConfig(settings))
             .setDefaultCredentialsProvider(credentialsProvider(settings))
@@ -43,8 +52,9 @@ public class HttpClientFactory {
 
       settings.getCacheDirectory()
             .mkdirs();
+      loadCacheSnapshotIfNeeded(settings.getCacheSnapshot(), settings.getCacheDirectory());
 
-      return CachingHttpClientBuilder.create()
+      return withConnectionPool(CachingHttpClientBuilder.create(), settings)
             .setHttpCacheStorage(new FileCacheStorage(cacheConfig, settings.getCacheDirectory()))
             .setCacheConfig(cacheConfig)
             .setDefaultRequestConfig(requestConfig(settings))
@@ -57,6 +67,30 @@ public class HttpClientFactory {
             .build();
    }
 
+   @SuppressWarnings("nls")
+   private static void loadCacheSnapshotIfNeeded(final File snapshot, final File cacheDirectory) {
+      if (snapshot == null || !snapshot.isFile()) {
+         return;
+      }
+      if (!LOADED_SNAPSHOTS.add(snapshot.getAbsolutePath() + "->" + cacheDirectory.getAbsolutePath())) {
+         return;
+      }
+      try {
+         CacheSnapshot.load(snapshot, cacheDirectory, Runtime.getRuntime()
+               .availableProcessors());
+      } catch (final IOException e) {
+         LOGGER.error("Could not load cache snapshot '" + snapshot + "'. Starting with the existing cache.", e);
+      }
+   }
+
+   private static <T extends HttpClientBuilder> T withConnectionPool(final T builder, final EventStoreSettings settings) {
+      if (settings.getMaxConnections() != null) {
+         builder.setMaxConnPerRoute(settings.getMaxConnections());
+         builder.setMaxConnTotal(settings.getMaxConnections());
+      }
+      return builder;
+   }
+
    private static RequestConfig requestConfig(final EventStoreSettings settings) {
       return RequestConfig.custom()
             .setConnectTimeout(settings.getConnectionTimeoutMillis())
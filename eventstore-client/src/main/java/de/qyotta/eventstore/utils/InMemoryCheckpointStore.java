@@ -0,0 +1,27 @@
+package de.qyotta.eventstore.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link CheckpointStore} that keeps the checkpoints in memory only. Useful for tests and for readers that restart within the same process.
+ */
+public class InMemoryCheckpointStore implements CheckpointStore {
+   private final Map<String, Long> checkpoints = new ConcurrentHashMap<>();
+
+   @Override
+   public Long load(final String name) {
+      return checkpoints.get(name);
+   }
+
+   @Override
+   public void store(final String name, final long eventNumber) {
+      checkpoints.put(name, eventNumber);
+   }
+
+   @Override
+   public void flush() {
+      // nothing to do
+   }
+
+}
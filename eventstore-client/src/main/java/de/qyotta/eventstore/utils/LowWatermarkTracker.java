@@ -0,0 +1,61 @@
+package de.qyotta.eventstore.utils;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Tracks events that are processed out of order by their position in the read stream (see {@link EsUtils#positionOf(de.qyotta.eventstore.model.EventResponse)}). Events are registered in stream
+ * order and completed in any order; the low watermark is the position up to which all events are completed, so a reader resumed after it neither skips nor loses events. Events after the low
+ * watermark may be processed twice after a restart.
+ * <p>
+ * A reader that is resumed while events are in flight reads them again. Those events are not registered a second time: events covered by the low watermark are done and events that are still
+ * pending will be completed by their first registration.
+ * </p>
+ */
+public class LowWatermarkTracker {
+   private final TreeSet<Long> pending = new TreeSet<>();
+   private final Set<Long> completed = new HashSet<>();
+   private long lowWatermark = -1;
+
+   /**
+    * Registers the next event in stream order.
+    *
+    * @param position
+    *           the position of the event
+    * @return <code>false</code> if the event is already covered by the low watermark or still pending and must not be processed again
+    */
+   public synchronized boolean register(final long position) {
+      if (position <= lowWatermark || pending.contains(position)) {
+         return false;
+      }
+      pending.add(position);
+      return true;
+   }
+
+   /**
+    * @return <code>true</code> if the low watermark moved
+    */
+   public synchronized boolean complete(final long position) {
+      completed.add(position);
+      final long previous = lowWatermark;
+      while (!pending.isEmpty() && completed.remove(pending.first())) {
+         lowWatermark = pending.pollFirst();
+      }
+      return lowWatermark != previous;
+   }
+
+   /**
+    * @return the position of the last event up to which all events are completed or -1 if there is none
+    */
+   public synchronized long getLowWatermark() {
+      return lowWatermark;
+   }
+
+   /**
+    * @return the number of registered events that are not yet covered by the low watermark
+    */
+   public synchronized int getInFlight() {
+      return pending.size();
+   }
+}
@@ -0,0 +1,251 @@
+package de.qyotta.eventstore.utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import de.qyotta.eventstore.model.Event;
+import de.qyotta.eventstore.model.EventResponse;
+import de.qyotta.eventstore.model.EventStreamReaderException;
+import de.qyotta.eventstore.utils.EventStreamReaderImpl.EventStreamReaderCallback;
+import de.qyotta.eventstore.utils.EventStreamReaderImpl.EventStreamReaderErrorCallback;
+
+/**
+ * An {@link EventStreamReaderCallback} that hands the events to another callback on several worker threads. Every event is routed by its key to one worker, so events with the same key (e.g. of the
+ * same aggregate) are processed in order while events with different keys are processed concurrently. A worker blocks the reader while its queue is full.
+ * <p>
+ * The {@link #getLowWatermark() low watermark} is the position (see {@link EsUtils#positionOf(EventResponse)}) to resume the reader after. If the callback fails for an event the dispatcher stops
+ * accepting events and the low watermark stays in front of the failed event. Given a checkpoint store (see {@link #setCheckpointStore(CheckpointStore, String)}) the dispatcher records the low watermark
+ * as the checkpoint of the reader.
+ * </p>
+ */
+@SuppressWarnings("nls")
+public class ParallelEventDispatcher implements EventStreamReaderCallback, CheckpointingCallback {
+   private static final Logger LOGGER = LoggerFactory.getLogger(ParallelEventDispatcher.class.getName());
+   public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+   /**
+    * Routes events by the stream they were written to.
+    */
+   public static final Function<EventResponse, Object> BY_STREAM_ID = event -> streamIdOf(event.getContent());
+
+   /**
+    * Routes events by the aggregate identifier in their metadata (see {@link Constants#AGGREGATE_ID_KEY}) or by their stream if there is none.
+    */
+   public static final Function<EventResponse, Object> BY_AGGREGATE_ID = event -> {
+      final Object aggregateId = aggregateIdOf(event.getContent()
+            .getMetadata());
+      return aggregateId != null ? aggregateId : streamIdOf(event.getContent());
+   };
+
+   private final Function<EventResponse, Object> keyFunction;
+   private final EventStreamReaderCallback callback;
+   private final Worker[] workers;
+   private final LowWatermarkTracker tracker = new LowWatermarkTracker();
+   private volatile CheckpointStore checkpointStore;
+   private volatile String checkpointName;
+   private EventStreamReaderErrorCallback errorCallback = (errorMessage, cause) -> LOGGER.error(errorMessage, cause);
+   private volatile Throwable failure;
+   private volatile boolean running = true;
+
+   public ParallelEventDispatcher(final int workers, final Function<EventResponse, Object> keyFunction, final EventStreamReaderCallback callback) {
+      this(workers, DEFAULT_QUEUE_CAPACITY, keyFunction, callback);
+   }
+
+   public ParallelEventDispatcher(final int workers, final int queueCapacity, final Function<EventResponse, Object> keyFunction, final EventStreamReaderCallback callback) {
+      if (workers < 1) {
+         throw new IllegalArgumentException("At least one worker is required but got " + workers);
+      }
+      this.keyFunction = keyFunction;
+      this.callback = callback;
+      this.workers = new Worker[workers];
+      for (int i = 0; i < workers; i++) {
+         this.workers[i] = new Worker(i, queueCapacity);
+         this.workers[i].start();
+      }
+   }
+
+   @Override
+   public void readEvent(final EventResponse event) {
+      if (failure != null) {
+         throw new EventStreamReaderException(failure);
+      }
+      if (!running) {
+         throw new IllegalStateException("The dispatcher was shut down.");
+      }
+      final Object key = keyFunction.apply(event);
+      final Worker worker = workers[Math.floorMod(key == null ? 0 : key.hashCode(), workers.length)];
+      final long position = EsUtils.positionOf(event);
+      if (!tracker.register(position)) {
+         // read again after the reader was resumed, the event is processed or still in flight
+         return;
+      }
+      final Task task = new Task(event, position);
+      try {
+         worker.queue.put(task);
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+               .interrupt();
+         throw new EventStreamReaderException(e);
+      }
+   }
+
+   /**
+    * Waits until all dispatched events are processed (or one failed).
+    *
+    * @return <code>true</code> if all events were processed in time
+    */
+   public boolean awaitProcessed(final long timeout, final TimeUnit unit) throws InterruptedException {
+      final long deadline = System.nanoTime() + unit.toNanos(timeout);
+      while (tracker.getInFlight() > 0 && failure == null) {
+         if (System.nanoTime() >= deadline) {
+            return false;
+         }
+         Thread.sleep(1);
+      }
+      return failure == null;
+   }
+
+   /**
+    * Stops the workers after they processed the events in their queues.
+    */
+   public void shutdown() {
+      running = false;
+      // a task behind the remaining events instead of an interrupt, which would also hit the callback of a busy worker
+      for (final Worker worker : workers) {
+         try {
+            worker.queue.put(Task.SHUTDOWN);
+         } catch (final InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            return;
+         }
+      }
+   }
+
+   /**
+    * @return the position of the last event up to which all events were processed or -1 if there is none
+    */
+   public long getLowWatermark() {
+      return tracker.getLowWatermark();
+   }
+
+   /**
+    * Set the store the low watermark is recorded in. Readers whose callback is this dispatcher call this instead of recording checkpoints themselves. This defaults to <code>null</code> (no
+    * checkpoints are recorded).
+    *
+    * @param checkpointStore
+    * @param checkpointName
+    */
+   @Override
+   public void setCheckpointStore(final CheckpointStore checkpointStore, final String checkpointName) {
+      this.checkpointStore = checkpointStore;
+      this.checkpointName = checkpointName;
+   }
+
+   /**
+    * @return the failure that stopped the dispatcher or <code>null</code>
+    */
+   public Throwable getFailure() {
+      return failure;
+   }
+
+   /**
+    * Set the callback that is notified if processing an event fails. By default the failure is logged.
+    *
+    * @param errorCallback
+    */
+   public void setErrorCallback(final EventStreamReaderErrorCallback errorCallback) {
+      this.errorCallback = errorCallback;
+   }
+
+   private synchronized void checkpoint() {
+      // the low watermark is read under the lock so concurrent workers never record an older one last
+      final CheckpointStore store = checkpointStore;
+      if (store != null) {
+         store.store(checkpointName, tracker.getLowWatermark());
+      }
+   }
+
+   private static Object streamIdOf(final Event event) {
+      return event.getEventStreamId() != null ? event.getEventStreamId() : event.getStreamId();
+   }
+
+   private static Object aggregateIdOf(final String metadata) {
+      if (metadata == null || metadata.isEmpty()) {
+         return null;
+      }
+      try {
+         final JsonReader reader = new JsonReader(new StringReader(metadata));
+         reader.setLenient(true);
+         reader.beginObject();
+         while (reader.hasNext()) {
+            if (Constants.AGGREGATE_ID_KEY.equals(reader.nextName()) && reader.peek() != JsonToken.BEGIN_OBJECT && reader.peek() != JsonToken.BEGIN_ARRAY) {
+               return reader.nextString();
+            }
+            reader.skipValue();
+         }
+         return null;
+      } catch (final IOException | IllegalStateException e) {
+         return null;
+      }
+   }
+
+   private static final class Task {
+      private static final Task SHUTDOWN = new Task(null, -1);
+      private final EventResponse event;
+      private final long position;
+
+      private Task(final EventResponse event, final long position) {
+         this.event = event;
+         this.position = position;
+      }
+   }
+
+   private final class Worker extends Thread {
+      private final BlockingQueue<Task> queue;
+
+      private Worker(final int index, final int queueCapacity) {
+         super("parallel-event-dispatcher-" + index);
+         setDaemon(true);
+         this.queue = new ArrayBlockingQueue<>(queueCapacity);
+      }
+
+      @Override
+      public void run() {
+         while (true) {
+            final Task task;
+            try {
+               task = queue.take();
+            } catch (final InterruptedException e) {
+               // only shutdown() stops the worker
+               continue;
+            }
+            if (task == Task.SHUTDOWN) {
+               return;
+            }
+            if (failure != null) {
+               continue;
+            }
+            try {
+               callback.readEvent(task.event);
+               if (tracker.complete(task.position)) {
+                  checkpoint();
+               }
+            } catch (final Throwable t) {
+               failure = t;
+               errorCallback.onError("Error processing event " + task.event.getTitle(), t);
+            }
+         }
+      }
+   }
+}
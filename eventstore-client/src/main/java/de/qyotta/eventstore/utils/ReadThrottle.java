@@ -0,0 +1,117 @@
+package de.qyotta.eventstore.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.qyotta.eventstore.EventStoreSettings;
+
+/**
+ * Limits the rate at which the readers sharing this throttle read from the event store. Every finished read is accounted against an events per second and a bytes per second budget, the reader that
+ * exceeds them sleeps until the budgets allow its next read. Unused budget is kept for at most one second.
+ * <p>
+ * If a latency target is set the throttle also backs off adaptively: every read slower than the target doubles a delay that is added to all following reads, every faster read decreases it by
+ * {@link #BACKOFF_STEP_MILLIS}. Bulk catch ups run at full speed while the event store answers quickly and yield to the write path once it slows down.
+ */
+@SuppressWarnings("nls")
+public class ReadThrottle {
+   private static final Logger LOGGER = LoggerFactory.getLogger(ReadThrottle.class.getName());
+   public static final long BACKOFF_STEP_MILLIS = 10;
+   public static final long MAX_BACKOFF_MILLIS = 2000;
+   private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+   private final double eventsPerSecond;
+   private final double bytesPerSecond;
+   private final long latencyTargetNanos;
+   // the time at which the budgets allow the next read
+   private long nextFreeNanos = System.nanoTime();
+   private long backoffMillis;
+
+   /**
+    * @param eventsPerSecond
+    *           the events per second all readers may read together, 0 or less for no limit
+    * @param bytesPerSecond
+    *           the bytes per second all readers may read together, 0 or less for no limit
+    * @param latencyTargetMillis
+    *           the read latency above which the throttle backs off, 0 or less to not back off
+    */
+   public ReadThrottle(final double eventsPerSecond, final double bytesPerSecond, final long latencyTargetMillis) {
+      this.eventsPerSecond = eventsPerSecond;
+      this.bytesPerSecond = bytesPerSecond;
+      this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMillis);
+   }
+
+   /**
+    * @return the throttle configured in the given settings or <code>null</code> if reads are not throttled
+    */
+   public static ReadThrottle of(final EventStoreSettings settings) {
+      final double events = settings.getReadEventsPerSecond() == null ? 0 : settings.getReadEventsPerSecond();
+      final double bytes = settings.getReadBytesPerSecond() == null ? 0 : settings.getReadBytesPerSecond();
+      final long latencyTarget = settings.getReadLatencyTargetMillis() == null ? 0 : settings.getReadLatencyTargetMillis();
+      if (events <= 0 && bytes <= 0 && latencyTarget <= 0) {
+         return null;
+      }
+      return new ReadThrottle(events, bytes, latencyTarget);
+   }
+
+   /**
+    * Accounts a finished read and blocks until the budgets allow the next read. If the thread is interrupted it returns early with the interrupt flag set.
+    *
+    * @param events
+    *           the number of events read
+    * @param bytes
+    *           the number of bytes read
+    * @param latencyNanos
+    *           the time the read took
+    */
+   public void onRead(final int events, final long bytes, final long latencyNanos) {
+      final long waitNanos = account(events, bytes, latencyNanos);
+      if (waitNanos <= 0) {
+         return;
+      }
+      try {
+         TimeUnit.NANOSECONDS.sleep(waitNanos);
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+               .interrupt();
+      }
+   }
+
+   /**
+    * @return the delay currently added to every read because reads were slower than the latency target
+    */
+   public synchronized long getBackoffMillis() {
+      return backoffMillis;
+   }
+
+   synchronized long account(final int events, final long bytes, final long latencyNanos) {
+      adapt(latencyNanos);
+      double seconds = 0;
+      if (eventsPerSecond > 0) {
+         seconds = Math.max(seconds, events / eventsPerSecond);
+      }
+      if (bytesPerSecond > 0) {
+         seconds = Math.max(seconds, bytes / bytesPerSecond);
+      }
+      final long now = System.nanoTime();
+      final long start = Math.max(nextFreeNanos, now - NANOS_PER_SECOND);
+      nextFreeNanos = start + (long) (seconds * NANOS_PER_SECOND) + TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+      return nextFreeNanos - now;
+   }
+
+   private void adapt(final long latencyNanos) {
+      if (latencyTargetNanos <= 0) {
+         return;
+      }
+      final long previous = backoffMillis;
+      if (latencyNanos > latencyTargetNanos) {
+         backoffMillis = Math.min(MAX_BACKOFF_MILLIS, Math.max(BACKOFF_STEP_MILLIS, backoffMillis * 2));
+      } else {
+         backoffMillis = Math.max(0, backoffMillis - BACKOFF_STEP_MILLIS);
+      }
+      if (previous != backoffMillis && LOGGER.isDebugEnabled()) {
+         LOGGER.debug("Read took " + TimeUnit.NANOSECONDS.toMillis(latencyNanos) + "ms, backing off " + backoffMillis + "ms per read.");
+      }
+   }
+}
@@ -0,0 +1,255 @@
+package de.qyotta.eventstore.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.qyotta.eventstore.model.EventResponse;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+
+/**
+ * Prometheus instrumentation of a reader that consumes a stream: how far it trails the head of the stream in events and seconds, how fast it reads, how large its batches are and how long its callback
+ * takes. One instance exists per reader name, see {@link #of(String)}; the name is the only label, so it should be chosen from a bounded set (e.g. the purpose of the reader) and the metrics of a
+ * reader that is shut down should be {@link #remove() removed}. Metrics created with {@link #unexported()} are only kept for the reader itself.
+ * <p>
+ * The head of the stream is sampled: readers report it whenever they reach the end of the stream and otherwise sample it at most every {@link #HEAD_SAMPLE_INTERVAL_MILLIS} (see
+ * {@link #claimHeadSample()}). The lag in seconds and the rate are updated at most once per {@link #RATE_SAMPLE_INTERVAL_MILLIS}, so the timestamp of an event is only parsed once per interval.
+ */
+@SuppressWarnings("nls")
+public final class ReaderMetrics {
+   private static final Logger LOGGER = LoggerFactory.getLogger(ReaderMetrics.class.getName());
+   public static final long HEAD_SAMPLE_INTERVAL_MILLIS = 10000;
+   public static final long RATE_SAMPLE_INTERVAL_MILLIS = 1000;
+   private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+   private static final Map<String, ReaderMetrics> READERS = new ConcurrentHashMap<>();
+
+   private static final Gauge LAST_EVENT_NUMBER = Gauge.build()
+         .name("de_qyotta_reader_last_event_number")
+         .help("Number of the last event processed by the reader")
+         .labelNames("reader")
+         .register();
+
+   private static final Gauge HEAD_EVENT_NUMBER = Gauge.build()
+         .name("de_qyotta_reader_head_event_number")
+         .help("Last sampled number of the newest event in the stream")
+         .labelNames("reader")
+         .register();
+
+   private static final Gauge LAG_EVENTS = Gauge.build()
+         .name("de_qyotta_reader_lag_events")
+         .help("Number of events the reader trails the sampled head of the stream")
+         .labelNames("reader")
+         .register();
+
+   private static final Gauge LAG_SECONDS = Gauge.build()
+         .name("de_qyotta_reader_lag_seconds")
+         .help("Age of the last event processed by the reader, 0 at the head of the stream")
+         .labelNames("reader")
+         .register();
+
+   private static final Gauge EVENTS_PER_SECOND = Gauge.build()
+         .name("de_qyotta_reader_events_per_second")
+         .help("Events processed per second during the last sample interval")
+         .labelNames("reader")
+         .register();
+
+   private static final Gauge PAUSED = Gauge.build()
+         .name("de_qyotta_reader_paused")
+         .help("1 if the reader is paused")
+         .labelNames("reader")
+         .register();
+
+   private static final Counter EVENTS = Counter.build()
+         .name("de_qyotta_reader_events_total")
+         .help("Events processed by the reader")
+         .labelNames("reader")
+         .register();
+
+   private static final Histogram BATCH_SIZE = Histogram.build()
+         .name("de_qyotta_reader_batch_size")
+         .help("Number of events handed to the reader callback at once")
+         .labelNames("reader")
+         .buckets(1, 10, 100, 500, 1000, 4096)
+         .register();
+
+   private static final Histogram CALLBACK_TIME = Histogram.build()
+         .name("de_qyotta_reader_callback_time")
+         .help("Time the reader callback took per event or batch")
+         .labelNames("reader")
+         .buckets(0.0001, 0.001, 0.01, 0.1, 1, 10)
+         .register();
+
+   private final String name;
+   private final boolean exported;
+   private volatile long lastEventNumber = -1;
+   private volatile long headEventNumber = -1;
+   private final AtomicLong lastHeadSampleMillis = new AtomicLong();
+   private volatile double eventsPerSecond;
+   private long rateSampleMillis = System.currentTimeMillis();
+   private long eventsSinceRateSample;
+
+   private ReaderMetrics(final String name, final boolean exported) {
+      this.name = name;
+      this.exported = exported;
+   }
+
+   /**
+    * @return the exported metrics of the reader with the given name
+    */
+   public static ReaderMetrics of(final String name) {
+      return READERS.computeIfAbsent(name, n -> new ReaderMetrics(n, true));
+   }
+
+   /**
+    * @return metrics of a reader without a name that are not exported
+    */
+   public static ReaderMetrics unexported() {
+      return new ReaderMetrics(null, false);
+   }
+
+   /**
+    * Removes the metrics of this reader from the export. A reader created with the same name afterwards starts with new metrics.
+    */
+   public void remove() {
+      if (!exported || !READERS.remove(name, this)) {
+         return;
+      }
+      LAST_EVENT_NUMBER.remove(name);
+      HEAD_EVENT_NUMBER.remove(name);
+      LAG_EVENTS.remove(name);
+      LAG_SECONDS.remove(name);
+      EVENTS_PER_SECOND.remove(name);
+      PAUSED.remove(name);
+      EVENTS.remove(name);
+      BATCH_SIZE.remove(name);
+      CALLBACK_TIME.remove(name);
+   }
+
+   public boolean isExported() {
+      return exported;
+   }
+
+   public String getName() {
+      return name;
+   }
+
+   /**
+    * Records that the callback processed the given number of events, the last of them being the given event.
+    *
+    * @param last
+    *           the last processed event
+    * @param count
+    *           the number of processed events
+    * @param callbackStartNanos
+    *           {@link System#nanoTime()} before the callback was invoked or a negative value if unknown
+    */
+   public void processed(final EventResponse last, final int count, final long callbackStartNanos) {
+      if (exported) {
+         if (callbackStartNanos >= 0) {
+            CALLBACK_TIME.labels(name)
+                  .observe((System.nanoTime() - callbackStartNanos) / NANOS_PER_SECOND);
+         }
+         BATCH_SIZE.labels(name)
+               .observe(count);
+         EVENTS.labels(name)
+               .inc(count);
+      }
+      lastEventNumber = EsUtils.positionOf(last);
+      set(LAST_EVENT_NUMBER, lastEventNumber);
+      if (headEventNumber < lastEventNumber) {
+         head(lastEventNumber);
+      } else {
+         updateLag();
+      }
+      sampleRate(last, count);
+   }
+
+   /**
+    * Records the number of the newest event in the stream.
+    *
+    * @param eventNumber
+    */
+   public void head(final long eventNumber) {
+      lastHeadSampleMillis.set(System.currentTimeMillis());
+      headEventNumber = eventNumber;
+      set(HEAD_EVENT_NUMBER, eventNumber);
+      updateLag();
+   }
+
+   /**
+    * Records that the reader reached the head of the stream: it does not lag behind.
+    */
+   public void atHead() {
+      if (lastEventNumber >= 0) {
+         head(lastEventNumber);
+      }
+      set(LAG_SECONDS, 0);
+   }
+
+   /**
+    * Claims the next sample of the head of the stream. Only one caller gets to sample the head per {@link #HEAD_SAMPLE_INTERVAL_MILLIS}, so concurrent reads do not sample it at the same time.
+    *
+    * @return <code>true</code> if the head was not sampled for {@link #HEAD_SAMPLE_INTERVAL_MILLIS} and the caller should sample it now
+    */
+   public boolean claimHeadSample() {
+      final long last = lastHeadSampleMillis.get();
+      final long now = System.currentTimeMillis();
+      return now - last >= HEAD_SAMPLE_INTERVAL_MILLIS && lastHeadSampleMillis.compareAndSet(last, now);
+   }
+
+   public void paused(final boolean paused) {
+      set(PAUSED, paused ? 1 : 0);
+   }
+
+   public long getLastEventNumber() {
+      return lastEventNumber;
+   }
+
+   public long getHeadEventNumber() {
+      return headEventNumber;
+   }
+
+   public long getLagEvents() {
+      return Math.max(0, headEventNumber - lastEventNumber);
+   }
+
+   public double getEventsPerSecond() {
+      return eventsPerSecond;
+   }
+
+   private void updateLag() {
+      set(LAG_EVENTS, getLagEvents());
+   }
+
+   private void set(final Gauge gauge, final double value) {
+      if (exported) {
+         gauge.labels(name)
+               .set(value);
+      }
+   }
+
+   private synchronized void sampleRate(final EventResponse last, final int count) {
+      eventsSinceRateSample += count;
+      final long now = System.currentTimeMillis();
+      final long elapsed = now - rateSampleMillis;
+      if (elapsed < RATE_SAMPLE_INTERVAL_MILLIS) {
+         return;
+      }
+      eventsPerSecond = eventsSinceRateSample * 1000.0 / elapsed;
+      set(EVENTS_PER_SECOND, eventsPerSecond);
+      eventsSinceRateSample = 0;
+      rateSampleMillis = now;
+      if (last.getUpdated() != null) {
+         set(LAG_SECONDS, Math.max(0, now - EsUtils.timestampOf(last)
+               .getTime()) / 1000.0);
+      }
+      if (LOGGER.isDebugEnabled()) {
+         LOGGER.debug(name + ": at " + lastEventNumber + " of " + headEventNumber + ", " + eventsPerSecond + " events/s");
+      }
+   }
+}
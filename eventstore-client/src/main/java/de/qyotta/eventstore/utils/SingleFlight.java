@@ -0,0 +1,129 @@
+package de.qyotta.eventstore.utils;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces concurrent loads of the same key: while a load is in flight every other caller asking for the same key waits for it and gets its result instead of loading again. A successful result can
+ * additionally be reused for a short window after it was loaded, which covers readers polling the same head page. Failures are never reused.
+ * <p>
+ * All callers share the same result object, so results have to be treated as read-only.
+ *
+ * @param <K>
+ *           the type of the keys, e.g. request uris
+ * @param <V>
+ *           the type of the results
+ */
+public class SingleFlight<K, V> {
+   private static final int SWEEP_EVERY = 256;
+
+   private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+   private final long reuseNanos;
+   private final AtomicInteger calls = new AtomicInteger();
+
+   private static final class Flight<V> {
+      private final CompletableFuture<V> result = new CompletableFuture<>();
+      private volatile long completedNanos;
+
+      private boolean isUsable(final long now, final long reuseNanos) {
+         if (!result.isDone()) {
+            return true;
+         }
+         return !result.isCompletedExceptionally() && now - completedNanos <= reuseNanos;
+      }
+   }
+
+   /**
+    * Creates a {@link SingleFlight} that only coalesces loads that are in flight at the same time.
+    */
+   public SingleFlight() {
+      this(0);
+   }
+
+   /**
+    * @param reuseMillis
+    *           how long a successful result is handed to further callers after it was loaded, 0 to only coalesce loads in flight
+    */
+   public SingleFlight(final long reuseMillis) {
+      if (reuseMillis < 0) {
+         throw new IllegalArgumentException("The reuse window must not be negative but was " + reuseMillis); //$NON-NLS-1$
+      }
+      this.reuseNanos = TimeUnit.MILLISECONDS.toNanos(reuseMillis);
+   }
+
+   /**
+    * Returns the result of the load of the given key that is in flight or was finished within the reuse window, or loads it with the given loader.
+    *
+    * @param key
+    * @param loader
+    * @return the result
+    * @throws Exception
+    *            the exception the loader threw, also for the callers that waited for it
+    */
+   public V execute(final K key, final Callable<V> loader) throws Exception {
+      if (calls.incrementAndGet() % SWEEP_EVERY == 0) {
+         sweep();
+      }
+      while (true) {
+         final Flight<V> flight = new Flight<>();
+         final Flight<V> existing = flights.putIfAbsent(key, flight);
+         if (existing == null) {
+            return load(key, flight, loader);
+         }
+         if (existing.isUsable(System.nanoTime(), reuseNanos)) {
+            return await(existing);
+         }
+         flights.remove(key, existing);
+      }
+   }
+
+   /**
+    * @return the number of loads that are in flight or whose results may still be reused
+    */
+   public int size() {
+      return flights.size();
+   }
+
+   private V load(final K key, final Flight<V> flight, final Callable<V> loader) throws Exception {
+      try {
+         final V value = loader.call();
+         flight.completedNanos = System.nanoTime();
+         flight.result.complete(value);
+         if (reuseNanos == 0) {
+            flights.remove(key, flight);
+         }
+         return value;
+      } catch (final Exception | Error e) {
+         flights.remove(key, flight);
+         flight.result.completeExceptionally(e);
+         throw e;
+      }
+   }
+
+   private V await(final Flight<V> flight) throws Exception {
+      try {
+         return flight.result.get();
+      } catch (final ExecutionException e) {
+         final Throwable cause = e.getCause();
+         if (cause instanceof Exception) {
+            throw (Exception) cause;
+         }
+         if (cause instanceof Error) {
+            throw (Error) cause;
+         }
+         throw e;
+      }
+   }
+
+   private void sweep() {
+      final long now = System.nanoTime();
+      flights.entrySet()
+            .removeIf(e -> !e.getValue()
+                  .isUsable(now, reuseNanos));
+   }
+}
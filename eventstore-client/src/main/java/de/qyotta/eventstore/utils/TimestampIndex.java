@@ -0,0 +1,215 @@
+package de.qyotta.eventstore.utils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.qyotta.eventstore.communication.ESContext;
+import de.qyotta.eventstore.model.Entry;
+import de.qyotta.eventstore.model.EventResponse;
+
+/**
+ * A sparse index from timestamps to event numbers of one stream. Every {@link #getSpacing() spacing} events the timestamp of an event is recorded, so a reader started at a timestamp only has to look
+ * at the events between two index entries. The index is built incrementally while readers consume the stream (see {@link EventStreamReader#setTimestampIndex(TimestampIndex)}) and can be persisted
+ * in a local file that new entries are appended to.
+ * <p>
+ * {@link #firstEventNumberAfter(String, ESContext, TimestampIndex, Date)} narrows the search with the index and binary searches the remaining range with single event slice reads. Without an index
+ * the whole stream is searched, which still only takes a logarithmic number of reads. Both rely on the timestamps of a stream being ordered like its events.
+ */
+@SuppressWarnings("nls")
+public class TimestampIndex {
+   private static final Logger LOGGER = LoggerFactory.getLogger(TimestampIndex.class.getName());
+   public static final int DEFAULT_SPACING = 1000;
+   private static final int ENTRY_SIZE = 16;
+
+   private final int spacing;
+   private final File file;
+   // timestamp millis -> event number
+   private final TreeMap<Long, Long> entries = new TreeMap<>();
+   private long nextEventNumber;
+
+   /**
+    * Creates an index that is kept in memory only.
+    */
+   public TimestampIndex(final int spacing) {
+      this(spacing, null);
+   }
+
+   /**
+    * Creates an index that is persisted in the given file. Entries already in the file are loaded.
+    *
+    * @param spacing
+    *           the number of events between two index entries
+    * @param file
+    *           the file the index is persisted in or <code>null</code> to keep the index in memory
+    */
+   public TimestampIndex(final int spacing, final File file) {
+      if (spacing < 1) {
+         throw new IllegalArgumentException("The spacing of the index has to be at least 1 but was " + spacing);
+      }
+      this.spacing = spacing;
+      this.file = file;
+      if (file != null && file.isFile()) {
+         load();
+      }
+   }
+
+   public int getSpacing() {
+      return spacing;
+   }
+
+   /**
+    * @return the number of entries in this index
+    */
+   public synchronized int size() {
+      return entries.size();
+   }
+
+   /**
+    * Records the timestamp of the given event if it is at least {@link #getSpacing() spacing} events after the last recorded one. The timestamp is only parsed in this case.
+    *
+    * @param event
+    */
+   public void record(final EventResponse event) {
+      final long eventNumber = EsUtils.positionOf(event);
+      synchronized (this) {
+         if (eventNumber < nextEventNumber) {
+            return;
+         }
+      }
+      record(eventNumber, EsUtils.timestampOf(event)
+            .getTime());
+   }
+
+   /**
+    * Records the timestamp of the given event number if it is at least {@link #getSpacing() spacing} events after the last recorded one.
+    *
+    * @param eventNumber
+    * @param timestampMillis
+    */
+   public synchronized void record(final long eventNumber, final long timestampMillis) {
+      if (eventNumber < nextEventNumber) {
+         return;
+      }
+      entries.put(timestampMillis, eventNumber);
+      nextEventNumber = eventNumber + spacing;
+      if (file != null) {
+         append(eventNumber, timestampMillis);
+      }
+   }
+
+   /**
+    * @return the number of the last indexed event with a timestamp before or at the given timestamp, or <code>null</code> if there is none
+    */
+   public synchronized Long floorEventNumber(final long timestampMillis) {
+      final Map.Entry<Long, Long> entry = entries.floorEntry(timestampMillis);
+      return entry == null ? null : entry.getValue();
+   }
+
+   /**
+    * @return the number of the first indexed event with a timestamp after the given timestamp, or <code>null</code> if there is none
+    */
+   public synchronized Long higherEventNumber(final long timestampMillis) {
+      final Map.Entry<Long, Long> entry = entries.higherEntry(timestampMillis);
+      return entry == null ? null : entry.getValue();
+   }
+
+   /**
+    * Finds the number of the first event of the stream with a timestamp after the given timestamp. If there is no such event this is the number the next event appended to the stream will get.
+    *
+    * @param streamUrl
+    * @param context
+    * @param index
+    *           an index of the stream or <code>null</code> to search the whole stream
+    * @param timestamp
+    */
+   public static long firstEventNumberAfter(final String streamUrl, final ESContext context, final TimestampIndex index, final Date timestamp) {
+      final long timestampMillis = timestamp.getTime();
+      long low = 0;
+      long high = -1;
+      if (index != null) {
+         final Long floor = index.floorEventNumber(timestampMillis);
+         final Long higher = index.higherEventNumber(timestampMillis);
+         low = floor == null ? 0 : floor + 1;
+         high = higher == null ? -1 : higher;
+      }
+      if (high < 0) {
+         final Entry head = firstEntryOf(context, streamUrl + "/head/backward/1");
+         if (head == null) {
+            return 0;
+         }
+         high = EsUtils.positionOf(head) + 1;
+      }
+      int reads = 0;
+      // the first event after the timestamp is in [low, high]
+      while (low < high) {
+         final long middle = (low + high) >>> 1;
+         final Entry entry = firstEntryOf(context, streamUrl + "/" + middle + "/forward/1");
+         reads++;
+         if (entry == null || EsUtils.timestampOf(entry)
+               .getTime() > timestampMillis) {
+            high = middle;
+         } else {
+            low = EsUtils.positionOf(entry) + 1;
+         }
+      }
+      LOGGER.debug("Found event number " + low + " after " + timestamp + " in " + streamUrl + " with " + reads + " reads.");
+      return low;
+   }
+
+   private static Entry firstEntryOf(final ESContext context, final String url) {
+      final List<Entry> entries = context.getReader()
+            .readStreamWithBody(url)
+            .getEntries();
+      return entries.isEmpty() ? null : entries.get(0);
+   }
+
+   private void load() {
+      try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+         while (true) {
+            final long eventNumber = in.readLong();
+            final long timestampMillis = in.readLong();
+            entries.put(timestampMillis, eventNumber);
+            nextEventNumber = Math.max(nextEventNumber, eventNumber + spacing);
+         }
+      } catch (final EOFException e) {
+         // end of the index
+      } catch (final IOException e) {
+         throw new UncheckedIOException("Could not load timestamp index " + file.getAbsolutePath(), e);
+      }
+      final long length = file.length();
+      if (length % ENTRY_SIZE != 0) {
+         // drop a partially written last entry so new entries stay aligned
+         try (final RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length - length % ENTRY_SIZE);
+         } catch (final IOException e) {
+            throw new UncheckedIOException("Could not repair timestamp index " + file.getAbsolutePath(), e);
+         }
+      }
+      LOGGER.debug("Loaded " + entries.size() + " entries from timestamp index " + file.getAbsolutePath());
+   }
+
+   private void append(final long eventNumber, final long timestampMillis) {
+      try (final DataOutputStream out = new DataOutputStream(new FileOutputStream(file, true))) {
+         out.writeLong(eventNumber);
+         out.writeLong(timestampMillis);
+      } catch (final IOException e) {
+         throw new UncheckedIOException("Could not write timestamp index " + file.getAbsolutePath(), e);
+      }
+   }
+
+}
@@ -6,7 +6,12 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 
@@ -20,6 +25,7 @@ import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.GzipDecompressingEntity;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
@@ -30,7 +36,13 @@ import org.slf4j.LoggerFactory;
 import de.qyotta.eventstore.model.Entry;
 import de.qyotta.eventstore.model.Event;
 import de.qyotta.eventstore.model.EventResponse;
+import de.qyotta.eventstore.utils.CountingInputStream;
 import de.qyotta.eventstore.utils.DefaultConnectionKeepAliveStrategy;
+import de.qyotta.eventstore.utils.EsUtils;
+import de.qyotta.eventstore.utils.ReadThrottle;
+import de.qyotta.eventstore.utils.ReaderMetrics;
+import de.qyotta.eventstore.utils.SingleFlight;
+import io.prometheus.client.Counter;
 import io.prometheus.client.Histogram;
 import io.prometheus.client.Histogram.Timer;
 
@@ -56,8 +68,16 @@ public final class ESHttpEventStore {
          .buckets(0.01, 0.100, 1, 10)
          .register();
 
+   private static final Counter HEDGED_REQUESTS = Counter.build()
+         .name("de_qyotta_http_reader_hedged_requests_total")
+         .help("Reads that were sent a second time because they were not answered within the hedge delay, by the request that answered first")
+         .labelNames("identifier", "hostAndPort", "winner")
+         .register();
+
    private static final Logger LOG = LoggerFactory.getLogger(ESHttpEventStore.class);
 
+   private static final int MAX_KNOWN_HEADS = 1024;
+
    private final ThreadFactory threadFactory;
 
    private final URL url;
@@ -79,6 +99,19 @@ public final class ESHttpEventStore {
    private final int connectTimeout;
    private final int connectionRequestTimeout;
    private final int socketTimeout;
+   private volatile ReadThrottle readThrottle;
+   private volatile HedgingPolicy hedgingPolicy;
+   private volatile SingleFlight<URI, List<Entry>> feeds = new SingleFlight<>();
+   private final Map<String, ReaderMetrics> readerMetrics = new ConcurrentHashMap<>();
+   // the last known head of recently read streams, see isBeforeKnownHead
+   private final Map<String, Long> knownHeads = Collections.synchronizedMap(new LinkedHashMap<String, Long>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+         return size() > MAX_KNOWN_HEADS;
+      }
+   });
 
    public ESHttpEventStore(final URL url, final CredentialsProvider credentialsProvider) {
       this("", null, url, credentialsProvider, DEFAUT_LONG_POLL, DEFAULT_CONNECT_TIMEOUT, DEFAULT_CONNECTION_REQUEST_TIMEOUT, DEFAULT_SOCKET_TIMEOUT);
@@ -109,6 +142,36 @@ public final class ESHttpEventStore {
       this.host = host;
    }
 
+   /**
+    * Set the throttle forward slice reads are accounted against. Share one throttle between several stores to limit their reads together. This defaults to <code>null</code> (reads are not
+    * throttled).
+    *
+    * @param readThrottle
+    */
+   public void setReadThrottle(final ReadThrottle readThrottle) {
+      this.readThrottle = readThrottle;
+   }
+
+   /**
+    * Set the policy that decides when slice and event reads are sent a second time. The first answer is used and the other request is cancelled. Forward reads at or after the known head of a
+    * stream long poll and are never hedged. This defaults to <code>null</code> (reads are not hedged).
+    *
+    * @param hedgingPolicy
+    */
+   public void setHedgingPolicy(final HedgingPolicy hedgingPolicy) {
+      this.hedgingPolicy = hedgingPolicy;
+   }
+
+   /**
+    * Set how long the entries of a feed are handed to further reads of the same uri instead of reading it again. Concurrent reads of the same uri are always coalesced into one request. This defaults
+    * to 0.
+    *
+    * @param feedReuseMillis
+    */
+   public void setFeedReuseMillis(final long feedReuseMillis) {
+      this.feeds = new SingleFlight<>(feedReuseMillis);
+   }
+
    private void open() {
       if (open) {
          // Ignore
@@ -140,6 +203,10 @@ public final class ESHttpEventStore {
          throw new RuntimeException("Cannot close http client", ex);
       }
       this.open = false;
+      for (final ReaderMetrics metrics : readerMetrics.values()) {
+         metrics.remove();
+      }
+      readerMetrics.clear();
    }
 
    public EventResponse readEvent(final String streamName, final int eventNumber) throws ReadFailedException {
@@ -168,7 +235,7 @@ public final class ESHttpEventStore {
       try {
          final URI uri = new URIBuilder(url.toURI()).setPath("/streams/" + streamName + "/head/backward/1")
                .build();
-         final List<Entry> entries = readFeed(streamName, uri, msg, "");
+         final List<Entry> entries = readFeed(streamName, uri, msg, "", null, true);
          final Entry entry = entries.get(0);
 
          return enrich(readEvent(new URI(entry.getId()), ""), entry);
@@ -190,13 +257,101 @@ public final class ESHttpEventStore {
          final boolean reverseOrder = false;
          final boolean forward = true;
 
-         final List<Entry> entries = readFeed(streamName, uri, msg, traceString);
-         return readEvents(forward, start, entries, reverseOrder);
+         final List<Entry> entries = readFeed(streamName, uri, msg, traceString, readThrottle, isBeforeKnownHead(streamName, start));
+         final StreamEventsSlice slice = readEvents(forward, start, entries, reverseOrder);
+         recordHead(streamName, slice);
+         recordProgress(streamName, slice);
+         return slice;
       } catch (final URISyntaxException ex) {
          throw new ReadFailedException(streamName, msg, ex);
       }
    }
 
+   /**
+    * A forward read at or after the head of the stream long polls (see <code>ES-LongPoll</code>): it is only answered when new events arrive or the long poll ends. Such reads are neither hedged nor
+    * recorded with the hedging policy, a duplicate would not be answered sooner and their latency says nothing about the node. The head is unknown until a slice of the stream was read.
+    */
+   private boolean isBeforeKnownHead(final String streamName, final long start) {
+      final Long head = knownHeads.get(streamName);
+      return head != null && start <= head;
+   }
+
+   private void recordHead(final String streamName, final StreamEventsSlice slice) {
+      final long last = slice.getNextEventNumber() - 1;
+      if (slice.isEndOfStream()) {
+         knownHeads.put(streamName, last);
+      } else {
+         knownHeads.merge(streamName, last, Math::max);
+      }
+   }
+
+   /**
+    * Forward reads of a stream are only measured once its metrics were requested, so reads of arbitrary (e.g. aggregate) streams do not create metrics. They are removed again when the store is
+    * closed.
+    *
+    * @return the metrics of forward reads of the given stream, they are exported as reader <code>identifier/streamName</code>
+    */
+   public ReaderMetrics metricsOf(final String streamName) {
+      return readerMetrics.computeIfAbsent(streamName, s -> ReaderMetrics.of(identifier + "/" + s));
+   }
+
+   private void recordProgress(final String streamName, final StreamEventsSlice slice) throws URISyntaxException {
+      final ReaderMetrics metrics = readerMetrics.get(streamName);
+      if (metrics == null) {
+         return;
+      }
+      final List<EventResponse> events = slice.getEvents();
+      if (!events.isEmpty()) {
+         metrics.processed(events.get(events.size() - 1), events.size(), -1);
+      }
+      if (slice.isEndOfStream()) {
+         metrics.atHead();
+         return;
+      }
+      if (metrics.claimHeadSample()) {
+         sampleHead(streamName, metrics);
+      }
+   }
+
+   /**
+    * Reads the head of the stream in the background, the slice read that triggered the sample does not wait for it.
+    */
+   private void sampleHead(final String streamName, final ReaderMetrics metrics) throws URISyntaxException {
+      final URI uri = new URIBuilder(url.toURI()).setPath("/streams/" + streamName + "/head/backward/1")
+            .build();
+      httpclient.execute(createHttpGet(uri), new FutureCallback<HttpResponse>() {
+         @Override
+         public void completed(final HttpResponse response) {
+            final HttpEntity entity = decoded(response.getEntity());
+            try {
+               if (response.getStatusLine()
+                     .getStatusCode() == 200) {
+                  try (final InputStream in = entity.getContent()) {
+                     final List<Entry> head = atomFeedReader.readAtomFeed(in);
+                     if (!head.isEmpty()) {
+                        metrics.head(EsUtils.positionOf(head.get(0)));
+                     }
+                  }
+               }
+            } catch (final IOException | RuntimeException e) {
+               LOG.debug("Could not sample the head of " + streamName, e);
+            } finally {
+               EntityUtils.consumeQuietly(entity);
+            }
+         }
+
+         @Override
+         public void failed(final Exception ex) {
+            LOG.debug("Could not sample the head of " + streamName, ex);
+         }
+
+         @Override
+         public void cancelled() {
+            // the store was closed
+         }
+      });
+   }
+
    public StreamEventsSlice readEventsBackward(final String streamName, final StreamEventsSlice slice, final int pCount, final String traceString) throws ReadFailedException {
       this.count = pCount;
       if (slice == null) {
@@ -215,43 +370,47 @@ public final class ESHttpEventStore {
          final boolean reverseOrder = true;
          final boolean forward = false;
 
-         final List<Entry> entries = readFeed(streamName, uri, msg, traceString);
+         final List<Entry> entries = readFeed(streamName, uri, msg, traceString, null, true);
          return readEvents(forward, start, entries, reverseOrder);
       } catch (final URISyntaxException ex) {
          throw new ReadFailedException(streamName, msg, ex);
       }
    }
 
-   private List<Entry> readFeed(final String streamName, final URI uri, final String msg, final String traceString) throws ReadFailedException {
+   private List<Entry> readFeed(final String streamName, final URI uri, final String msg, final String traceString, final ReadThrottle throttle, final boolean hedged)
+         throws ReadFailedException {
+      try {
+         return feeds.execute(uri, () -> fetchFeed(streamName, uri, msg, traceString, throttle, hedged));
+      } catch (final ReadFailedException e) {
+         throw e;
+      } catch (final Exception e) {
+         throw new ReadFailedException(streamName, msg, e);
+      }
+   }
+
+   private List<Entry> fetchFeed(final String streamName, final URI uri, final String msg, final String traceString, final ReadThrottle throttle, final boolean hedged)
+         throws ReadFailedException {
       final Timer startTimer = SLICE_READ_HISTOGRAM.labels(identifier, hostAndPort)
             .startTimer();
+      final long startNanos = System.nanoTime();
+      int feedEvents = -1;
+      long feedBytes = 0;
 
       final HttpGet get = createHttpGet(uri);
       try {
-         final Future<HttpResponse> future = httpclient.execute(get, null);
-         final HttpResponse response = future.get();
+         final HttpResponse response = execute(uri, get, hedged);
 
          final StatusLine statusLine = response.getStatusLine();
          if (statusLine.getStatusCode() == 200) {
-            HttpEntity entity = response.getEntity();
-
-            final Header contentEncodingHeader = entity.getContentEncoding();
-            if (contentEncodingHeader != null) {
-               final HeaderElement[] encodings = contentEncodingHeader.getElements();
-               for (final HeaderElement encoding : encodings) {
-                  if (encoding.getName()
-                        .equalsIgnoreCase("gzip")) {
-                     entity = new GzipDecompressingEntity(entity);
-                     break;
-                  }
-               }
-            }
+            final HttpEntity entity = decoded(response.getEntity());
 
             try {
-               final InputStream in = entity.getContent();
+               final CountingInputStream in = new CountingInputStream(entity.getContent());
                try {
                   final List<Entry> entries = atomFeedReader.readAtomFeed(in);
                   LOG.info("[" + traceString + "] found " + entries.size() + " in feed for: " + uri.toString());
+                  feedEvents = entries.size();
+                  feedBytes = in.getCount();
                   return entries;
                } finally {
                   in.close();
@@ -277,6 +436,10 @@ public final class ESHttpEventStore {
       } finally {
          startTimer.observeDuration();
          get.reset();
+         if (throttle != null && feedEvents >= 0) {
+            // only slow the reader down after the slice read was timed
+            throttle.onRead(feedEvents, feedBytes, System.nanoTime() - startNanos);
+         }
       }
    }
 
@@ -316,30 +479,7 @@ public final class ESHttpEventStore {
    }
 
    private EventResponse doit(final Entry entry) {
-      return EventResponse.builder()
-            .author(entry.getAuthor())
-            .summary(entry.getSummary())
-            .id(entry.getId())
-            .title(entry.getTitle())
-            .updated(entry.getUpdated())
-            .content(Event.builder()
-                  .author(entry.getAuthor())
-                  .data(entry.getData())
-                  .eventId(entry.getEventId())
-                  .eventNumber(entry.getEventNumber())
-                  .eventStreamId(entry.getStreamId())
-                  .eventType(entry.getEventType())
-                  .id(entry.getId())
-                  .isLinkMetaData(entry.getIsLinkMetaData())
-                  .metadata(entry.getMetaData())
-                  .positionEventNumber(entry.getPositionEventNumber())
-                  .positionStreamId(entry.getPositionStreamId())
-                  .streamId(entry.getStreamId())
-                  .summary(entry.getSummary())
-                  .title(entry.getTitle())
-                  .updated(entry.getUpdated())
-                  .build())
-            .build();
+      return EsUtils.eventResponseOf(entry);
    }
 
    private EventResponse enrich(final EventResponse event, final Entry entry) {
@@ -371,23 +511,10 @@ public final class ESHttpEventStore {
 
       final HttpGet get = createHttpGet(uri);
       try {
-         final Future<HttpResponse> future = httpclient.execute(get, null);
-         final HttpResponse response = future.get();
+         final HttpResponse response = execute(uri, get, true);
          final StatusLine statusLine = response.getStatusLine();
          if (statusLine.getStatusCode() == 200) {
-            HttpEntity entity = response.getEntity();
-
-            final Header contentEncodingHeader = entity.getContentEncoding();
-            if (contentEncodingHeader != null) {
-               final HeaderElement[] encodings = contentEncodingHeader.getElements();
-               for (final HeaderElement encoding : encodings) {
-                  if (encoding.getName()
-                        .equalsIgnoreCase("gzip")) {
-                     entity = new GzipDecompressingEntity(entity);
-                     break;
-                  }
-               }
-            }
+            final HttpEntity entity = decoded(response.getEntity());
 
             try {
                final InputStream in = entity.getContent();
@@ -419,6 +546,40 @@ public final class ESHttpEventStore {
 
    }
 
+   /**
+    * Sends the request and, if hedging is allowed for it, a duplicate once it was not answered within the delay of the hedging policy or failed.
+    */
+   private HttpResponse execute(final URI uri, final HttpGet get, final boolean hedged) throws InterruptedException, ExecutionException {
+      final HedgingPolicy policy = hedgingPolicy;
+      if (policy == null || !hedged) {
+         return httpclient.execute(get, null)
+               .get();
+      }
+      final Hedge hedge = new Hedge(policy);
+      final Future<HttpResponse> primary = httpclient.execute(get, hedge.callback(true));
+      Future<HttpResponse> secondary = null;
+      try {
+         if (hedge.awaitPrimary(policy.getDelayMillis())) {
+            return hedge.get();
+         }
+         try {
+            secondary = httpclient.execute(createHttpGet(policy.hedgeUri(uri)), hedge.callback(false));
+         } catch (final URISyntaxException | RuntimeException e) {
+            hedge.duplicateNotSent(e);
+         }
+         final HttpResponse response = hedge.get();
+         HEDGED_REQUESTS.labels(identifier, hostAndPort, hedge.isPrimary(response) ? "primary" : "hedge")
+               .inc();
+         return response;
+      } finally {
+         // cancels the request that did not answer first, the other one is done already
+         primary.cancel(true);
+         if (secondary != null) {
+            secondary.cancel(true);
+         }
+      }
+   }
+
    private String streamName(final URI uri) {
       // http://127.0.0.1:2113/streams/append_diff_and_read_stream/2
       final String myurl = uri.toString();
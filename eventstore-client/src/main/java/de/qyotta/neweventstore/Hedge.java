@@ -0,0 +1,104 @@
+package de.qyotta.neweventstore;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Completes with the first answer of a read and its duplicate, or with the failure of the last one that failed. The answer that comes second is consumed so its connection is released. The latencies
+ * of both requests are recorded with the {@link HedgingPolicy}, a primary request that is cancelled because its duplicate answered first with the time until it was cancelled.
+ */
+final class Hedge {
+   private final CompletableFuture<HttpResponse> winner = new CompletableFuture<>();
+   private final CompletableFuture<Void> primaryDone = new CompletableFuture<>();
+   // the duplicate counts from the start, so a primary that fails before the duplicate is sent does not fail the read
+   private final AtomicInteger outstanding = new AtomicInteger(2);
+   private final HedgingPolicy policy;
+   private volatile HttpResponse primaryResponse;
+
+   Hedge(final HedgingPolicy policy) {
+      this.policy = policy;
+   }
+
+   /**
+    * @return the callback of the primary request or, if primary is <code>false</code>, of the duplicate, which has to be created right before the duplicate is sent
+    */
+   FutureCallback<HttpResponse> callback(final boolean primary) {
+      final long startNanos = System.nanoTime();
+      return new FutureCallback<HttpResponse>() {
+         @Override
+         public void completed(final HttpResponse response) {
+            policy.record(System.nanoTime() - startNanos);
+            if (primary) {
+               primaryResponse = response;
+               primaryDone.complete(null);
+            }
+            if (!winner.complete(response)) {
+               EntityUtils.consumeQuietly(response.getEntity());
+            }
+         }
+
+         @Override
+         public void failed(final Exception ex) {
+            if (primary) {
+               primaryDone.complete(null);
+            }
+            if (outstanding.decrementAndGet() == 0) {
+               winner.completeExceptionally(ex);
+            }
+         }
+
+         @Override
+         public void cancelled() {
+            if (primary) {
+               // the primary was at least this slow, leaving it out would make the delay too short
+               policy.record(System.nanoTime() - startNanos);
+            }
+            failed(new CancellationException());
+         }
+      };
+   }
+
+   /**
+    * Waits until the primary request was answered or failed.
+    *
+    * @return <code>true</code> if the primary request answered within the given time, <code>false</code> if it failed or is still running and the duplicate should be sent
+    */
+   boolean awaitPrimary(final long timeoutMillis) throws InterruptedException {
+      try {
+         primaryDone.get(timeoutMillis, TimeUnit.MILLISECONDS);
+      } catch (final TimeoutException | ExecutionException e) {
+         return false;
+      }
+      return winner.isDone() && !winner.isCompletedExceptionally();
+   }
+
+   /**
+    * @return the first answer
+    * @throws ExecutionException
+    *            with the failure of the last request if both failed
+    */
+   HttpResponse get() throws InterruptedException, ExecutionException {
+      return winner.get();
+   }
+
+   boolean isPrimary(final HttpResponse response) {
+      return response == primaryResponse;
+   }
+
+   /**
+    * Fails the duplicate if it could not be sent.
+    */
+   void duplicateNotSent(final Exception cause) {
+      if (outstanding.decrementAndGet() == 0) {
+         winner.completeExceptionally(cause);
+      }
+   }
+}
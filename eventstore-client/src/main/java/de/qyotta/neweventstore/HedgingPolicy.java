@@ -0,0 +1,117 @@
+package de.qyotta.neweventstore;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides when {@link ESHttpEventStore} sends a duplicate of a read that has not been answered yet and where to send it. The delay is the configured percentile of the latencies of recent reads, so
+ * only the slowest reads are hedged. Duplicates go to the configured hosts in turn, or to the same node if no hosts are configured.
+ */
+@SuppressWarnings("nls")
+public class HedgingPolicy {
+   private static final int SAMPLES = 256;
+   private static final int RECOMPUTE_EVERY = 16;
+   private static final double DEFAULT_PERCENTILE = 0.95;
+   private static final long DEFAULT_MIN_DELAY_MILLIS = 5;
+   private static final long DEFAULT_MAX_DELAY_MILLIS = 5000;
+   private static final long DEFAULT_INITIAL_DELAY_MILLIS = 100;
+
+   private final List<URL> hedgeHosts;
+   private final AtomicInteger nextHost = new AtomicInteger();
+   private final long[] samples = new long[SAMPLES];
+   private int sampleCount;
+   private int nextSample;
+   private double percentile = DEFAULT_PERCENTILE;
+   private long minDelayMillis = DEFAULT_MIN_DELAY_MILLIS;
+   private long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+   private volatile long delayMillis = DEFAULT_INITIAL_DELAY_MILLIS;
+
+   /**
+    * Creates a policy that sends duplicates to the same node.
+    */
+   public HedgingPolicy() {
+      this(Collections.emptyList());
+   }
+
+   /**
+    * Creates a policy that sends duplicates to the given hosts in turn. Only scheme, host and port of the urls are used.
+    *
+    * @param hedgeHosts
+    */
+   public HedgingPolicy(final List<URL> hedgeHosts) {
+      this.hedgeHosts = new ArrayList<>(hedgeHosts);
+   }
+
+   /**
+    * Set the percentile of recent read latencies after which a duplicate is sent. This defaults to 0.95.
+    *
+    * @param percentile
+    */
+   public synchronized void setPercentile(final double percentile) {
+      if (percentile <= 0 || percentile >= 1) {
+         throw new IllegalArgumentException("The percentile has to be between 0 and 1 (exclusive) but was " + percentile);
+      }
+      this.percentile = percentile;
+   }
+
+   /**
+    * Set the minimum delay before a duplicate is sent, so fast reads never double the load. This defaults to 5 milliseconds.
+    *
+    * @param minDelayMillis
+    */
+   public synchronized void setMinDelayMillis(final long minDelayMillis) {
+      this.minDelayMillis = minDelayMillis;
+   }
+
+   /**
+    * Set the maximum delay before a duplicate is sent. This defaults to 5000 milliseconds.
+    *
+    * @param maxDelayMillis
+    */
+   public synchronized void setMaxDelayMillis(final long maxDelayMillis) {
+      this.maxDelayMillis = maxDelayMillis;
+   }
+
+   /**
+    * @return the time to wait for an answer before a duplicate is sent
+    */
+   public long getDelayMillis() {
+      return delayMillis;
+   }
+
+   /**
+    * Records the latency of a hedged read or of its duplicate. A read that was cancelled because its duplicate answered first is recorded with the time until it was cancelled.
+    *
+    * @param latencyNanos
+    */
+   public synchronized void record(final long latencyNanos) {
+      samples[nextSample] = latencyNanos;
+      nextSample = (nextSample + 1) % SAMPLES;
+      sampleCount = Math.min(SAMPLES, sampleCount + 1);
+      if (nextSample % RECOMPUTE_EVERY != 0) {
+         return;
+      }
+      final long[] sorted = Arrays.copyOf(samples, sampleCount);
+      Arrays.sort(sorted);
+      final int index = Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1);
+      final long millis = sorted[index] / 1_000_000;
+      delayMillis = Math.max(minDelayMillis, Math.min(maxDelayMillis, millis));
+   }
+
+   /**
+    * @return the uri the duplicate of a read of the given uri is sent to
+    */
+   public URI hedgeUri(final URI uri) throws URISyntaxException {
+      if (hedgeHosts.isEmpty()) {
+         return uri;
+      }
+      final URL host = hedgeHosts.get(Math.floorMod(nextHost.getAndIncrement(), hedgeHosts.size()));
+      return new URI(host.getProtocol(), uri.getUserInfo(), host.getHost(), host.getPort(), uri.getPath(), uri.getQuery(), uri.getFragment());
+   }
+}
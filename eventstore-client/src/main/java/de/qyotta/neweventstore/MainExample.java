@@ -8,6 +8,7 @@ import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 
 import de.qyotta.eventstore.model.EventResponse;
+import de.qyotta.eventstore.utils.ReaderMetrics;
 
 public class MainExample {
 
@@ -31,25 +32,20 @@ public class MainExample {
    private static void readForward() throws ReadFailedException, InterruptedException {
       retryWaitTime = 1;
 
-      final long start = System.currentTimeMillis();
-
+      final ReaderMetrics metrics = esHttpEventStore.metricsOf(streamName);
       long nextEventNumber = 0L;
 
       while (true) {
          try {
             final StreamEventsSlice slice = esHttpEventStore.readEventsForward(streamName, nextEventNumber, 4096, "");
 
-            final long end = System.currentTimeMillis();
-
-            final double throughput = slice.getNextEventNumber() / (double) ((end - start) / 1000);
-
             String x = "";
 
             if (slice.isEndOfStream()) {
                x += "[head of stream reached] ";
             }
 
-            x += "Read " + slice.getNextEventNumber() + ". throughput:" + throughput + " events/s";
+            x += "Read " + slice.getNextEventNumber() + ". lag: " + metrics.getLagEvents() + " events, throughput: " + metrics.getEventsPerSecond() + " events/s";
 
             System.out.println(x);
             nextEventNumber = slice.getNextEventNumber();
@@ -0,0 +1,94 @@
+package de.qyotta.eventstore;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Date;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.cache.HttpCacheEntry;
+import org.apache.http.impl.client.cache.CacheConfig;
+import org.apache.http.impl.client.cache.HeapResource;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.qyotta.eventstore.utils.CacheSnapshot;
+import de.qyotta.eventstore.utils.FileCacheStorage;
+
+@SuppressWarnings("nls")
+public class CacheSnapshotTest {
+   private static final String IMMUTABLE_URL = "http://127.0.0.1:2113/streams/test/0/forward/20?embed=rich";
+   private static final String HEAD_URL = "http://127.0.0.1:2113/streams/test?embed=rich";
+
+   private File cacheDirectory;
+   private File targetDirectory;
+   private File snapshot;
+
+   @Before
+   public void setUp() throws IOException {
+      cacheDirectory = Files.createTempDirectory("es-cache")
+            .toFile();
+      targetDirectory = Files.createTempDirectory("es-cache-target")
+            .toFile();
+      snapshot = File.createTempFile("es-cache", ".zip");
+
+      final FileCacheStorage storage = new FileCacheStorage(CacheConfig.DEFAULT, cacheDirectory);
+      storage.putEntry(IMMUTABLE_URL, entry("max-age=31536000, public", "immutable"));
+      storage.putEntry(HEAD_URL, entry("max-age=0, no-cache, must-revalidate", "head"));
+   }
+
+   @After
+   public void tearDown() throws IOException {
+      FileUtils.deleteDirectory(cacheDirectory);
+      FileUtils.deleteDirectory(targetDirectory);
+      snapshot.delete();
+   }
+
+   @Test
+   public void shouldRestoreAllEntriesFromSnapshot() throws IOException {
+      assertThat(CacheSnapshot.export(cacheDirectory, snapshot, CacheSnapshot.ALL), is(equalTo(2)));
+      assertThat(CacheSnapshot.load(snapshot, targetDirectory, 4), is(equalTo(2)));
+
+      final FileCacheStorage restored = new FileCacheStorage(CacheConfig.DEFAULT, targetDirectory);
+      assertThat(body(restored.getEntry(IMMUTABLE_URL)), is(equalTo("immutable")));
+      assertThat(body(restored.getEntry(HEAD_URL)), is(equalTo("head")));
+   }
+
+   @Test
+   public void shouldOnlyExportImmutableEntries() throws IOException {
+      assertThat(CacheSnapshot.export(cacheDirectory, snapshot, CacheSnapshot.IMMUTABLE_ONLY), is(equalTo(1)));
+      CacheSnapshot.load(snapshot, targetDirectory, 2);
+
+      final FileCacheStorage restored = new FileCacheStorage(CacheConfig.DEFAULT, targetDirectory);
+      assertThat(restored.getEntry(IMMUTABLE_URL), is(notNullValue()));
+      assertThat(restored.getEntry(HEAD_URL), is(nullValue()));
+   }
+
+   @Test
+   public void shouldKeepExistingEntriesWhenLoading() throws IOException {
+      CacheSnapshot.export(cacheDirectory, snapshot, CacheSnapshot.ALL);
+      assertThat(CacheSnapshot.load(snapshot, cacheDirectory, 2), is(equalTo(0)));
+   }
+
+   private static HttpCacheEntry entry(final String cacheControl, final String body) {
+      final Date now = new Date();
+      return new HttpCacheEntry(now, now, new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"), new Header[] { new BasicHeader("Cache-Control", cacheControl) }, new HeapResource(body.getBytes()));
+   }
+
+   private static String body(final HttpCacheEntry entry) throws IOException {
+      return IOUtils.toString(entry.getResource()
+            .getInputStream());
+   }
+}
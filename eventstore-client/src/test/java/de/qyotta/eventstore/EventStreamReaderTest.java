@@ -2,8 +2,15 @@ package de.qyotta.eventstore;
 
 import de.qyotta.eventstore.model.Event;
 import de.qyotta.eventstore.model.EventResponse;
+import de.qyotta.eventstore.utils.CheckpointStore;
+import de.qyotta.eventstore.utils.EsUtils;
 import de.qyotta.eventstore.utils.EventStreamReader;
+import de.qyotta.eventstore.utils.EventStreamReaderGroup;
+import de.qyotta.eventstore.utils.EventStreamReaderImpl;
 import de.qyotta.eventstore.utils.EventStreamReaderImpl.EventStreamReaderCallback;
+import de.qyotta.eventstore.utils.InMemoryCheckpointStore;
+import de.qyotta.eventstore.utils.ParallelEventDispatcher;
+import de.qyotta.eventstore.utils.TimestampIndex;
 
 import static com.jayway.awaitility.Awaitility.await;
 import static com.jayway.awaitility.Duration.FIVE_SECONDS;
@@ -20,8 +27,15 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.Ignore;
@@ -163,6 +177,228 @@ public class EventStreamReaderTest extends AbstractEsTest {
       verify(callback, times(116)).readEvent(any(EventResponse.class));
    }
 
+   @Test
+   public void shouldDeliverEventsInBatches() throws InterruptedException {
+      createEvents(25);
+      final List<Integer> batchSizes = new ArrayList<>();
+      final EventStreamReader eventStreamReader = client.newBatchEventStreamReader(streamName, -1, 10, 0, events -> batchSizes.add(events.size()));
+      eventStreamReader.start();
+      eventStreamReader.catchUp();
+      assertThat(batchSizes.toString(), is(equalTo("[10, 10, 5]")));
+   }
+
+   @Test
+   public void shouldReadFailedBatchAgain() throws InterruptedException {
+      createEvents(15);
+      final AtomicBoolean failed = new AtomicBoolean(false);
+      final List<Integer> batchSizes = new ArrayList<>();
+      final EventStreamReader eventStreamReader = client.newBatchEventStreamReader(streamName, -1, 10, 0, events -> {
+         if (batchSizes.size() == 1 && !failed.getAndSet(true)) {
+            throw new IllegalStateException("database unavailable");
+         }
+         batchSizes.add(events.size());
+      }, (message, cause) -> {
+         // the failure is expected
+      });
+      eventStreamReader.start();
+      eventStreamReader.catchUp();
+      assertThat(batchSizes.toString(), is(equalTo("[10]")));
+      eventStreamReader.catchUp();
+      assertThat(batchSizes.toString(), is(equalTo("[10, 5]")));
+   }
+
+   @Test
+   public void shouldCatchUpInReaderGroup() throws InterruptedException {
+      createEvents(25);
+      final EventStreamReaderGroup group = new EventStreamReaderGroup(2);
+      group.setTickMillis(10);
+      group.setMaxEventsPerTurn(10);
+      final AtomicInteger first = new AtomicInteger();
+      final AtomicInteger second = new AtomicInteger();
+      try {
+         client.newEventStreamReader(streamName, 100, group, event -> first.incrementAndGet())
+               .start();
+         client.newEventStreamReader(streamName, 100, group, event -> second.incrementAndGet())
+               .start();
+         assertThat(group.size(), is(equalTo(2)));
+         await().atMost(FIVE_SECONDS)
+               .until(() -> first.get() == 25 && second.get() == 25);
+      } finally {
+         group.shutdown(5, TimeUnit.SECONDS);
+      }
+   }
+
+   @Test
+   public void shouldNotBlockReaderGroupWhileBatchLingers() throws InterruptedException {
+      createEvents(15);
+      final EventStreamReaderGroup group = new EventStreamReaderGroup(1);
+      group.setTickMillis(10);
+      final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+      final AtomicInteger other = new AtomicInteger();
+      try {
+         final EventStreamReaderImpl batchReader = (EventStreamReaderImpl) client.newBatchEventStreamReader(streamName, 10, 10, 2000, events -> batchSizes.add(events.size()));
+         batchReader.setGroup(group);
+         batchReader.start();
+         await().atMost(FIVE_SECONDS)
+               .until(() -> batchSizes.size() == 1);
+         client.newEventStreamReader(streamName, 10, group, event -> other.incrementAndGet())
+               .start();
+
+         // the only worker of the group is free while the last 5 events wait for more
+         await().atMost(FIVE_SECONDS)
+               .until(() -> other.get() == 15);
+         assertThat(batchSizes.toString(), is(equalTo("[10]")));
+         await().atMost(FIVE_SECONDS)
+               .until(() -> batchSizes.size() == 2);
+         assertThat(batchSizes.toString(), is(equalTo("[10, 5]")));
+      } finally {
+         group.shutdown(5, TimeUnit.SECONDS);
+      }
+   }
+
+   @Test
+   public void shouldResumeAfterCheckpoint() throws InterruptedException {
+      createEvents(15);
+      final CheckpointStore checkpointStore = new InMemoryCheckpointStore();
+      final List<Long> eventNumbers = new ArrayList<>();
+      final EventStreamReader eventStreamReader = client.newEventStreamReader(streamName, -1, event -> eventNumbers.add(event.getContent()
+            .getEventNumber()));
+      eventStreamReader.setCheckpointStore(checkpointStore, "test");
+      eventStreamReader.resume();
+      eventStreamReader.catchUp();
+      assertThat(eventNumbers.size(), is(equalTo(15)));
+      assertThat(checkpointStore.load("test"), is(equalTo(14L)));
+
+      createEvents(5);
+      eventNumbers.clear();
+      eventStreamReader.resume();
+      eventStreamReader.catchUp();
+      assertThat(eventNumbers.toString(), is(equalTo("[15, 16, 17, 18, 19]")));
+   }
+
+   @Test
+   public void shouldStartAfterTimestamp() throws InterruptedException {
+      startAfterTimestamp(null);
+   }
+
+   @Test
+   public void shouldStartAfterTimestampWithIndex() throws InterruptedException {
+      startAfterTimestamp(new TimestampIndex(2));
+   }
+
+   @Test
+   public void shouldResumeOnDispatcherWithEventsInFlight() throws InterruptedException {
+      createEvents(10);
+      final CheckpointStore checkpointStore = new InMemoryCheckpointStore();
+      final CountDownLatch release = new CountDownLatch(1);
+      final List<Long> eventNumbers = new CopyOnWriteArrayList<>();
+      final ParallelEventDispatcher dispatcher = new ParallelEventDispatcher(2, ParallelEventDispatcher.BY_STREAM_ID, event -> {
+         final long eventNumber = event.getContent()
+               .getEventNumber();
+         if (eventNumber == 3) {
+            try {
+               release.await();
+            } catch (final InterruptedException e) {
+               Thread.currentThread()
+                     .interrupt();
+            }
+         }
+         eventNumbers.add(eventNumber);
+      });
+      try {
+         final EventStreamReader eventStreamReader = client.newEventStreamReader(streamName, -1, dispatcher);
+         eventStreamReader.setCheckpointStore(checkpointStore, "test");
+         eventStreamReader.resume();
+         eventStreamReader.catchUp();
+         await().atMost(FIVE_SECONDS)
+               .until(() -> eventNumbers.size() == 3);
+         assertThat(checkpointStore.load("test"), is(equalTo(2L)));
+
+         // reads events 3 to 9 again while they are in flight
+         eventStreamReader.resume();
+         eventStreamReader.catchUp();
+         release.countDown();
+         assertThat(dispatcher.awaitProcessed(5, TimeUnit.SECONDS), is(true));
+         assertThat(eventNumbers.toString(), is(equalTo("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]")));
+         assertThat(checkpointStore.load("test"), is(equalTo(9L)));
+      } finally {
+         release.countDown();
+         dispatcher.shutdown();
+      }
+   }
+
+   @Test
+   public void shouldRewindFailedBatchOfCategoryStream() throws InterruptedException {
+      final String category = "category" + UUID.randomUUID()
+            .toString()
+            .replace("-", "");
+      for (int i = 0; i < 15; i++) {
+         final String eventUuid = UUID.randomUUID()
+               .toString();
+         client.appendEvent(category + "-" + i % 3, Event.builder()
+               .eventId(eventUuid)
+               .eventType("Testtype")
+               .data(new Gson().toJson(new MyEvent(eventUuid)))
+               .metadata(metaData())
+               .build());
+      }
+      final CheckpointStore checkpointStore = new InMemoryCheckpointStore();
+      final AtomicBoolean failed = new AtomicBoolean(false);
+      final List<Long> positions = new ArrayList<>();
+      final AtomicInteger batches = new AtomicInteger();
+      final EventStreamReader eventStreamReader = client.newBatchEventStreamReader("$ce-" + category, -1, 4, 0, events -> {
+         if (batches.get() == 1 && !failed.getAndSet(true)) {
+            throw new IllegalStateException("database unavailable");
+         }
+         batches.incrementAndGet();
+         for (final EventResponse event : events) {
+            positions.add(EsUtils.positionOf(event));
+         }
+      }, (message, cause) -> {
+         // the failure is expected
+      });
+      eventStreamReader.setCheckpointStore(checkpointStore, "test");
+      eventStreamReader.resume();
+      // the category projection writes the links asynchronously
+      await().atMost(FIVE_SECONDS)
+            .until(() -> {
+               eventStreamReader.catchUp();
+               return positions.size() >= 15;
+            });
+
+      final List<Long> expected = new ArrayList<>();
+      for (long i = 0; i < 15; i++) {
+         expected.add(i);
+      }
+      assertThat(failed.get(), is(true));
+      assertThat(positions, is(equalTo(expected)));
+      assertThat(checkpointStore.load("test"), is(equalTo(14L)));
+   }
+
+   private void startAfterTimestamp(final TimestampIndex timestampIndex) throws InterruptedException {
+      createEvents(5);
+      // the second half of the events gets later timestamps
+      Thread.sleep(50);
+      createEvents(5);
+      final List<Date> timestamps = new ArrayList<>();
+      final EventStreamReader indexingReader = client.newEventStreamReader(streamName, -1, event -> timestamps.add(EsUtils.timestampOf(event)));
+      indexingReader.setTimestampIndex(timestampIndex);
+      indexingReader.start();
+      indexingReader.catchUp();
+      assertThat(timestamps.size(), is(equalTo(10)));
+      if (timestampIndex != null) {
+         assertThat(timestampIndex.size(), is(equalTo(5)));
+      }
+
+      final List<Long> eventNumbers = new ArrayList<>();
+      final EventStreamReader eventStreamReader = client.newEventStreamReader(streamName, -1, event -> eventNumbers.add(event.getContent()
+            .getEventNumber()));
+      eventStreamReader.setTimestampIndex(timestampIndex);
+      eventStreamReader.start(timestamps.get(4));
+      eventStreamReader.catchUp();
+      assertThat(eventNumbers.toString(), is(equalTo("[5, 6, 7, 8, 9]")));
+   }
+
    private String prepareAnEventInStream() {
       final Event given = Event.builder()
             .eventId(UUID.randomUUID()
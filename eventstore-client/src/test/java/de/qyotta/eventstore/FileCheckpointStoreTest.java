@@ -0,0 +1,70 @@
+package de.qyotta.eventstore;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.qyotta.eventstore.utils.FileCheckpointStore;
+
+@SuppressWarnings("nls")
+public class FileCheckpointStoreTest {
+   private File directory;
+
+   @Before
+   public void setUp() throws IOException {
+      directory = Files.createTempDirectory("es-checkpoints")
+            .toFile();
+   }
+
+   @After
+   public void tearDown() throws IOException {
+      FileUtils.deleteDirectory(directory);
+   }
+
+   @Test
+   public void shouldHaveNoCheckpointInitially() {
+      final FileCheckpointStore store = new FileCheckpointStore(directory);
+      assertThat(store.load("reader"), is(nullValue()));
+      store.close();
+   }
+
+   @Test
+   public void shouldLoadStoredCheckpointAfterReopening() {
+      final FileCheckpointStore store = new FileCheckpointStore(directory, 10000);
+      store.store("reader/one", 41);
+      store.store("reader/one", 42);
+      store.store("reader/two", 7);
+      store.close();
+
+      final FileCheckpointStore reopened = new FileCheckpointStore(directory);
+      assertThat(reopened.load("reader/one"), is(equalTo(42L)));
+      assertThat(reopened.load("reader/two"), is(equalTo(7L)));
+      reopened.close();
+   }
+
+   @Test
+   public void shouldIgnoreCorruptCheckpoint() throws IOException {
+      final FileCheckpointStore store = new FileCheckpointStore(directory, 0);
+      store.store("reader", 42);
+      store.close();
+      final File[] files = directory.listFiles();
+      try (final RandomAccessFile raf = new RandomAccessFile(files[0], "rw")) {
+         raf.writeLong(43);
+      }
+
+      final FileCheckpointStore reopened = new FileCheckpointStore(directory);
+      assertThat(reopened.load("reader"), is(nullValue()));
+      reopened.close();
+   }
+}
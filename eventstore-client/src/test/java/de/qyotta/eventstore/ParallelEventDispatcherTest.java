@@ -0,0 +1,141 @@
+package de.qyotta.eventstore;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.qyotta.eventstore.model.Event;
+import de.qyotta.eventstore.model.EventResponse;
+import de.qyotta.eventstore.utils.CheckpointStore;
+import de.qyotta.eventstore.utils.InMemoryCheckpointStore;
+import de.qyotta.eventstore.utils.LowWatermarkTracker;
+import de.qyotta.eventstore.utils.ParallelEventDispatcher;
+
+@SuppressWarnings("nls")
+public class ParallelEventDispatcherTest {
+   private ParallelEventDispatcher dispatcher;
+
+   @After
+   public void tearDown() {
+      if (dispatcher != null) {
+         dispatcher.shutdown();
+      }
+   }
+
+   @Test
+   public void shouldKeepOrderPerAggregate() throws InterruptedException {
+      final Map<String, List<Long>> received = new ConcurrentHashMap<>();
+      dispatcher = new ParallelEventDispatcher(4, ParallelEventDispatcher.BY_AGGREGATE_ID, event -> {
+         received.computeIfAbsent(aggregateIdOf(event), k -> Collections.synchronizedList(new ArrayList<>()))
+               .add(event.getContent()
+                     .getEventNumber());
+      });
+      for (long i = 0; i < 1000; i++) {
+         dispatcher.readEvent(event(i, "aggregate-" + i % 7));
+      }
+      assertThat(dispatcher.awaitProcessed(5, TimeUnit.SECONDS), is(true));
+
+      for (final List<Long> eventNumbers : received.values()) {
+         final List<Long> sorted = new ArrayList<>(eventNumbers);
+         Collections.sort(sorted);
+         assertThat(eventNumbers, is(equalTo(sorted)));
+      }
+      assertThat(dispatcher.getLowWatermark(), is(equalTo(999L)));
+   }
+
+   @Test
+   public void shouldNotMoveLowWatermarkPastSlowEvent() throws InterruptedException {
+      final CheckpointStore checkpointStore = new InMemoryCheckpointStore();
+      final CountDownLatch release = new CountDownLatch(1);
+      final CountDownLatch fastProcessed = new CountDownLatch(1);
+      dispatcher = new ParallelEventDispatcher(2, ParallelEventDispatcher.BY_AGGREGATE_ID, event -> {
+         if ("slow".equals(aggregateIdOf(event))) {
+            try {
+               release.await();
+            } catch (final InterruptedException e) {
+               Thread.currentThread()
+                     .interrupt();
+            }
+         } else if (event.getContent()
+               .getEventNumber() == 3) {
+            fastProcessed.countDown();
+         }
+      });
+      dispatcher.setCheckpointStore(checkpointStore, "test");
+      dispatcher.readEvent(event(0, "fast"));
+      dispatcher.readEvent(event(1, "slow"));
+      dispatcher.readEvent(event(2, "fast"));
+      dispatcher.readEvent(event(3, "fast"));
+
+      // the fast worker completed event 2 before it started event 3
+      assertThat(fastProcessed.await(5, TimeUnit.SECONDS), is(true));
+      assertThat(dispatcher.getLowWatermark(), is(equalTo(0L)));
+      assertThat(checkpointStore.load("test"), is(equalTo(0L)));
+      release.countDown();
+      assertThat(dispatcher.awaitProcessed(5, TimeUnit.SECONDS), is(true));
+      assertThat(dispatcher.getLowWatermark(), is(equalTo(3L)));
+      assertThat(checkpointStore.load("test"), is(equalTo(3L)));
+   }
+
+   @Test
+   public void shouldTrackLowWatermark() {
+      final LowWatermarkTracker tracker = new LowWatermarkTracker();
+      tracker.register(10);
+      tracker.register(11);
+      tracker.register(15);
+
+      tracker.complete(11);
+      assertThat(tracker.getLowWatermark(), is(equalTo(-1L)));
+      tracker.complete(10);
+      assertThat(tracker.getLowWatermark(), is(equalTo(11L)));
+      tracker.complete(15);
+      assertThat(tracker.getLowWatermark(), is(equalTo(15L)));
+      assertThat(tracker.getInFlight(), is(equalTo(0)));
+   }
+
+   @Test
+   public void shouldNotRegisterEventsReadAgain() {
+      final LowWatermarkTracker tracker = new LowWatermarkTracker();
+      assertThat(tracker.register(1), is(true));
+      assertThat(tracker.register(2), is(true));
+      tracker.complete(1);
+
+      // a resumed reader reads the events after the low watermark again
+      assertThat(tracker.register(1), is(false));
+      assertThat(tracker.register(2), is(false));
+      assertThat(tracker.register(3), is(true));
+      assertThat(tracker.getInFlight(), is(equalTo(2)));
+      tracker.complete(2);
+      tracker.complete(3);
+      assertThat(tracker.getLowWatermark(), is(equalTo(3L)));
+      assertThat(tracker.getInFlight(), is(equalTo(0)));
+   }
+
+   private static EventResponse event(final long eventNumber, final String aggregateId) {
+      return EventResponse.builder()
+            .title(eventNumber + "@$ce-domain")
+            .content(Event.builder()
+                  .eventNumber(eventNumber)
+                  .eventStreamId("domain-test-" + aggregateId)
+                  .metadata("{\"AgregateIdentifier\":\"" + aggregateId + "\"}")
+                  .build())
+            .build();
+   }
+
+   private static String aggregateIdOf(final EventResponse event) {
+      final String streamId = event.getContent()
+            .getEventStreamId();
+      return streamId.substring("domain-test-".length());
+   }
+}
@@ -0,0 +1,63 @@
+package de.qyotta.eventstore;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import de.qyotta.eventstore.utils.ReadThrottle;
+
+public class ReadThrottleTest {
+   private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+   private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+   @Test
+   public void shouldLimitEventsPerSecond() {
+      final ReadThrottle throttle = new ReadThrottle(1000, 0, 0);
+      final long start = System.nanoTime();
+      for (int i = 0; i < 15; i++) {
+         throttle.onRead(100, 0, FAST);
+      }
+      final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      assertThat(elapsedMillis, is(greaterThanOrEqualTo(400L)));
+   }
+
+   @Test
+   public void shouldLimitBytesPerSecond() {
+      final ReadThrottle throttle = new ReadThrottle(0, 10_000, 0);
+      final long start = System.nanoTime();
+      for (int i = 0; i < 15; i++) {
+         throttle.onRead(1, 1_000, FAST);
+      }
+      final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      assertThat(elapsedMillis, is(greaterThanOrEqualTo(400L)));
+   }
+
+   @Test
+   public void shouldNotWaitWithoutLimits() {
+      final ReadThrottle throttle = new ReadThrottle(0, 0, 100);
+      final long start = System.nanoTime();
+      for (int i = 0; i < 100; i++) {
+         throttle.onRead(4096, 1_000_000, FAST);
+      }
+      assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(lessThan(100L)));
+   }
+
+   @Test
+   public void shouldBackOffWhileReadsAreSlow() {
+      final ReadThrottle throttle = new ReadThrottle(0, 0, 100);
+      throttle.onRead(1, 0, SLOW);
+      assertThat(throttle.getBackoffMillis(), is(equalTo(ReadThrottle.BACKOFF_STEP_MILLIS)));
+      throttle.onRead(1, 0, SLOW);
+      assertThat(throttle.getBackoffMillis(), is(equalTo(2 * ReadThrottle.BACKOFF_STEP_MILLIS)));
+      throttle.onRead(1, 0, FAST);
+      assertThat(throttle.getBackoffMillis(), is(equalTo(ReadThrottle.BACKOFF_STEP_MILLIS)));
+      throttle.onRead(1, 0, FAST);
+      assertThat(throttle.getBackoffMillis(), is(equalTo(0L)));
+   }
+}
@@ -0,0 +1,93 @@
+package de.qyotta.eventstore;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.qyotta.eventstore.utils.SingleFlight;
+
+@SuppressWarnings("nls")
+public class SingleFlightTest {
+   private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+   @After
+   public void tearDown() {
+      executor.shutdownNow();
+   }
+
+   @Test
+   public void shouldShareLoadInFlight() throws Exception {
+      final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+      final AtomicInteger loads = new AtomicInteger();
+      final CountDownLatch loading = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      final Future<String> first = executor.submit(() -> singleFlight.execute("feed", () -> {
+         loads.incrementAndGet();
+         loading.countDown();
+         release.await();
+         return "entries";
+      }));
+      loading.await(5, TimeUnit.SECONDS);
+      final List<Future<String>> others = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+         others.add(executor.submit(() -> singleFlight.execute("feed", () -> {
+            loads.incrementAndGet();
+            return "other";
+         })));
+      }
+      // give the other callers time to join the flight
+      Thread.sleep(100);
+      release.countDown();
+
+      assertThat(first.get(5, TimeUnit.SECONDS), is(equalTo("entries")));
+      for (final Future<String> other : others) {
+         assertThat(other.get(5, TimeUnit.SECONDS), is(equalTo("entries")));
+      }
+      assertThat(loads.get(), is(equalTo(1)));
+      assertThat(singleFlight.size(), is(equalTo(0)));
+   }
+
+   @Test
+   public void shouldReuseResultWithinWindow() throws Exception {
+      final SingleFlight<String, Integer> singleFlight = new SingleFlight<>(10000);
+      final AtomicInteger loads = new AtomicInteger();
+      assertThat(singleFlight.execute("head", loads::incrementAndGet), is(equalTo(1)));
+      assertThat(singleFlight.execute("head", loads::incrementAndGet), is(equalTo(1)));
+      assertThat(singleFlight.execute("other", loads::incrementAndGet), is(equalTo(2)));
+   }
+
+   @Test
+   public void shouldLoadAgainWithoutReuseWindow() throws Exception {
+      final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+      final AtomicInteger loads = new AtomicInteger();
+      assertThat(singleFlight.execute("head", loads::incrementAndGet), is(equalTo(1)));
+      assertThat(singleFlight.execute("head", loads::incrementAndGet), is(equalTo(2)));
+   }
+
+   @Test
+   public void shouldNotReuseFailures() throws Exception {
+      final SingleFlight<String, String> singleFlight = new SingleFlight<>(10000);
+      try {
+         singleFlight.execute("head", () -> {
+            throw new IllegalStateException("unavailable");
+         });
+         fail("The failure should be thrown");
+      } catch (final IllegalStateException e) {
+         // expected
+      }
+      assertThat(singleFlight.execute("head", () -> "entries"), is(equalTo("entries")));
+   }
+}
@@ -0,0 +1,73 @@
+package de.qyotta.eventstore;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.qyotta.eventstore.utils.TimestampIndex;
+
+public class TimestampIndexTest {
+   private File file;
+
+   @Before
+   public void setUp() throws IOException {
+      file = File.createTempFile("es-timestamps", ".idx");
+      file.delete();
+   }
+
+   @After
+   public void tearDown() {
+      file.delete();
+   }
+
+   @Test
+   public void shouldOnlyRecordEverySpacingEvents() {
+      final TimestampIndex index = new TimestampIndex(10);
+      for (long eventNumber = 0; eventNumber < 35; eventNumber++) {
+         index.record(eventNumber, 1000 + eventNumber);
+      }
+      assertThat(index.size(), is(equalTo(4)));
+      assertThat(index.floorEventNumber(999), is(nullValue()));
+      assertThat(index.floorEventNumber(1015), is(equalTo(10L)));
+      assertThat(index.higherEventNumber(1015), is(equalTo(20L)));
+      assertThat(index.higherEventNumber(1030), is(nullValue()));
+   }
+
+   @Test
+   public void shouldLoadPersistedEntries() {
+      final TimestampIndex index = new TimestampIndex(10, file);
+      for (long eventNumber = 0; eventNumber < 25; eventNumber++) {
+         index.record(eventNumber, 1000 + eventNumber);
+      }
+
+      final TimestampIndex reloaded = new TimestampIndex(10, file);
+      assertThat(reloaded.size(), is(equalTo(3)));
+      assertThat(reloaded.floorEventNumber(1025), is(equalTo(20L)));
+      reloaded.record(25, 1025);
+      assertThat(reloaded.size(), is(equalTo(3)));
+      reloaded.record(30, 1030);
+      assertThat(reloaded.size(), is(equalTo(4)));
+   }
+
+   @Test
+   public void shouldIgnorePartiallyWrittenEntry() throws IOException {
+      new TimestampIndex(10, file).record(0, 1000);
+      try (final FileOutputStream out = new FileOutputStream(file, true)) {
+         out.write(new byte[] { 1, 2, 3 });
+      }
+
+      final TimestampIndex reloaded = new TimestampIndex(10, file);
+      reloaded.record(10, 1010);
+      assertThat(new TimestampIndex(10, file).floorEventNumber(1010), is(equalTo(10L)));
+      assertThat(file.length(), is(equalTo(32L)));
+   }
+}
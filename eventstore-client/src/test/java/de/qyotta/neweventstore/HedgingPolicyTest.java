@@ -0,0 +1,156 @@
+package de.qyotta.neweventstore;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class HedgingPolicyTest {
+   private static final long MILLIS = 1_000_000;
+
+   @Test
+   public void shouldDelayByPercentileOfRecordedLatencies() {
+      final HedgingPolicy policy = new HedgingPolicy();
+      policy.setPercentile(0.5);
+      for (int i = 1; i <= 15; i++) {
+         policy.record(i * 10 * MILLIS);
+      }
+      // the delay is only recomputed every 16 samples
+      assertThat(policy.getDelayMillis(), is(equalTo(100L)));
+      policy.record(160 * MILLIS);
+      assertThat(policy.getDelayMillis(), is(equalTo(80L)));
+   }
+
+   @Test
+   public void shouldRecomputeWithNewSamples() {
+      final HedgingPolicy policy = new HedgingPolicy();
+      record(policy, 16, 10);
+      assertThat(policy.getDelayMillis(), is(equalTo(10L)));
+      record(policy, 15, 200);
+      assertThat(policy.getDelayMillis(), is(equalTo(10L)));
+      record(policy, 1, 200);
+      assertThat(policy.getDelayMillis(), is(equalTo(200L)));
+   }
+
+   @Test
+   public void shouldClampDelay() {
+      final HedgingPolicy policy = new HedgingPolicy();
+      policy.setMaxDelayMillis(50);
+      record(policy, 16, 1);
+      assertThat(policy.getDelayMillis(), is(equalTo(5L)));
+      record(policy, 16, 1000);
+      assertThat(policy.getDelayMillis(), is(equalTo(50L)));
+   }
+
+   @Test
+   public void shouldRotateHedgeHosts() throws Exception {
+      final HedgingPolicy policy = new HedgingPolicy(Arrays.asList(new URL("http://first:2113"), new URL("https://second:2114")));
+      final URI uri = new URI("http://node:2113/streams/test/0/forward/20?embed=body");
+      assertThat(policy.hedgeUri(uri), is(equalTo(new URI("http://first:2113/streams/test/0/forward/20?embed=body"))));
+      assertThat(policy.hedgeUri(uri), is(equalTo(new URI("https://second:2114/streams/test/0/forward/20?embed=body"))));
+      assertThat(policy.hedgeUri(uri), is(equalTo(new URI("http://first:2113/streams/test/0/forward/20?embed=body"))));
+   }
+
+   @Test
+   public void shouldHedgeToSameNodeWithoutHosts() throws URISyntaxException {
+      final URI uri = new URI("http://node:2113/streams/test/0");
+      assertThat(new HedgingPolicy().hedgeUri(uri), is(sameInstance(uri)));
+   }
+
+   @Test
+   public void shouldUseFirstAnswerAndConsumeTheOther() throws Exception {
+      final Hedge hedge = new Hedge(new HedgingPolicy());
+      final FutureCallback<HttpResponse> primary = hedge.callback(true);
+      final FutureCallback<HttpResponse> duplicate = hedge.callback(false);
+      final AtomicBoolean primaryClosed = new AtomicBoolean();
+      final AtomicBoolean duplicateClosed = new AtomicBoolean();
+      final HttpResponse duplicateResponse = response(duplicateClosed);
+
+      duplicate.completed(duplicateResponse);
+      primary.completed(response(primaryClosed));
+
+      assertThat(hedge.get(), is(sameInstance(duplicateResponse)));
+      assertThat(hedge.isPrimary(duplicateResponse), is(false));
+      assertThat(duplicateClosed.get(), is(false));
+      assertThat(primaryClosed.get(), is(true));
+   }
+
+   @Test
+   public void shouldSendDuplicateIfPrimaryFails() throws Exception {
+      final Hedge hedge = new Hedge(new HedgingPolicy());
+      final FutureCallback<HttpResponse> primary = hedge.callback(true);
+      primary.failed(new IOException("connection reset"));
+      assertThat(hedge.awaitPrimary(TimeUnit.SECONDS.toMillis(5)), is(false));
+
+      final HttpResponse duplicateResponse = response(new AtomicBoolean());
+      hedge.callback(false)
+            .completed(duplicateResponse);
+      assertThat(hedge.get(), is(sameInstance(duplicateResponse)));
+   }
+
+   @Test
+   public void shouldFailOnlyAfterBothFailed() throws Exception {
+      final Hedge hedge = new Hedge(new HedgingPolicy());
+      hedge.callback(true)
+            .failed(new IOException("primary"));
+      hedge.callback(false)
+            .failed(new IOException("duplicate"));
+      try {
+         hedge.get();
+         fail("Expected the read to fail");
+      } catch (final ExecutionException e) {
+         assertThat(e.getCause()
+               .getMessage(), is(equalTo("duplicate")));
+      }
+   }
+
+   @Test
+   public void shouldReturnPrimaryAnsweredInTime() throws Exception {
+      final Hedge hedge = new Hedge(new HedgingPolicy());
+      final HttpResponse primaryResponse = response(new AtomicBoolean());
+      hedge.callback(true)
+            .completed(primaryResponse);
+      assertThat(hedge.awaitPrimary(0), is(true));
+      assertThat(hedge.isPrimary(hedge.get()), is(true));
+   }
+
+   private static void record(final HedgingPolicy policy, final int count, final long latencyMillis) {
+      for (int i = 0; i < count; i++) {
+         policy.record(latencyMillis * MILLIS);
+      }
+   }
+
+   private static HttpResponse response(final AtomicBoolean closed) {
+      final BasicHttpEntity entity = new BasicHttpEntity();
+      entity.setContent(new ByteArrayInputStream("{}".getBytes()) {
+         @Override
+         public void close() throws IOException {
+            closed.set(true);
+            super.close();
+         }
+      });
+      final BasicHttpResponse response = new BasicHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"));
+      response.setEntity(entity);
+      return response;
+   }
+}